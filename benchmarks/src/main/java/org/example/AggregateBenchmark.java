@@ -0,0 +1,46 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AggregateBenchmark measures the contact-hour and leave totals read by reports and dashboards.
+ * Single Responsibility: Track Lab.totalContactHours and the campus rollup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregateBenchmark {
+
+    @Param({"LABS_100", "LABS_10K", "LABS_100K"})
+    public SyntheticData.Scale scale;
+
+    private DataStore dataStore;
+    private List<Lab> labs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = SyntheticData.generate(scale, LocalDate.now());
+        labs = dataStore.getLabs();
+    }
+
+    @Benchmark
+    public void contactHoursPerLab(Blackhole bh) {
+        for (Lab lab : labs) {
+            bh.consume(lab.totalContactHours());
+            bh.consume(lab.leavesCount());
+        }
+    }
+
+    @Benchmark
+    public double campusContactHours() {
+        return dataStore.totalContactHours();
+    }
+}
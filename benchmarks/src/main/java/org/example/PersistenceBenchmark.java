@@ -0,0 +1,73 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * PersistenceBenchmark measures snapshot save/load and user loading.
+ * Single Responsibility: Track the cost of the on-disk formats at campus scale.
+ *
+ * save includes the fsync and rename; encode is the codec alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({"LABS_100", "LABS_10K", "LABS_100K"})
+    public SyntheticData.Scale scale;
+
+    private Path dir;
+    private DataStore dataStore;
+    private LabRepository repository;
+    private UserRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("lab-bench");
+        dataStore = SyntheticData.generate(scale, LocalDate.now());
+        repository = new LabRepository(dir.resolve("datastore.dat"));
+        repository.save(dataStore);
+        userRepository = new UserRepository(dir.resolve("users.dat"));
+        userRepository.saveUsers(SyntheticData.users(scale));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        repository.save(dataStore);
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        DataStoreCodec.write(dataStore, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public DataStore load() throws Exception {
+        return repository.load();
+    }
+
+    @Benchmark
+    public List<User> loadUsers() throws Exception {
+        return userRepository.loadUsers();
+    }
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * QueryBenchmark measures the dashboard lookups behind every role's lab table.
+ * Single Responsibility: Track UIController.getLabsForUser for each role and view mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({"LABS_100", "LABS_10K", "LABS_100K"})
+    public SyntheticData.Scale scale;
+
+    @Param({"ACADEMIC_OFFICER", "ATTENDANT", "HOD", "INSTRUCTOR", "TA"})
+    public User.Role role;
+
+    @Param({"ALL", "ACTIVE_NOW", "TODAY"})
+    public LabViewMode mode;
+
+    private Path dir;
+    private UIController controller;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("lab-bench");
+        LabRepository repository = new LabRepository(dir.resolve("datastore.dat"), true);
+        repository.save(SyntheticData.generate(scale, LocalDate.now()));
+        controller = new UIController(new DataService(repository));
+        user = SyntheticData.userFor(role);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<Lab> labsForUser() {
+        return controller.getLabsForUser(user, mode);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReportBenchmark measures report rendering in each output format.
+ * Single Responsibility: Track report text generation without any JavaFX rendering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+
+    @Param({"LABS_100", "LABS_10K", "LABS_100K"})
+    public SyntheticData.Scale scale;
+
+    @Param({"TEXT", "CSV", "JSON"})
+    public ReportFormat format;
+
+    private List<Lab> labs;
+    private final ReportEngine engine = new ReportEngine();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        labs = SyntheticData.generate(scale, LocalDate.now()).getLabs();
+    }
+
+    @Benchmark
+    public void weeklySchedule() throws IOException {
+        try (ReportWriter w = ReportWriter.create(format, Writer.nullWriter())) {
+            engine.writeWeeklySchedule(labs, w);
+        }
+    }
+
+    @Benchmark
+    public void weeklyTimeSheet() throws IOException {
+        try (ReportWriter w = ReportWriter.create(format, Writer.nullWriter())) {
+            engine.writeWeeklyTimeSheet(labs, w);
+        }
+    }
+
+    @Benchmark
+    public void semesterSummary() throws IOException {
+        try (ReportWriter w = ReportWriter.create(format, Writer.nullWriter())) {
+            engine.writeSemesterSummary(labs, w);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SyntheticData builds large, deterministic DataStores for the benchmarks.
+ * Single Responsibility: Generate campus-sized test data of a chosen scale.
+ *
+ * Schedules are laid out around an anchor date so that "active now" and "today"
+ * queries find a realistic share of labs when the anchor is today.
+ */
+public class SyntheticData {
+
+    public enum Scale {
+        LABS_100(100, 10),
+        LABS_10K(10_000, 10),
+        LABS_100K(100_000, 10); // 1M sessions
+
+        final int labs;
+        final int sessionsPerLab;
+
+        Scale(int labs, int sessionsPerLab) {
+            this.labs = labs;
+            this.sessionsPerLab = sessionsPerLab;
+        }
+    }
+
+    static final int BUILDINGS = 20;
+    static final int LABS_PER_INSTRUCTOR = 5;
+    static final int LABS_PER_TA = 2;
+
+    public static String building(int i) {
+        return "Building " + i;
+    }
+
+    public static String instructorName(int i) {
+        return "Instructor " + i;
+    }
+
+    public static String taName(int i) {
+        return "TA " + i;
+    }
+
+    public static DataStore generate(Scale scale, LocalDate anchor) {
+        Random rnd = new Random(42);
+        DataStore ds = new DataStore();
+
+        int instructorCount = Math.max(1, scale.labs / LABS_PER_INSTRUCTOR);
+        int taCount = Math.max(1, scale.labs / LABS_PER_TA);
+        for (int i = 0; i < instructorCount; i++)
+            ds.getInstructors().add(new Instructor("I-" + i, instructorName(i)));
+        for (int i = 0; i < taCount; i++)
+            ds.getTas().add(new TA("TA-" + i, taName(i)));
+
+        for (int i = 0; i < scale.labs; i++) {
+            Lab lab = new Lab(String.format("LAB%06d", i), "Lab " + i);
+            lab.setVenue(new Venue(building(i % BUILDINGS), "Room " + (100 + i % 50)));
+            lab.setInstructor(ds.getInstructors().get(i % instructorCount));
+            lab.addTA(ds.getTas().get(i % taCount));
+            lab.addTA(ds.getTas().get((i + 1) % taCount));
+
+            // two-hour slots between 08:00 and 18:00, spread over the week around the anchor
+            LocalDateTime start = anchor.plusDays(i % 7 - 3).atTime(8 + i % 10, 0);
+            lab.setSchedule(new Schedule(start, start.plusHours(2)));
+
+            for (int s = 0; s < scale.sessionsPerLab; s++) {
+                LocalDateTime sessionStart = start.minusWeeks(scale.sessionsPerLab - s);
+                if (rnd.nextInt(10) == 0) {
+                    lab.addSession(new TimeSheet(null, null)); // leave
+                } else {
+                    lab.addSession(new TimeSheet(sessionStart.plusMinutes(rnd.nextInt(15)),
+                            sessionStart.plusMinutes(105 + rnd.nextInt(15))));
+                }
+            }
+            ds.addLab(lab);
+        }
+        return ds;
+    }
+
+    /**
+     * One login per staff member and attendant, plus an officer and a HOD.
+     */
+    public static List<User> users(Scale scale) {
+        List<User> users = new ArrayList<>();
+        users.add(new User("U-O", "officer", "pass123", "Officer", User.Role.ACADEMIC_OFFICER));
+        users.add(new User("U-H", "hod", "pass123", "Head", User.Role.HOD));
+        for (int b = 0; b < BUILDINGS; b++)
+            users.add(new User("U-A" + b, "attendant" + b, "pass123", "Attendant " + b, User.Role.ATTENDANT, building(b)));
+        for (int i = 0; i < Math.max(1, scale.labs / LABS_PER_INSTRUCTOR); i++)
+            users.add(new User("U-I" + i, "instructor" + i, "pass123", instructorName(i), User.Role.INSTRUCTOR));
+        for (int i = 0; i < Math.max(1, scale.labs / LABS_PER_TA); i++)
+            users.add(new User("U-T" + i, "ta" + i, "pass123", taName(i), User.Role.TA));
+        return users;
+    }
+
+    /**
+     * A representative user of the given role; staff users own a handful of labs.
+     */
+    public static User userFor(User.Role role) {
+        switch (role) {
+            case ATTENDANT:
+                return new User("U-A0", "attendant0", "pass123", "Attendant 0", role, building(0));
+            case INSTRUCTOR:
+                return new User("U-I0", "instructor0", "pass123", instructorName(0), role);
+            case TA:
+                return new User("U-T0", "ta0", "pass123", taName(0), role);
+            default:
+                return new User("U-" + role, role.name().toLowerCase(), "pass123", role.getDisplayName(), role);
+        }
+    }
+}
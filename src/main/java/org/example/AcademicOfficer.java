@@ -1,6 +1,8 @@
 package org.example;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 
 public class AcademicOfficer {
     private DataStore dataStore;
@@ -14,49 +16,75 @@ public class AcademicOfficer {
         Lab lab = new Lab(id, name);
         lab.setVenue(new Venue(building, room));
         lab.setSchedule(new Schedule(schedStart, schedEnd));
-        dataStore.getLabs().add(lab);
+        dataStore.addLab(lab);
         return lab;
     }
 
     public void assignInstructor(String labId, String instructorName) {
         Lab lab = findLab(labId);
         if (lab != null) {
-            Instructor instr = new Instructor("I-" + labId, instructorName);
+            Instructor instr = dataStore.resolveInstructor(instructorName);
+            Instructor previous = lab.getInstructor();
+            if (previous != null && previous != instr)
+                previous.getLabIds().remove(labId);
             lab.setInstructor(instr);
-            if (!dataStore.getInstructors().contains(instr)) {
-                dataStore.getInstructors().add(instr);
-            }
             instr.assignLab(labId);
+            dataStore.labChanged(lab);
         }
     }
 
     public void assignTA(String labId, String taName) {
         Lab lab = findLab(labId);
         if (lab != null) {
-            TA ta = new TA("TA-" + labId + "-" + System.nanoTime(), taName);
+            TA ta = dataStore.resolveTa(taName);
             lab.addTA(ta);
-            if (!dataStore.getTas().contains(ta)) {
-                dataStore.getTas().add(ta);
-            }
             ta.assignLab(labId);
+            dataStore.labChanged(lab);
         }
     }
 
     public void setSchedule(String labId, LocalDateTime start, LocalDateTime end) {
+        setSchedule(labId, new Schedule(start, end));
+    }
+
+    // one-off or weekly
+    public void setSchedule(String labId, Schedule schedule) {
         Lab lab = findLab(labId);
         if (lab != null) {
-            lab.setSchedule(new Schedule(start, end));
+            lab.setSchedule(schedule);
         }
     }
 
+    // conflict checks; callers decide whether to reject the change or go ahead and flag it
+
+    public List<ScheduleConflict> checkNewLab(Lab lab) {
+        return dataStore.findConflicts(lab);
+    }
+
+    public List<ScheduleConflict> checkSchedule(String labId, LocalDateTime start, LocalDateTime end) {
+        return checkSchedule(labId, new Schedule(start, end));
+    }
+
+    public List<ScheduleConflict> checkSchedule(String labId, Schedule schedule) {
+        Lab lab = findLab(labId);
+        if (lab == null)
+            return Collections.emptyList();
+        return dataStore.findScheduleConflicts(lab, schedule);
+    }
+
+    public List<ScheduleConflict> checkStaff(String labId, String name) {
+        Lab lab = findLab(labId);
+        if (lab == null)
+            return Collections.emptyList();
+        return dataStore.findStaffConflicts(lab, name);
+    }
+
+    public List<ScheduleConflict> auditConflicts() {
+        return dataStore.auditConflicts();
+    }
+
     private Lab findLab(String labId) {
-        // manual loop instead of stream
-        for (Lab l : dataStore.getLabs()) {
-            if (l.getId().equals(labId)) {
-                return l;
-            }
-        }
-        return null;
+        return dataStore.findLab(labId);
     }
 
     public DataStore getDataStore() {
@@ -6,8 +6,18 @@ import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import java.io.File;
 import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * AcademicOfficerView - Dashboard for Academic Officer role.
@@ -17,14 +27,13 @@ public class AcademicOfficerView {
     
     private final Stage stage;
     private final User user;
-    private final LabRepository labRepository;
     private final UIController uiController;
+    private LiveLabView labsView;
     
     public AcademicOfficerView(Stage stage, User user) {
         this.stage = stage;
         this.user = user;
-        this.labRepository = new LabRepository(Path.of("data", "datastore.dat"));
-        this.uiController = new UIController(labRepository);
+        this.uiController = new UIController(DataService.getInstance());
     }
     
     public void show() {
@@ -37,7 +46,7 @@ public class AcademicOfficerView {
         
         // Main content - labs table
         TableView<Lab> table = uiController.createLabsTable(user);
-        table.setItems(uiController.getLabsForUser(user, UIController.LabViewMode.ACTIVE_NOW));
+        labsView = uiController.createLabsView(user, table, LabViewMode.ACTIVE_NOW);
         root.setCenter(uiController.createTableContainer(table));
         
         // Controls - only Academic Officer features (pass table for view toggle)
@@ -82,17 +91,21 @@ public class AcademicOfficerView {
         Button addLabBtn = StyleManager.createStyledButton("➕ Add Lab", StyleManager.PRIMARY_COLOR);
         Button assignStaffBtn = StyleManager.createStyledButton("👥 Assign Staff", StyleManager.PRIMARY_COLOR);
         Button scheduleBtn = StyleManager.createStyledButton("📅 Set Schedule", "#2196F3");
+        Button conflictsBtn = StyleManager.createStyledButton("⚠ Check Conflicts", "#FF9800");
+        Button importBtn = StyleManager.createStyledButton("📥 Import CSV", "#607D8B");
 
         addLabBtn.setOnAction(e -> uiController.handleAddLab());
         assignStaffBtn.setOnAction(e -> uiController.handleAssignStaff());
         scheduleBtn.setOnAction(e -> openScheduleDialog());
+        conflictsBtn.setOnAction(e -> uiController.handleConflictAudit());
+        importBtn.setOnAction(e -> openImportDialog());
 
-        ChoiceBox<UIController.LabViewMode> viewChoice = new ChoiceBox<>();
-        viewChoice.getItems().addAll(UIController.LabViewMode.ACTIVE_NOW, UIController.LabViewMode.ALL, UIController.LabViewMode.TODAY);
-        viewChoice.setValue(UIController.LabViewMode.ACTIVE_NOW);
-        viewChoice.setOnAction(e -> table.setItems(uiController.getLabsForUser(user, viewChoice.getValue())));
+        ChoiceBox<LabViewMode> viewChoice = new ChoiceBox<>();
+        viewChoice.getItems().addAll(LabViewMode.ACTIVE_NOW, LabViewMode.ALL, LabViewMode.TODAY);
+        viewChoice.setValue(LabViewMode.ACTIVE_NOW);
+        viewChoice.setOnAction(e -> labsView.setMode(viewChoice.getValue()));
 
-        HBox primaryActions = new HBox(10, addLabBtn, assignStaffBtn, scheduleBtn, new Label(" "), viewChoice);
+        HBox primaryActions = new HBox(10, addLabBtn, assignStaffBtn, scheduleBtn, conflictsBtn, importBtn, new Label(" "), viewChoice);
         primaryActions.setPadding(new Insets(10));
         primaryActions.setStyle("-fx-background-color: " + StyleManager.CARD_BACKGROUND + "; " +
                                "-fx-border-color: " + StyleManager.BORDER_COLOR + "; " +
@@ -105,9 +118,9 @@ public class AcademicOfficerView {
     }
     
     private void openScheduleDialog() {
-        Dialog<Void> dialog = new Dialog<>();
+        Dialog<Boolean> dialog = new Dialog<>();
         dialog.setTitle("Manage Lab Schedules");
-        dialog.setHeaderText("Set schedule for selected lab");
+        dialog.setHeaderText("Set the weekly schedule for a lab");
         
         VBox content = new VBox(15);
         content.setPadding(new Insets(15));
@@ -116,6 +129,8 @@ public class AcademicOfficerView {
         labCombo.setStyle("-fx-font-size: 12;");
         labCombo.setPromptText("Select a lab");
         labCombo.setPrefWidth(300);
+        for (Lab lab : uiController.getLabsForUser(user, LabViewMode.ALL))
+            labCombo.getItems().add(lab.getId());
         
         DatePicker startDate = new DatePicker();
         startDate.setStyle("-fx-font-size: 12;");
@@ -128,26 +143,96 @@ public class AcademicOfficerView {
         Spinner<Integer> hourSpinner = new Spinner<>(0, 23, 10);
         hourSpinner.setStyle("-fx-font-size: 12;");
         
+        // a semester is fifteen weeks unless the officer picks another end
+        DatePicker endDate = new DatePicker();
+        endDate.setStyle("-fx-font-size: 12;");
+        startDate.valueProperty().addListener((obs, old, date) -> {
+            if (date != null && endDate.getValue() == null)
+                endDate.setValue(date.plusWeeks(15));
+        });
+        
+        TextField holidaysField = new TextField();
+        holidaysField.setStyle("-fx-font-size: 12;");
+        holidaysField.setPromptText("yyyy-MM-dd, yyyy-MM-dd");
+        
         content.getChildren().addAll(
             new Label("Lab:"), labCombo,
             new Label("Start Date:"), startDate,
+            new Label("End Date:"), endDate,
             new Label("Day:"), dayCombo,
-            new Label("Start Hour:"), hourSpinner
+            new Label("Start Hour:"), hourSpinner,
+            new Label("Holidays (no session):"), holidaysField
         );
         
         dialog.getDialogPane().setContent(content);
         dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialog.setResultConverter(bt -> bt == ButtonType.OK ? Boolean.TRUE : null);
         
         dialog.showAndWait().ifPresent(result -> {
-            if (dayCombo.getValue() != null && startDate.getValue() != null) {
-                AlertHelper.showSuccess("Schedule", "Schedule saved for " + dayCombo.getValue());
+            if (labCombo.getValue() == null || dayCombo.getValue() == null
+                    || startDate.getValue() == null || endDate.getValue() == null) {
+                AlertHelper.showWarning("Schedule", "Select a lab, start and end date and day");
+                return;
+            }
+            DayOfWeek day = DayOfWeek.valueOf(dayCombo.getValue().toUpperCase(Locale.ROOT));
+            // keep the lab's current length, two hours if it has none yet
+            Duration length = Duration.ofHours(2);
+            Schedule current = findLabSchedule(labCombo.getValue());
+            if (current != null && current.getExpectedStart() != null && current.getExpectedEnd() != null
+                    && current.getExpectedEnd().isAfter(current.getExpectedStart())) {
+                length = Duration.between(current.getExpectedStart(), current.getExpectedEnd());
             }
+            Recurrence weekly;
+            try {
+                weekly = new Recurrence(day, LocalTime.of(hourSpinner.getValue(), 0), length,
+                        startDate.getValue(), endDate.getValue(), parseHolidays(holidaysField.getText()));
+            } catch (DateTimeParseException ex) {
+                AlertHelper.showWarning("Schedule", "Holidays must be dates like 2025-03-23: " + ex.getParsedString());
+                return;
+            } catch (IllegalArgumentException ex) {
+                AlertHelper.showWarning("Schedule", ex.getMessage());
+                return;
+            }
+            uiController.handleSetSchedule(labCombo.getValue(), new Schedule(weekly));
         });
     }
     
+    private void openImportDialog() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import CSV Files");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        List<File> files = chooser.showOpenMultipleDialog(stage);
+        if (files == null || files.isEmpty())
+            return;
+        List<Path> paths = new ArrayList<>();
+        for (File f : files)
+            paths.add(f.toPath());
+        uiController.handleBulkImport(paths);
+    }
+    
+    private static List<LocalDate> parseHolidays(String text) {
+        List<LocalDate> dates = new ArrayList<>();
+        if (text == null)
+            return dates;
+        for (String part : text.split(",")) {
+            if (!part.trim().isEmpty())
+                dates.add(LocalDate.parse(part.trim()));
+        }
+        return dates;
+    }
+    
+    private Schedule findLabSchedule(String labId) {
+        for (Lab lab : uiController.getLabsForUser(user, LabViewMode.ALL)) {
+            if (labId.equals(lab.getId()))
+                return lab.getSchedule();
+        }
+        return null;
+    }
+    
     private void logout() {
+        uiController.flushPendingSaves();
         try {
-            LoginUI loginUI = new LoginUI(new UserRepository(Path.of("data", "users.dat")));
+            LoginUI loginUI = new LoginUI(UserDirectory.getInstance());
             loginUI.show(stage);
         } catch (Exception ex) {
             AlertHelper.showError("Error", "Failed to load login screen");
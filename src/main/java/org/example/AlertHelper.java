@@ -1,6 +1,7 @@
 package org.example;
 
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 
 /**
  * AlertHelper provides utility methods for displaying alerts.
@@ -50,4 +51,16 @@ public class AlertHelper {
         alert.getDialogPane().setStyle("-fx-font-size: 11;");
         alert.showAndWait();
     }
+
+    /**
+     * Asks an OK/Cancel question; true if the user chose OK.
+     */
+    public static boolean confirm(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.getDialogPane().setStyle("-fx-font-size: 11;");
+        return alert.showAndWait().filter(b -> b == ButtonType.OK).isPresent();
+    }
 }
@@ -0,0 +1,417 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * AttendanceIngestor turns door-reader check-in and check-out events into lab sessions.
+ * Single Responsibility: Pair a stream of attendance events into TimeSheets and commit them in batches.
+ *
+ * Producers hand events to a bounded queue and wait while it is full, so a fast source slows
+ * down instead of filling memory. One worker thread takes whatever is queued, up to a batch,
+ * pairs it and commits the sessions it completed in one go: they are appended to their labs
+ * on the committer executor (the thread that may change the store) and queued with the
+ * AutoSaver as one journal batch. The worker waits for each commit, so a slow store or disk
+ * pushes back on the queue as well.
+ *
+ * A lab is in session from the first check-in until everyone who checked in has checked
+ * out again; that span becomes one TimeSheet. Events for a person in a lab must arrive in
+ * time order: one at or before the last seen for that person is a replay and is dropped, and
+ * a session the lab already holds is not added twice. A check-out with no check-in is counted
+ * as unmatched. Rooms still occupied when the ingestor closes are not committed. Commit
+ * errors go to the handler the caller supplies; the batch's sessions are lost, later
+ * batches go ahead.
+ *
+ * Event lines read by ingest() look like
+ *   lab_id, person_id, time, in|out
+ * with ISO local date-times ("2025-09-01T09:00:15" or "2025-09-01 09:00:15"); a header row is skipped.
+ */
+public class AttendanceIngestor implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 65_536;
+    public static final int DEFAULT_BATCH = 4096;
+
+    /**
+     * One check-in or check-out.
+     */
+    public static class Event {
+        private final String labId;
+        private final String personId;
+        private final LocalDateTime time;
+        private final boolean in;
+        // set on the markers flush() and close() queue behind the real events
+        private final CompletableFuture<Void> marker;
+        private final boolean stop;
+
+        public Event(String labId, String personId, LocalDateTime time, boolean in) {
+            this.labId = labId;
+            this.personId = personId;
+            this.time = time;
+            this.in = in;
+            this.marker = null;
+            this.stop = false;
+        }
+
+        private Event(CompletableFuture<Void> marker, boolean stop) {
+            this.labId = null;
+            this.personId = null;
+            this.time = null;
+            this.in = false;
+            this.marker = marker;
+            this.stop = stop;
+        }
+
+        public String getLabId() {
+            return labId;
+        }
+
+        public String getPersonId() {
+            return personId;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public boolean isIn() {
+            return in;
+        }
+
+        /**
+         * Parses "lab_id, person_id, time, in|out"; throws IllegalArgumentException if malformed.
+         */
+        public static Event parse(String line) {
+            String[] f = line.split(",", -1);
+            if (f.length != 4)
+                throw new IllegalArgumentException("Expected lab_id, person_id, time, in|out");
+            String labId = f[0].trim();
+            String personId = f[1].trim();
+            if (labId.isEmpty() || personId.isEmpty())
+                throw new IllegalArgumentException("Missing lab or person id");
+            LocalDateTime time;
+            try {
+                time = LocalDateTime.parse(f[2].trim().replace(' ', 'T'));
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("Bad time '" + f[2].trim() + "'");
+            }
+            String direction = f[3].trim().toLowerCase(Locale.ROOT);
+            if (!direction.equals("in") && !direction.equals("out"))
+                throw new IllegalArgumentException("Direction must be in or out");
+            return new Event(labId, personId, time, direction.equals("in"));
+        }
+    }
+
+    // a person's last event in one lab
+    private static class Presence {
+        LocalDateTime last;
+        boolean inside;
+    }
+
+    // how many people are in a lab, and since when it has been occupied
+    private static class Occupancy {
+        int present;
+        LocalDateTime since;
+    }
+
+    // the sessions a lab held when last checked, as start and end minute pairs; only the
+    // sessions appended since are read again unless the log was edited in place
+    private static class KnownSessions {
+        final Set<Long> spans = new HashSet<>();
+        int size;
+        int version;
+    }
+
+    // a session ready to be added
+    private static class Completed {
+        final String labId;
+        final TimeSheet session;
+
+        Completed(String labId, TimeSheet session) {
+            this.labId = labId;
+            this.session = session;
+        }
+    }
+
+    private final DataStore store;
+    private final AutoSaver autoSaver;
+    private final Executor committer;
+    private final BlockingQueue<Event> queue;
+    private final int maxBatch;
+    private final Thread worker;
+
+    // pairing state, only touched by the worker; keyed by lab id + '\n' + person id
+    private final Map<String, Presence> presence = new HashMap<>();
+    private final Map<String, Occupancy> occupancy = new HashMap<>();
+    // only touched by commits, which run one at a time
+    private final Map<Lab, KnownSessions> known = new IdentityHashMap<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private final AtomicLong sessions = new AtomicLong();
+    private final Consumer<Exception> errorHandler;
+    private volatile boolean closed;
+
+    /**
+     * @param committer    runs the commits; the FX thread (Platform::runLater) on the desktop,
+     *                     or a direct executor where nothing else changes the store
+     * @param errorHandler called with any commit error, on the worker thread
+     */
+    public AttendanceIngestor(DataStore store, AutoSaver autoSaver, Executor committer,
+                              Consumer<Exception> errorHandler) {
+        this(store, autoSaver, committer, errorHandler, DEFAULT_CAPACITY, DEFAULT_BATCH);
+    }
+
+    public AttendanceIngestor(DataStore store, AutoSaver autoSaver, Executor committer,
+                              Consumer<Exception> errorHandler, int capacity, int maxBatch) {
+        this.store = store;
+        this.autoSaver = autoSaver;
+        this.committer = committer;
+        this.errorHandler = Objects.requireNonNull(errorHandler, "errorHandler");
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.worker = new Thread(this::run, "attendance-ingest");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queues one event, waiting while the queue is full.
+     */
+    public void submit(Event event) throws InterruptedException {
+        if (closed)
+            throw new IllegalStateException("Ingestor is closed");
+        queue.put(event);
+        received.incrementAndGet();
+    }
+
+    /**
+     * Reads event lines until the end of input, e.g. from a file or a socket, and queues them.
+     * Malformed lines are counted as rejected. Returns the number of events queued.
+     */
+    public long ingest(Reader source) throws IOException, InterruptedException {
+        BufferedReader in = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        long queued = 0;
+        String line;
+        boolean first = true;
+        while ((line = in.readLine()) != null) {
+            String trimmed = line.trim();
+            boolean header = first && trimmed.toLowerCase(Locale.ROOT).startsWith("lab_id");
+            first = false;
+            if (trimmed.isEmpty() || header)
+                continue;
+            Event event;
+            try {
+                event = Event.parse(trimmed);
+            } catch (IllegalArgumentException ex) {
+                rejected.incrementAndGet();
+                continue;
+            }
+            submit(event);
+            queued++;
+        }
+        return queued;
+    }
+
+    /**
+     * Waits until every event queued so far has been paired and its sessions committed.
+     */
+    public void flush() throws InterruptedException {
+        if (closed)
+            return;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.put(new Event(done, false));
+        done.join();
+    }
+
+    /**
+     * Commits what is queued and stops the worker. An interrupt does not cut this short,
+     * so queued sessions are not lost; the interrupt status is restored on return.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        Event stop = new Event(new CompletableFuture<>(), true);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    queue.put(stop);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            while (true) {
+                try {
+                    worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getReceived() {
+        return received.get();
+    }
+
+    // malformed lines and sessions for labs the store does not have
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    public long getUnmatched() {
+        return unmatched.get();
+    }
+
+    public long getSessions() {
+        return sessions.get();
+    }
+
+    // ---- worker ----
+
+    private void run() {
+        List<Event> batch = new ArrayList<>(maxBatch);
+        List<Completed> completed = new ArrayList<>();
+        List<CompletableFuture<Void>> markers = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            for (Event e : batch) {
+                if (e.marker != null) {
+                    markers.add(e.marker);
+                    stop |= e.stop;
+                } else {
+                    pair(e, completed);
+                }
+            }
+            if (!completed.isEmpty()) {
+                List<Completed> done = new ArrayList<>(completed);
+                try {
+                    CompletableFuture.runAsync(() -> commit(done), committer).join();
+                } catch (CompletionException ex) {
+                    errorHandler.accept(ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex);
+                }
+            }
+            for (CompletableFuture<Void> m : markers)
+                m.complete(null);
+            batch.clear();
+            completed.clear();
+            markers.clear();
+        }
+    }
+
+    private void pair(Event e, List<Completed> completed) {
+        Presence p = presence.computeIfAbsent(e.labId + '\n' + e.personId, k -> new Presence());
+        if (p.last != null && !e.time.isAfter(p.last)) {
+            duplicates.incrementAndGet();
+            return;
+        }
+        p.last = e.time;
+        Occupancy room = occupancy.computeIfAbsent(e.labId, k -> new Occupancy());
+        if (e.in) {
+            // badging twice on the way in keeps the first check-in
+            if (p.inside) {
+                unmatched.incrementAndGet();
+                return;
+            }
+            p.inside = true;
+            if (room.present++ == 0)
+                room.since = e.time;
+        } else {
+            if (!p.inside) {
+                unmatched.incrementAndGet();
+                return;
+            }
+            p.inside = false;
+            if (--room.present == 0)
+                completed.add(new Completed(e.labId, new TimeSheet(room.since, e.time)));
+        }
+    }
+
+    // runs on the committer
+    private void commit(List<Completed> done) {
+        List<LabJournal.Entry> entries = new ArrayList<>(done.size());
+        for (Completed c : done) {
+            Lab lab = store.findLab(c.labId);
+            if (lab == null) {
+                rejected.incrementAndGet();
+                continue;
+            }
+            Lock lock = store.getLabLocks().of(lab);
+            lock.lock();
+            try {
+                // a replayed log must not add the session again
+                if (holds(lab, c.session)) {
+                    duplicates.incrementAndGet();
+                    continue;
+                }
+                int position = store.addSession(lab, c.session);
+                entries.add(new LabJournal.SessionAdded(lab.getId(), c.session, position));
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (!entries.isEmpty()) {
+            autoSaver.recordAll(entries);
+            sessions.addAndGet(entries.size());
+        }
+    }
+
+    // whether the lab already has this session; reads only what was appended since the last call
+    private boolean holds(Lab lab, TimeSheet ts) {
+        SessionLog log = lab.getSessionLog();
+        KnownSessions k = known.computeIfAbsent(lab, l -> new KnownSessions());
+        // an append moves size and version on by one each; anything else was an edit
+        if (log.size() < k.size || log.version() - k.version != log.size() - k.size) {
+            k.spans.clear();
+            k.size = 0;
+        }
+        for (int i = k.size; i < log.size(); i++)
+            k.spans.add(span(log.startMinute(i), log.endMinute(i)));
+        k.size = log.size();
+        k.version = log.version();
+        return k.spans.contains(span(SessionLog.toMinute(ts.getActualStart()), SessionLog.toMinute(ts.getActualEnd())));
+    }
+
+    private static long span(int start, int end) {
+        return (long) start << 32 | (end & 0xFFFFFFFFL);
+    }
+}
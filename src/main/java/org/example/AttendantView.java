@@ -6,25 +6,25 @@ import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import java.nio.file.Path;
+import java.io.File;
 
 /**
  * AttendantView - Dashboard for Lab Attendant role.
- * Allows: Entering timesheets, approving makeup requests.
+ * Allows: Entering timesheets, importing door-reader attendance logs, approving makeup requests.
  */
 public class AttendantView {
     
     private final Stage stage;
     private final User user;
-    private final LabRepository labRepository;
     private final UIController uiController;
+    private LiveLabView labsView;
     
     public AttendantView(Stage stage, User user) {
         this.stage = stage;
         this.user = user;
-        this.labRepository = new LabRepository(Path.of("data", "datastore.dat"));
-        this.uiController = new UIController(labRepository);
+        this.uiController = new UIController(DataService.getInstance());
     }
     
     public void show() {
@@ -37,7 +37,7 @@ public class AttendantView {
         
         // Main content - labs table
         TableView<Lab> table = uiController.createLabsTable(user);
-        table.setItems(uiController.getLabsForUser(user, UIController.LabViewMode.ACTIVE_NOW));
+        labsView = uiController.createLabsView(user, table, LabViewMode.ACTIVE_NOW);
         root.setCenter(uiController.createTableContainer(table));
         
         // Controls - only Attendant features
@@ -80,19 +80,21 @@ public class AttendantView {
     
     private VBox createControlPanel(TableView<Lab> table) {
         Button enterTimeSheetBtn = StyleManager.createStyledButton("⏱️ Enter TimeSheet", "#FF9800");
+        Button importAttendanceBtn = StyleManager.createStyledButton("🚪 Import Attendance", "#FF9800");
         Button approveMakeupBtn = StyleManager.createStyledButton("✓ Approve Makeup", "#4CAF50");
         Button viewMakeupBtn = StyleManager.createStyledButton("📋 View Makeup Requests", "#2196F3");
 
         enterTimeSheetBtn.setOnAction(e -> uiController.handleEnterTimeSheet());
+        importAttendanceBtn.setOnAction(e -> openAttendanceImport());
         approveMakeupBtn.setOnAction(e -> openApproveDialog());
         viewMakeupBtn.setOnAction(e -> openMakeupRequestsDialog());
 
-        ChoiceBox<UIController.LabViewMode> viewChoice = new ChoiceBox<>();
-        viewChoice.getItems().addAll(UIController.LabViewMode.ACTIVE_NOW, UIController.LabViewMode.ALL, UIController.LabViewMode.TODAY);
-        viewChoice.setValue(UIController.LabViewMode.ACTIVE_NOW);
-        viewChoice.setOnAction(e -> table.setItems(uiController.getLabsForUser(user, viewChoice.getValue())));
+        ChoiceBox<LabViewMode> viewChoice = new ChoiceBox<>();
+        viewChoice.getItems().addAll(LabViewMode.ACTIVE_NOW, LabViewMode.ALL, LabViewMode.TODAY);
+        viewChoice.setValue(LabViewMode.ACTIVE_NOW);
+        viewChoice.setOnAction(e -> labsView.setMode(viewChoice.getValue()));
 
-        HBox primaryActions = new HBox(10, enterTimeSheetBtn, approveMakeupBtn, viewMakeupBtn, new Label(" "), viewChoice);
+        HBox primaryActions = new HBox(10, enterTimeSheetBtn, importAttendanceBtn, approveMakeupBtn, viewMakeupBtn, new Label(" "), viewChoice);
         primaryActions.setPadding(new Insets(10));
         primaryActions.setStyle("-fx-background-color: " + StyleManager.CARD_BACKGROUND + "; " +
                                "-fx-border-color: " + StyleManager.BORDER_COLOR + "; " +
@@ -104,6 +106,15 @@ public class AttendantView {
         return controlBox;
     }
     
+    private void openAttendanceImport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Door-Reader Log");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Event logs", "*.csv", "*.log", "*.txt"));
+        File file = chooser.showOpenDialog(stage);
+        if (file != null)
+            uiController.handleAttendanceImport(file.toPath());
+    }
+    
     private void openApproveDialog() {
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("Approve Makeup Requests");
@@ -164,8 +175,9 @@ public class AttendantView {
     }
     
     private void logout() {
+        uiController.flushPendingSaves();
         try {
-            LoginUI loginUI = new LoginUI(new UserRepository(Path.of("data", "users.dat")));
+            LoginUI loginUI = new LoginUI(UserDirectory.getInstance());
             loginUI.show(stage);
         } catch (Exception ex) {
             AlertHelper.showError("Error", "Failed to load login screen");
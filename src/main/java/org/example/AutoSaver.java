@@ -0,0 +1,224 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * AutoSaver collects changes to the shared DataStore and writes them in the background.
+ * Single Responsibility: Debounce persistence so the UI thread never waits for disk I/O.
+ *
+ * A burst of changes within the delay window is written as one batch on a dedicated
+ * daemon thread. flush() blocks until everything queued so far is on disk.
+ *
+ * record() publishes the store before queuing, for callers on the thread that changes it.
+ * queue() only queues; it suits threads that must not publish, such as parallel session
+ * appends, and the writer then gets its version from the publisher. Either way the version
+ * written with a batch is taken after the batch, so it holds at least the batch's changes.
+ * It may hold later ones as well, which journal replay recognises and skips.
+ */
+public class AutoSaver {
+
+    public static final long DEFAULT_DELAY_MS = 500;
+    // after a failed write the changes are retried, waiting twice as long each time up to the max
+    private static final long FIRST_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 60_000;
+    // problems kept while no error handler is set, e.g. from the first load
+    private static final int MAX_HELD_ERRORS = 20;
+
+    private final DataService dataService;
+    private final long delayMs;
+    private final ScheduledExecutorService executor;
+
+    // lock-free, so queuing never waits for the writer or for other queuing threads
+    private final Queue<LabJournal.Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean snapshotRequested = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // only used on the autosave thread
+    private List<LabJournal.Entry> failed = new ArrayList<>();
+    private long retryDelayMs;
+    private boolean retryScheduled;
+    private volatile Supplier<DataStore> publisher;
+    // both guarded by this; problems wait in held until there is a handler
+    private Consumer<IOException> errorHandler;
+    private final List<IOException> held = new ArrayList<>();
+
+    public AutoSaver(DataService dataService, long delayMs) {
+        this.dataService = dataService;
+        this.delayMs = delayMs;
+        this.publisher = dataService::snapshot;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "autosave");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Called with every storage problem: failed writes on the autosave thread, and whatever
+     * reportError() is given on the thread that found it. Problems reported before a handler
+     * was set are passed to it now.
+     */
+    public void setErrorHandler(Consumer<IOException> errorHandler) {
+        List<IOException> earlier;
+        synchronized (this) {
+            this.errorHandler = errorHandler;
+            earlier = new ArrayList<>(held);
+            held.clear();
+        }
+        for (IOException ex : earlier)
+            errorHandler.accept(ex);
+    }
+
+    /**
+     * Passes a storage problem to the error handler, or keeps it until one is set.
+     */
+    public void reportError(IOException ex) {
+        Consumer<IOException> handler;
+        synchronized (this) {
+            handler = errorHandler;
+            if (handler == null) {
+                if (held.size() < MAX_HELD_ERRORS)
+                    held.add(ex);
+                return;
+            }
+        }
+        handler.accept(ex);
+    }
+
+    /**
+     * Supplies the version written with each batch, on the autosave thread. The default is
+     * the latest published version; an owner whose changes arrive through queue() passes
+     * one that publishes the store safely.
+     */
+    public void setPublisher(Supplier<DataStore> publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Publishes the store and queues a journal entry; it is written with the next batch.
+     */
+    public void record(LabJournal.Entry entry) {
+        dataService.publish();
+        queue(entry);
+    }
+
+    /**
+     * Publishes and queues several entries at once, e.g. one ingested batch; they are written together.
+     */
+    public void recordAll(List<LabJournal.Entry> entries) {
+        dataService.publish();
+        pending.addAll(entries);
+        schedule();
+    }
+
+    /**
+     * Queues a journal entry without publishing; it takes no lock, so appends to different
+     * labs can queue in parallel.
+     */
+    public void queue(LabJournal.Entry entry) {
+        pending.add(entry);
+        schedule();
+    }
+
+    /**
+     * Marks the whole store dirty; the next batch writes a full snapshot.
+     */
+    public void markDirty() {
+        dataService.publish();
+        snapshotRequested.set(true);
+        schedule();
+    }
+
+    /**
+     * Writes a snapshot right away in the background. The future fails if the write does.
+     */
+    public CompletableFuture<Void> saveNow() {
+        dataService.publish();
+        snapshotRequested.set(true);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                writePending();
+                done.complete(null);
+            } catch (IOException ex) {
+                done.completeExceptionally(ex);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Blocks until every change queued so far has been written. Used on logout and exit.
+     */
+    public void flush() {
+        try {
+            executor.submit(this::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // drain reports its own errors
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true))
+            executor.schedule(this::drain, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void drain() {
+        try {
+            writePending();
+        } catch (IOException ex) {
+            reportError(new IOException("Could not save data: " + ex.getMessage(), ex));
+        }
+    }
+
+    private void retry() {
+        retryScheduled = false;
+        drain();
+    }
+
+    // runs on the autosave thread only
+    private void writePending() throws IOException {
+        // cleared first: an entry queued from here on schedules another run
+        scheduled.set(false);
+        boolean snapshot = snapshotRequested.getAndSet(false);
+        List<LabJournal.Entry> batch = failed;
+        failed = new ArrayList<>();
+        for (LabJournal.Entry e; (e = pending.poll()) != null; )
+            batch.add(e);
+        if (batch.isEmpty() && !snapshot)
+            return;
+        DataStore version = publisher.get();
+        try {
+            // a snapshot already contains every queued change; a server is sent the changes themselves
+            if (snapshot && !dataService.isRemote())
+                dataService.save(version);
+            else
+                dataService.recordAll(version, batch);
+        } catch (IOException ex) {
+            // nothing of the batch was written; keep it and try again without waiting for the next edit
+            failed = batch;
+            if (snapshot)
+                snapshotRequested.set(true);
+            retryDelayMs = retryDelayMs == 0 ? FIRST_RETRY_DELAY_MS : Math.min(retryDelayMs * 2, MAX_RETRY_DELAY_MS);
+            if (!retryScheduled) {
+                retryScheduled = true;
+                executor.schedule(this::retry, retryDelayMs, TimeUnit.MILLISECONDS);
+            }
+            throw ex;
+        }
+        retryDelayMs = 0;
+    }
+}
@@ -0,0 +1,612 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BulkImporter loads labs, staff assignments, timesheet sessions and makeup requests from CSV files.
+ * Single Responsibility: Parse and validate bulk rows, then apply them to a DataStore in one go.
+ *
+ * Files are streamed in chunks of records. Chunks are parsed on a small thread pool while the
+ * reader moves on; checks that depend on other rows (unknown or duplicate ids) run afterwards
+ * in file order against a snapshot of the store's ids. Nothing touches the store until
+ * Batch.commit(), which adds every valid row and rebuilds the indexes once, so the caller can
+ * persist the whole import with a single snapshot.
+ *
+ * The kind of a file is taken from its header row; columns may come in any order:
+ *   labs:     id, name [, building, room, start, end]
+ *   staff:    lab_id, name, role            (role is instructor or ta)
+ *   sessions: lab_id, start, end            (both empty records a leave)
+ *   makeups:  id, lab_id, instructor_id, start, end [, approved]
+ * Times are ISO local date-times; "2025-09-01 09:00" is accepted as well.
+ */
+public class BulkImporter {
+
+    public static final int CHUNK_RECORDS = 4096;
+    // errors beyond this are counted but not kept
+    public static final int MAX_KEPT_ERRORS = 10_000;
+
+    public enum Kind {
+        LABS("Labs", "id", "name"),
+        STAFF("Staff assignments", "lab_id", "name", "role"),
+        SESSIONS("Sessions", "lab_id", "start", "end"),
+        MAKEUPS("Makeup requests", "id", "lab_id", "instructor_id", "start", "end");
+
+        private final String title;
+        private final String[] required;
+
+        Kind(String title, String... required) {
+            this.title = title;
+            this.required = required;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        // most specific header first, since sessions and labs share column names with the others
+        static Kind detect(Set<String> columns) {
+            for (Kind k : new Kind[] { MAKEUPS, STAFF, SESSIONS, LABS }) {
+                if (columns.containsAll(Arrays.asList(k.required)))
+                    return k;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A row that was rejected, with the line it started on.
+     */
+    public static class RowError {
+        private final String file;
+        private final int line;
+        private final String message;
+
+        public RowError(String file, int line, String message) {
+            this.file = file;
+            this.line = line;
+            this.message = message;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return file + ":" + line + ": " + message;
+        }
+    }
+
+    private final Set<String> existingLabIds = new HashSet<>();
+    private final Set<String> existingRequestIds = new HashSet<>();
+    private final int threads;
+
+    /**
+     * Takes a snapshot of the ids already in the store; call it where the store is normally used.
+     */
+    public BulkImporter(DataStore ds) {
+        for (Lab lab : ds.getLabs())
+            existingLabIds.add(lab.getId());
+        for (MakeupLabRequest r : ds.getRequests())
+            existingRequestIds.add(r.getId());
+        this.threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Parses and validates the files. Lab files are read first, so the staff, session and
+     * makeup files of the same import may refer to labs they create.
+     */
+    public Batch prepare(List<Path> files) throws IOException {
+        Map<Path, Integer> order = new HashMap<>();
+        for (Path file : files) {
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String header = new RecordReader(in).next();
+                Kind kind = header == null ? null : Kind.detect(columnsOf(header).keySet());
+                order.put(file, kind == null ? Kind.values().length : kind.ordinal());
+            }
+        }
+        List<Path> ordered = new ArrayList<>(files);
+        ordered.sort(Comparator.comparing(order::get));
+
+        Batch batch = new Batch();
+        ExecutorService pool = newPool();
+        try {
+            for (Path file : ordered) {
+                try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    importFile(file.getFileName().toString(), in, pool, batch);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return batch;
+    }
+
+    /**
+     * Same as prepare() for a single already opened source; name is used in error messages.
+     */
+    public Batch prepare(String name, Reader source) throws IOException {
+        Batch batch = new Batch();
+        ExecutorService pool = newPool();
+        try {
+            importFile(name, new BufferedReader(source), pool, batch);
+        } finally {
+            pool.shutdownNow();
+        }
+        return batch;
+    }
+
+    private ExecutorService newPool() {
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "csv-import");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private void importFile(String name, BufferedReader in, ExecutorService pool, Batch batch) throws IOException {
+        RecordReader records = new RecordReader(in);
+        String headerRecord = records.next();
+        if (headerRecord == null) {
+            batch.error(name, 1, "File is empty");
+            return;
+        }
+        Map<String, Integer> columns = columnsOf(headerRecord);
+        Kind kind = Kind.detect(columns.keySet());
+        if (kind == null) {
+            batch.error(name, 1, "Unrecognised header: " + headerRecord);
+            return;
+        }
+        batch.files.put(name, kind);
+
+        // keep a few chunks in flight so parsing overlaps reading without holding the whole file
+        ArrayDeque<CompletableFuture<List<Row>>> inFlight = new ArrayDeque<>();
+        while (true) {
+            List<String> chunk = new ArrayList<>(CHUNK_RECORDS);
+            int[] lines = new int[CHUNK_RECORDS];
+            String record;
+            while (chunk.size() < CHUNK_RECORDS && (record = records.next()) != null) {
+                if (record.trim().isEmpty())
+                    continue;
+                lines[chunk.size()] = records.startLine();
+                chunk.add(record);
+            }
+            if (chunk.isEmpty())
+                break;
+            inFlight.add(CompletableFuture.supplyAsync(() -> parseChunk(kind, columns, chunk, lines), pool));
+            if (inFlight.size() >= threads * 2)
+                validate(kind, name, join(inFlight.poll()), batch);
+        }
+        while (!inFlight.isEmpty())
+            validate(kind, name, join(inFlight.poll()), batch);
+    }
+
+    private static List<Row> join(CompletableFuture<List<Row>> f) throws IOException {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // ---- parsing (runs in parallel, looks at one row at a time) ----
+
+    private static List<Row> parseChunk(Kind kind, Map<String, Integer> columns, List<String> records, int[] lines) {
+        List<Row> rows = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            Row row = new Row(lines[i]);
+            try {
+                parseRow(kind, new Fields(columns, parseRecord(records.get(i))), row);
+            } catch (IllegalArgumentException ex) {
+                row.error = ex.getMessage();
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static void parseRow(Kind kind, Fields f, Row row) {
+        switch (kind) {
+            case LABS: {
+                String id = f.required("id");
+                Lab lab = new Lab(id, f.required("name"));
+                String building = f.optional("building");
+                String room = f.optional("room");
+                if (building != null || room != null)
+                    lab.setVenue(new Venue(building, room));
+                LocalDateTime start = f.time("start");
+                LocalDateTime end = f.time("end");
+                if ((start == null) != (end == null))
+                    throw new IllegalArgumentException("Give both start and end, or neither");
+                if (start != null) {
+                    requireOrder(start, end);
+                    lab.setSchedule(new Schedule(start, end));
+                }
+                row.key = id;
+                row.value = lab;
+                break;
+            }
+            case STAFF: {
+                row.labId = f.required("lab_id");
+                String role = f.required("role").toLowerCase(Locale.ROOT);
+                if (!role.equals("instructor") && !role.equals("ta"))
+                    throw new IllegalArgumentException("Role must be instructor or ta, not '" + role + "'");
+                row.value = new Assignment(row.labId, f.required("name"), role.equals("instructor"));
+                break;
+            }
+            case SESSIONS: {
+                row.labId = f.required("lab_id");
+                LocalDateTime start = f.time("start");
+                LocalDateTime end = f.time("end");
+                if ((start == null) != (end == null))
+                    throw new IllegalArgumentException("Give both start and end, or neither for a leave");
+                if (start != null)
+                    requireOrder(start, end);
+                row.value = new TimeSheet(start, end);
+                break;
+            }
+            case MAKEUPS: {
+                row.key = f.required("id");
+                row.labId = f.required("lab_id");
+                LocalDateTime start = f.time("start");
+                LocalDateTime end = f.time("end");
+                if (start == null || end == null)
+                    throw new IllegalArgumentException("Start and end are required");
+                requireOrder(start, end);
+                String approved = f.optional("approved");
+                row.value = new MakeupLabRequest(row.key, row.labId, f.optional("instructor_id"),
+                        new Schedule(start, end), approved != null && parseFlag(approved), LocalDateTime.now());
+                break;
+            }
+        }
+    }
+
+    private static void requireOrder(LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start))
+            throw new IllegalArgumentException("End " + end + " is not after start " + start);
+    }
+
+    private static boolean parseFlag(String s) {
+        switch (s.toLowerCase(Locale.ROOT)) {
+            case "true": case "yes": case "y": case "1":
+                return true;
+            case "false": case "no": case "n": case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("Approved must be yes or no, not '" + s + "'");
+        }
+    }
+
+    // ---- validation (in file order, against the store snapshot and earlier rows) ----
+
+    private void validate(Kind kind, String file, List<Row> rows, Batch batch) {
+        for (Row row : rows) {
+            if (row.error == null)
+                row.error = check(kind, row, batch);
+            if (row.error != null) {
+                batch.error(file, row.line, row.error);
+                continue;
+            }
+            switch (kind) {
+                case LABS:
+                    batch.labs.add((Lab) row.value);
+                    batch.stagedLabIds.add(row.key);
+                    break;
+                case STAFF:
+                    batch.assignments.add((Assignment) row.value);
+                    break;
+                case SESSIONS:
+                    batch.sessionLabIds.add(row.labId);
+                    batch.sessions.add((TimeSheet) row.value);
+                    break;
+                case MAKEUPS:
+                    batch.requests.add((MakeupLabRequest) row.value);
+                    batch.stagedRequestIds.add(row.key);
+                    break;
+            }
+        }
+    }
+
+    private String check(Kind kind, Row row, Batch batch) {
+        if (kind == Kind.LABS) {
+            if (existingLabIds.contains(row.key) || batch.stagedLabIds.contains(row.key))
+                return "Lab " + row.key + " already exists";
+            return null;
+        }
+        if (!existingLabIds.contains(row.labId) && !batch.stagedLabIds.contains(row.labId))
+            return "Unknown lab " + row.labId;
+        if (kind == Kind.MAKEUPS && (existingRequestIds.contains(row.key) || batch.stagedRequestIds.contains(row.key)))
+            return "Request " + row.key + " already exists";
+        return null;
+    }
+
+    /**
+     * Validated rows waiting to be applied, and the rows that were rejected.
+     */
+    public static class Batch {
+        private final Map<String, Kind> files = new LinkedHashMap<>();
+        private final List<Lab> labs = new ArrayList<>();
+        private final List<Assignment> assignments = new ArrayList<>();
+        private final List<String> sessionLabIds = new ArrayList<>();
+        private final List<TimeSheet> sessions = new ArrayList<>();
+        private final List<MakeupLabRequest> requests = new ArrayList<>();
+        private final Set<String> stagedLabIds = new HashSet<>();
+        private final Set<String> stagedRequestIds = new HashSet<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private int errorCount;
+        private boolean committed;
+
+        private void error(String file, int line, String message) {
+            errorCount++;
+            if (errors.size() < MAX_KEPT_ERRORS)
+                errors.add(new RowError(file, line, message));
+        }
+
+        // file name -> kind detected from its header
+        public Map<String, Kind> getFiles() {
+            return Collections.unmodifiableMap(files);
+        }
+
+        public int getLabCount() {
+            return labs.size();
+        }
+
+        public int getAssignmentCount() {
+            return assignments.size();
+        }
+
+        public int getSessionCount() {
+            return sessions.size();
+        }
+
+        public int getRequestCount() {
+            return requests.size();
+        }
+
+        public int getValidCount() {
+            return labs.size() + assignments.size() + sessions.size() + requests.size();
+        }
+
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        // the first MAX_KEPT_ERRORS errors, in file order
+        public List<RowError> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        /**
+         * Applies every valid row and rebuilds the store's indexes once. Staff are added the way
+         * AcademicOfficer adds them, without re-filing the lab after every single assignment.
+         * Labs added to the store since prepare() are not added again, and rows whose lab has
+         * disappeared meanwhile are skipped; both are counted as errors.
+         */
+        public void commit(DataStore ds) {
+            if (committed)
+                throw new IllegalStateException("Batch already committed");
+            committed = true;
+            Map<String, Lab> byId = new HashMap<>(labs.size() * 2);
+            List<Lab> created = new ArrayList<>(labs.size());
+            for (Lab lab : labs) {
+                if (ds.findLab(lab.getId()) != null) {
+                    errorCount++;
+                    continue;
+                }
+                byId.put(lab.getId(), lab);
+                created.add(lab);
+            }
+            // looked up while the store's index still matches its lab list
+            Lab[] assigned = new Lab[assignments.size()];
+            for (int i = 0; i < assigned.length; i++)
+                assigned[i] = byId.computeIfAbsent(assignments.get(i).labId, ds::findLab);
+            Lab[] sessionLabs = new Lab[sessions.size()];
+            for (int i = 0; i < sessionLabs.length; i++)
+                sessionLabs[i] = byId.computeIfAbsent(sessionLabIds.get(i), ds::findLab);
+
+            ds.getLabs().addAll(created);
+            for (int i = 0; i < assigned.length; i++) {
+                Assignment a = assignments.get(i);
+                Lab lab = assigned[i];
+                if (lab == null) {
+                    errorCount++;
+                    continue;
+                }
+                if (a.instructor) {
+                    Instructor instr = ds.resolveInstructor(a.name);
+                    Instructor previous = lab.getInstructor();
+                    if (previous != null && previous != instr)
+                        previous.getLabIds().remove(a.labId);
+                    lab.setInstructor(instr);
+                    instr.assignLab(a.labId);
+                } else {
+                    TA ta = ds.resolveTa(a.name);
+                    lab.addTA(ta);
+                    ta.assignLab(a.labId);
+                }
+            }
+            for (int i = 0; i < sessionLabs.length; i++) {
+                if (sessionLabs[i] == null)
+                    errorCount++;
+                else
+                    ds.addSession(sessionLabs[i], sessions.get(i));
+            }
+            ds.getRequests().addAll(requests);
+            ds.rebuildIndexes();
+        }
+    }
+
+    // ---- CSV ----
+
+    /**
+     * Splits one CSV record (RFC 4180: quoted fields, doubled quotes, commas and newlines inside quotes).
+     */
+    static List<String> parseRecord(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // normalized column name -> index; the first of two equal names wins
+    private static Map<String, Integer> columnsOf(String headerRecord) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = parseRecord(headerRecord);
+        for (int i = 0; i < header.size(); i++)
+            columns.putIfAbsent(normalizeColumn(header.get(i)), i);
+        return columns;
+    }
+
+    private static String normalizeColumn(String name) {
+        String s = name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+        return s.replace(' ', '_').replace('-', '_');
+    }
+
+    /**
+     * Reads whole records, joining lines while a quoted field is still open.
+     */
+    private static class RecordReader {
+        private final BufferedReader in;
+        private int line;
+        private int startLine;
+
+        RecordReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        String next() throws IOException {
+            String first = in.readLine();
+            if (first == null)
+                return null;
+            startLine = ++line;
+            if (quotes(first) % 2 == 0)
+                return first;
+            StringBuilder record = new StringBuilder(first);
+            int open = quotes(first);
+            String more;
+            while (open % 2 != 0 && (more = in.readLine()) != null) {
+                line++;
+                record.append('\n').append(more);
+                open += quotes(more);
+            }
+            return record.toString();
+        }
+
+        int startLine() {
+            return startLine;
+        }
+
+        private static int quotes(String s) {
+            int n = 0;
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) == '"')
+                    n++;
+            }
+            return n;
+        }
+    }
+
+    // the cells of one record, looked up by column name
+    private static class Fields {
+        private final Map<String, Integer> columns;
+        private final List<String> values;
+
+        Fields(Map<String, Integer> columns, List<String> values) {
+            this.columns = columns;
+            this.values = values;
+        }
+
+        String optional(String column) {
+            Integer i = columns.get(column);
+            if (i == null || i >= values.size())
+                return null;
+            String v = values.get(i).trim();
+            return v.isEmpty() ? null : v;
+        }
+
+        String required(String column) {
+            String v = optional(column);
+            if (v == null)
+                throw new IllegalArgumentException("Missing " + column);
+            return v;
+        }
+
+        LocalDateTime time(String column) {
+            String v = optional(column);
+            if (v == null)
+                return null;
+            try {
+                return LocalDateTime.parse(v.replace(' ', 'T'));
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("Bad " + column + " time '" + v + "'");
+            }
+        }
+    }
+
+    private static class Row {
+        final int line;
+        String error;
+        String key;
+        String labId;
+        Object value;
+
+        Row(int line) {
+            this.line = line;
+        }
+    }
+
+    private static class Assignment {
+        final String labId;
+        final String name;
+        final boolean instructor;
+
+        Assignment(String labId, String name, boolean instructor) {
+            this.labId = labId;
+            this.name = name;
+            this.instructor = instructor;
+        }
+    }
+}
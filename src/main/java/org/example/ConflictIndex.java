@@ -0,0 +1,302 @@
+package org.example;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * ConflictIndex keeps the booked time slots of every room and every staff member.
+ * Single Responsibility: Detect venue double-bookings and staff overlaps.
+ *
+ * Each room and person has its own interval tree, so checking a new booking costs
+ * O(log n) in the number of slots of that room or person. audit() checks the whole
+ * campus at once with a sweep line instead of pairwise comparisons.
+ *
+ * Slots are half-open: a lab ending at 12:00 does not clash with one starting at 12:00.
+ * Rooms are matched on building and room, people on name, both case-insensitively.
+ *
+ * A weekly schedule is filed once, under the span from its first to its last occurrence.
+ * Labs whose spans overlap are then compared occurrence by occurrence; two weekly rules on
+ * different days or hours are told apart without walking any weeks at all.
+ */
+public class ConflictIndex {
+
+    private final Map<String, IntervalTree<Lab>> byVenue = new HashMap<>();
+    private final Map<String, IntervalTree<Lab>> byStaff = new HashMap<>();
+    private final Map<Lab, List<Filed>> filedByLab = new IdentityHashMap<>();
+
+    /**
+     * Receives booked occurrences as [start, end) epoch seconds.
+     */
+    public interface SlotConsumer {
+        void accept(Lab lab, long start, long end);
+    }
+
+    public ConflictIndex(List<Lab> labs) {
+        for (Lab lab : labs)
+            add(lab);
+    }
+
+    public void add(Lab lab) {
+        List<Filed> filed = new ArrayList<>();
+        long[] span = spanOf(lab.getSchedule());
+        if (span != null) {
+            String venue = venueKey(lab.getVenue());
+            if (venue != null)
+                file(byVenue, venue, lab, span, filed);
+            for (String person : staffKeys(staffNames(lab)).keySet())
+                file(byStaff, person, lab, span, filed);
+        }
+        filedByLab.put(lab, filed);
+    }
+
+    public void remove(Lab lab) {
+        List<Filed> filed = filedByLab.remove(lab);
+        if (filed == null)
+            return;
+        for (Filed f : filed) {
+            f.tree.delete(f.node);
+            if (f.tree.isEmpty())
+                f.map.remove(f.key);
+        }
+    }
+
+    // call after a lab's venue, schedule or staff changed
+    public void reindex(Lab lab) {
+        remove(lab);
+        add(lab);
+    }
+
+    /**
+     * Conflicts the lab has, or would have once added, with any other lab.
+     */
+    public List<ScheduleConflict> conflicts(Lab lab) {
+        return conflicts(lab, lab.getVenue(), lab.getSchedule(), staffNames(lab));
+    }
+
+    /**
+     * Conflicts the lab would have if it had this venue, schedule and staff.
+     */
+    public List<ScheduleConflict> conflicts(Lab lab, Venue venue, Schedule schedule, Collection<String> staff) {
+        List<ScheduleConflict> result = new ArrayList<>();
+        long[] span = spanOf(schedule);
+        if (span == null)
+            return result;
+        String venueKey = venueKey(venue);
+        if (venueKey != null)
+            find(byVenue.get(venueKey), ScheduleConflict.Kind.VENUE, venue.toString(), lab, schedule, span, result);
+        for (Map.Entry<String, String> person : staffKeys(staff).entrySet())
+            find(byStaff.get(person.getKey()), ScheduleConflict.Kind.STAFF, person.getValue(), lab, schedule, span, result);
+        return result;
+    }
+
+    /**
+     * Booked slots of a room that overlap [from, to), in epoch seconds.
+     * Weekly schedules are expanded only inside the range.
+     */
+    public void venueSlots(Venue venue, long from, long to, SlotConsumer out) {
+        String key = venueKey(venue);
+        slots(key == null ? null : byVenue.get(key), from, to, out);
+    }
+
+    /**
+     * Booked slots of a staff member that overlap [from, to), in epoch seconds.
+     */
+    public void staffSlots(String name, long from, long to, SlotConsumer out) {
+        String key = Names.normalize(name);
+        slots(key == null ? null : byStaff.get(key), from, to, out);
+    }
+
+    private static void slots(IntervalTree<Lab> tree, long from, long to, SlotConsumer out) {
+        if (tree != null)
+            tree.overlapping(from, to, n -> occurrences(n.getValue().getSchedule(), from, to, n.getValue(), out));
+    }
+
+    /**
+     * Every conflict between the given labs, each pair reported once per shared room or person.
+     * Sorts each room's and person's slots by start and sweeps them, keeping the slots
+     * still running in a heap ordered by end time. Weekly schedules take part with their
+     * whole span and are compared week by week only against the slots that span meets.
+     */
+    public static List<ScheduleConflict> audit(List<Lab> labs) {
+        Map<String, List<Slot>> byResource = new HashMap<>();
+        for (Lab lab : labs) {
+            long[] span = spanOf(lab.getSchedule());
+            if (span == null)
+                continue;
+            String venue = venueKey(lab.getVenue());
+            if (venue != null)
+                addSlot(byResource, "v:" + venue, ScheduleConflict.Kind.VENUE, lab.getVenue().toString(), lab, span);
+            for (Map.Entry<String, String> person : staffKeys(staffNames(lab)).entrySet())
+                addSlot(byResource, "s:" + person.getKey(), ScheduleConflict.Kind.STAFF, person.getValue(), lab, span);
+        }
+
+        List<ScheduleConflict> result = new ArrayList<>();
+        PriorityQueue<Slot> running = new PriorityQueue<>(Comparator.comparingLong(s -> s.end));
+        for (List<Slot> slots : byResource.values()) {
+            if (slots.size() < 2)
+                continue;
+            slots.sort(Comparator.comparingLong(s -> s.start));
+            running.clear();
+            for (Slot s : slots) {
+                while (!running.isEmpty() && running.peek().end <= s.start)
+                    running.poll();
+                for (Slot r : running) {
+                    if (r.lab == s.lab)
+                        continue;
+                    long[] clash = firstClash(r.lab.getSchedule(), s.lab.getSchedule());
+                    if (clash != null)
+                        result.add(ScheduleConflict.of(s.kind, s.resource, r.lab, s.lab, clash[0], clash[1], clash[2], clash[3]));
+                }
+                running.add(s);
+            }
+        }
+        return result;
+    }
+
+    // ---- helpers ----
+
+    private void file(Map<String, IntervalTree<Lab>> map, String key, Lab lab, long[] span, List<Filed> filed) {
+        IntervalTree<Lab> tree = map.computeIfAbsent(key, k -> new IntervalTree<>());
+        filed.add(new Filed(map, key, tree, tree.insert(lab, span[0], span[1])));
+    }
+
+    private static void find(IntervalTree<Lab> tree, ScheduleConflict.Kind kind, String resource, Lab lab,
+                             Schedule schedule, long[] span, List<ScheduleConflict> out) {
+        if (tree == null)
+            return;
+        tree.overlapping(span[0], span[1], n -> {
+            if (n.getValue() == lab)
+                return;
+            long[] clash = firstClash(schedule, n.getValue().getSchedule());
+            if (clash != null)
+                out.add(ScheduleConflict.of(kind, resource, lab, n.getValue(), clash[0], clash[1], clash[2], clash[3]));
+        });
+    }
+
+    private static void addSlot(Map<String, List<Slot>> map, String key, ScheduleConflict.Kind kind,
+                                String resource, Lab lab, long[] span) {
+        map.computeIfAbsent(key, k -> new ArrayList<>()).add(new Slot(kind, resource, lab, span[0], span[1]));
+    }
+
+    /**
+     * First pair of occurrences of a and b that overlap, as {aStart, aEnd, bStart, bEnd}
+     * in epoch seconds, or null. Walks the weeks both schedules share, one-offs first.
+     */
+    static long[] firstClash(Schedule a, Schedule b) {
+        long[] spanA = spanOf(a);
+        long[] spanB = spanOf(b);
+        if (spanA == null || spanB == null || spanA[1] <= spanB[0] || spanB[1] <= spanA[0])
+            return null;
+        if (a.isRecurring() && b.isRecurring() && !a.getRecurrence().weeklyWindowOverlaps(b.getRecurrence()))
+            return null;
+        boolean swap = a.isRecurring() && !b.isRecurring();
+        Schedule outer = swap ? b : a;
+        Schedule inner = swap ? a : b;
+        LocalDateTime from = toTime(Math.max(spanA[0], spanB[0]));
+        LocalDateTime to = toTime(Math.min(spanA[1], spanB[1]));
+        for (Schedule o : outer.occurrences(from, to)) {
+            Iterator<Schedule> hit = inner.occurrences(o.getExpectedStart(), o.getExpectedEnd()).iterator();
+            if (hit.hasNext()) {
+                Schedule i = hit.next();
+                long os = toKey(o.getExpectedStart()), oe = toKey(o.getExpectedEnd());
+                long is = toKey(i.getExpectedStart()), ie = toKey(i.getExpectedEnd());
+                return swap ? new long[] { is, ie, os, oe } : new long[] { os, oe, is, ie };
+            }
+        }
+        return null;
+    }
+
+    /**
+     * From the first start to the last end of a schedule as [start, end) epoch seconds,
+     * or null if it has no bookable time.
+     */
+    static long[] spanOf(Schedule s) {
+        if (s == null || s.getExpectedStart() == null || s.getExpectedEnd() == null)
+            return null;
+        long start = toKey(s.getExpectedStart());
+        long end = toKey(s.getLastEnd());
+        if (end <= start)
+            return null;
+        return new long[] { start, end };
+    }
+
+    /**
+     * Occurrences of a schedule overlapping [from, to), in epoch seconds.
+     */
+    static void occurrences(Schedule s, long from, long to, Lab lab, SlotConsumer out) {
+        if (spanOf(s) == null)
+            return;
+        for (Schedule o : s.occurrences(toTime(from), toTime(to)))
+            out.accept(lab, toKey(o.getExpectedStart()), toKey(o.getExpectedEnd()));
+    }
+
+    private static long toKey(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toTime(long key) {
+        return LocalDateTime.ofEpochSecond(key, 0, ZoneOffset.UTC);
+    }
+
+    static List<String> staffNames(Lab lab) {
+        List<String> names = new ArrayList<>(lab.getTas().size() + 1);
+        if (lab.getInstructor() != null)
+            names.add(lab.getInstructor().getName());
+        for (TA ta : lab.getTas())
+            names.add(ta.getName());
+        return names;
+    }
+
+    // normalized name -> display name, one entry per person even if listed twice
+    private static Map<String, String> staffKeys(Collection<String> names) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (String name : names) {
+            String key = Names.normalize(name);
+            if (key != null && !key.isEmpty())
+                keys.putIfAbsent(key, name.trim());
+        }
+        return keys;
+    }
+
+    static String venueKey(Venue v) {
+        if (v == null)
+            return null;
+        String building = Names.normalize(v.getBuilding());
+        String room = Names.normalize(v.getRoom());
+        if (building == null || building.isEmpty() || room == null || room.isEmpty())
+            return null;
+        return building + "/" + room;
+    }
+
+    // one interval a lab was filed under, so it can be removed again
+    private static class Filed {
+        final Map<String, IntervalTree<Lab>> map;
+        final String key;
+        final IntervalTree<Lab> tree;
+        final IntervalTree.Node<Lab> node;
+
+        Filed(Map<String, IntervalTree<Lab>> map, String key, IntervalTree<Lab> tree, IntervalTree.Node<Lab> node) {
+            this.map = map;
+            this.key = key;
+            this.tree = tree;
+            this.node = node;
+        }
+    }
+
+    private static class Slot {
+        final ScheduleConflict.Kind kind;
+        final String resource;
+        final Lab lab;
+        final long start;
+        final long end;
+
+        Slot(ScheduleConflict.Kind kind, String resource, Lab lab, long start, long end) {
+            this.kind = kind;
+            this.resource = resource;
+            this.lab = lab;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataService owns the single in-memory DataStore shared by every dashboard.
+ * Single Responsibility: Load the DataStore once per process and keep it in sync with disk.
+ *
+ * The store is reloaded only when the files on disk were changed by someone else;
+ * writes made through this service update the remembered fingerprint. Writes go out from
+ * published versions of the store, never from the copy the UI is changing.
+ *
+ * Disk I/O runs under its own lock, so getDataStore() never waits for a snapshot write or
+ * an fsync. It returns the loaded store at once and compares fingerprints on a background
+ * thread; a store reloaded there is returned from the next call.
+ *
+ * Started with -Dlabs.server=URL the desktop works against a LabServer instead: connect()
+ * signs in, the store is downloaded from the server and every recorded change is sent to
+ * it. Changes made by others show up on the next reload.
+ */
+public class DataService {
+
+    private static DataService instance;
+
+    private final LabRepository repository;
+    // set once the desktop signs in to a server; then used instead of the repository
+    private volatile LabClient remote;
+    private final AutoSaver autoSaver;
+    private volatile DataStore dataStore;
+    private CompletableFuture<DataStore> preload;
+    // held while reading or writing the repository; never taken on the FX thread
+    private final Object ioLock = new Object();
+    // held while loading the store, or replacing it with defaults
+    private final Object loadLock = new Object();
+    private volatile String loadedFingerprint;
+    private final ExecutorService diskChecker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "datastore-check");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean checking = new AtomicBoolean();
+
+    public DataService(LabRepository repository) {
+        this.repository = repository;
+        this.autoSaver = new AutoSaver(this, AutoSaver.DEFAULT_DELAY_MS);
+        // a load from the backup or a failed compaction is shown like a failed save
+        repository.setProblemHandler(autoSaver::reportError);
+    }
+
+    /**
+     * Returns the process-wide service backed by data/datastore.dat.
+     */
+    public static synchronized DataService getInstance() {
+        if (instance == null) {
+            instance = new DataService(new LabRepository(Path.of("data", "datastore.dat"), true));
+        }
+        return instance;
+    }
+
+    /**
+     * The LabServer the desktop should use, from the labs.server system property, or null to
+     * use the local files.
+     */
+    public static URI serverAddress() {
+        String address = System.getProperty("labs.server");
+        return address == null || address.isBlank() ? null : URI.create(address.trim());
+    }
+
+    /**
+     * Switches to a server: signs in with the client's credentials and downloads the user's
+     * store on a background thread. The future fails if the server refuses either.
+     */
+    public CompletableFuture<User> connect(LabClient client) {
+        synchronized (loadLock) {
+            remote = client;
+            dataStore = null;
+        }
+        synchronized (this) {
+            preload = null;
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                User user = client.currentUser();
+                getDataStore().ensureIndexed();
+                return user;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e.getMessage(), e);
+            }
+        }, task -> {
+            Thread t = new Thread(task, "datastore-connect");
+            t.setDaemon(true);
+            t.start();
+        });
+    }
+
+    public boolean isRemote() {
+        return remote != null;
+    }
+
+    /**
+     * Returns the shared DataStore, loading it on first use. Afterwards it returns at once and
+     * checks in the background whether the files were changed on disk.
+     */
+    public DataStore getDataStore() {
+        DataStore ds = dataStore;
+        if (ds == null) {
+            synchronized (loadLock) {
+                if (dataStore == null)
+                    loadOrCreate();
+                return dataStore;
+            }
+        }
+        // a server's store is refreshed by reload(), there are no files to watch
+        if (remote == null && checking.compareAndSet(false, true))
+            diskChecker.execute(this::reloadIfChanged);
+        return ds;
+    }
+
+    private void reloadIfChanged() {
+        try {
+            synchronized (loadLock) {
+                boolean changed;
+                synchronized (ioLock) {
+                    changed = !repository.fingerprint().equals(loadedFingerprint);
+                }
+                if (changed)
+                    loadOrCreate();
+            }
+        } finally {
+            checking.set(false);
+        }
+    }
+
+    /**
+     * Starts loading the store and building its indexes on a background thread, so the first
+     * dashboard does not wait for the disk. Later calls return the same future unless it failed.
+     */
+    public synchronized CompletableFuture<DataStore> preload() {
+        if (preload == null || preload.isCompletedExceptionally()) {
+            preload = CompletableFuture.supplyAsync(() -> {
+                DataStore ds = getDataStore();
+                ds.ensureIndexed();
+                return ds;
+            }, task -> {
+                Thread t = new Thread(task, "datastore-preload");
+                t.setDaemon(true);
+                t.start();
+            });
+        }
+        return preload;
+    }
+
+    /**
+     * Forces a reload from disk, or from the server once connected.
+     */
+    public DataStore reload() throws IOException, ClassNotFoundException {
+        DataStore loaded;
+        LabClient client = remote;
+        if (client != null) {
+            loaded = client.fetchStore();
+        } else {
+            synchronized (ioLock) {
+                loaded = repository.load();
+                loadedFingerprint = repository.fingerprint();
+            }
+        }
+        loaded.publish();
+        dataStore = loaded;
+        return loaded;
+    }
+
+    /**
+     * Publishes the shared store's current state; call it on the thread that changes the store.
+     */
+    public DataStore publish() {
+        return dataStore.publish();
+    }
+
+    /**
+     * The latest published version of the shared store, for reading on any thread.
+     */
+    public DataStore snapshot() {
+        return dataStore.snapshot();
+    }
+
+    /**
+     * Writes a full snapshot of the latest published version.
+     */
+    public void save() throws IOException {
+        save(snapshot());
+    }
+
+    // a server writes its own snapshots, so a connected desktop has nothing to save
+    public void save(DataStore version) throws IOException {
+        if (remote != null)
+            return;
+        synchronized (ioLock) {
+            repository.save(version);
+            loadedFingerprint = repository.fingerprint();
+        }
+    }
+
+    /**
+     * Persists a single change to the shared store.
+     */
+    public void record(LabJournal.Entry entry) throws IOException {
+        recordAll(snapshot(), List.of(entry));
+    }
+
+    /**
+     * Persists a batch of changes with one write; version is the published state that
+     * includes them, written out if the journal is compacted.
+     */
+    public void recordAll(DataStore version, List<LabJournal.Entry> entries) throws IOException {
+        LabClient client = remote;
+        if (client != null) {
+            client.send(entries);
+            return;
+        }
+        synchronized (ioLock) {
+            repository.recordAll(version, entries);
+            loadedFingerprint = repository.fingerprint();
+        }
+    }
+
+    /**
+     * Background writer for changes made from the UI.
+     */
+    public AutoSaver getAutoSaver() {
+        return autoSaver;
+    }
+
+    public LabRepository getRepository() {
+        return repository;
+    }
+
+    private void loadOrCreate() {
+        if (remote != null) {
+            // no sample data in place of a server's store; the caller reports the failure
+            try {
+                reload();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e.getMessage(), e);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            return;
+        }
+        try {
+            reload();
+            if (dataStore.getLabs().isEmpty()) {
+                dataStore = generateDefaultData();
+                dataStore.publish();
+                save();
+            }
+        } catch (Exception e) {
+            // keep the unreadable file for recovery instead of writing defaults over it
+            autoSaver.reportError(new IOException("Could not load data, starting with sample data; the unreadable files were set aside: "
+                    + e.getMessage(), e));
+            dataStore = generateDefaultData();
+            dataStore.publish();
+            try {
+                repository.quarantine();
+                save();
+            } catch (IOException ex) {
+                autoSaver.reportError(ex);
+            }
+        }
+    }
+
+    private DataStore generateDefaultData() {
+        DataStore ds = new DataStore();
+
+        // Create instructors with Pakistani names
+        Instructor dr_ahmed = new Instructor("I-001", "Dr. Taimoor Pasha");
+        Instructor dr_fatima = new Instructor("I-002", "Dr. Ayesha Siddiqui");
+        Instructor dr_hassan = new Instructor("I-003", "Dr. Bilal Ahmed");
+
+        ds.getInstructors().add(dr_ahmed);
+        ds.getInstructors().add(dr_fatima);
+        ds.getInstructors().add(dr_hassan);
+
+        // Create TAs with Pakistani names
+        TA ali_khan = new TA("TA-001", "Hamza Khan");
+        TA sara_hussain = new TA("TA-002", "Fatima Batool");
+        TA usman_baig = new TA("TA-003", "Usman Ghani");
+        TA ayesha_malik = new TA("TA-004", "Zainab Bibi");
+
+        ds.getTas().add(ali_khan);
+        ds.getTas().add(sara_hussain);
+        ds.getTas().add(usman_baig);
+        ds.getTas().add(ayesha_malik);
+
+        // Lab 1: Database Systems
+        Lab lab1 = new Lab("LAB001", "Database Systems");
+        lab1.setVenue(new Venue("CS Building", "Room 101"));
+        lab1.setSchedule(new Schedule(
+                LocalDateTime.of(2024, 11, 18, 10, 0),
+                LocalDateTime.of(2024, 11, 18, 12, 0)));
+        lab1.setInstructor(dr_ahmed);
+        lab1.addTA(ali_khan);
+        lab1.addTA(sara_hussain);
+
+        ds.addLab(lab1);
+
+        // Lab 2: Web Development
+        Lab lab2 = new Lab("LAB002", "Web Development");
+        lab2.setVenue(new Venue("CS Building", "Room 102"));
+        lab2.setSchedule(new Schedule(
+                LocalDateTime.of(2024, 11, 18, 14, 0),
+                LocalDateTime.of(2024, 11, 18, 16, 0)));
+        lab2.setInstructor(dr_fatima);
+        lab2.addTA(usman_baig);
+
+        ds.addLab(lab2);
+
+        return ds;
+    }
+}
@@ -1,16 +1,61 @@
 package org.example;
 
 import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
-// class to hold all data
+/**
+ * DataStore holds all labs, staff and makeup requests.
+ *
+ * The store itself is changed by one thread, the FX thread. Other threads (saves, reports)
+ * read published versions instead: publish() makes a read-only copy of the current state,
+ * sharing every lab, person and request that has not changed since the previous version,
+ * and snapshot() returns the latest one without locking.
+ *
+ * Sessions are the exception: addSession() may be called for different labs from several
+ * threads at once, each lab guarded by its stripe of getLabLocks(). Everything else (new
+ * labs, staff, schedules) still needs the caller to keep other threads out.
+ */
 public class DataStore implements Serializable {
     private static final long serialVersionUID = 1L;
     private List<Lab> labs = new ArrayList<>();
     private List<Instructor> instructors = new ArrayList<>();
     private List<TA> tas = new ArrayList<>();
     private List<MakeupLabRequest> requests = new ArrayList<>();
+    // lookup tables, rebuilt after loading
+    private transient volatile LabIndex index;
+    private transient ScheduleIndex scheduleIndex;
+    private transient ConflictIndex conflictIndex;
+    // one object per person, rebuilt after loading
+    private transient PersonRegistry<Instructor> instructorRegistry;
+    private transient PersonRegistry<TA> taRegistry;
+    private transient Lab.ChangeListener labListener;
+    // latest published version, and whether this store is one
+    private transient volatile DataStore published;
+    private transient boolean frozen;
+    private transient long version;
+    // labs changed since the last publish; false incremental forces a full rescan.
+    // Lab keeps identity equality, so a concurrent set works as an identity set
+    private transient Set<Lab> dirtyLabs;
+    // whether a person's labs or a request changed in place since the last publish;
+    // people and requests appended to the lists are caught by their size
+    private transient volatile boolean staffDirty;
+    private transient volatile boolean requestsDirty;
+    private transient boolean incremental;
+    private transient Lab[] labArray;
+    private transient volatile LabLocks labLocks;
+    // the journal generation the loaded snapshot was written for; 0 for older files
+    private transient long journalGeneration;
 
     // getters
     public List<Lab> getLabs() {
@@ -28,4 +73,585 @@ public class DataStore implements Serializable {
     public List<MakeupLabRequest> getRequests() {
         return requests;
     }
+
+    // add a lab and index it
+    public void addLab(Lab lab) {
+        checkWritable();
+        LabIndex idx = index();
+        canonicalize(lab);
+        labs.add(lab);
+        idx.add(lab);
+        scheduleIndex.add(lab);
+        conflictIndex.add(lab);
+        lab.setChangeListener(labListener);
+    }
+
+    // re-file a lab after its venue, instructor or TAs changed
+    public void labChanged(Lab lab) {
+        checkWritable();
+        people();
+        canonicalize(lab);
+        index().reindex(lab);
+        conflictIndex.reindex(lab);
+        staffDirty = true; // the lab's staff may have gained or lost it
+        markModified(lab); // TA list edits do not notify the store
+    }
+
+    // re-publish a request after it was approved or moved in place
+    public void requestChanged(MakeupLabRequest request) {
+        checkWritable();
+        requestsDirty = true;
+    }
+
+    /**
+     * Records a session on a lab of this store and returns its position in the lab's log.
+     * Unlike the other changes this may run on several threads at once; appends to one lab
+     * wait for each other on its lock, appends to different labs go ahead in parallel.
+     */
+    public int addSession(Lab lab, TimeSheet ts) {
+        checkWritable();
+        Lock lock = getLabLocks().of(lab);
+        lock.lock();
+        try {
+            lab.addSession(ts);
+            return lab.sessionCount() - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the per-lab locks guarding sessions, shared by everyone appending to this store
+    public LabLocks getLabLocks() {
+        LabLocks locks = labLocks;
+        if (locks == null) {
+            synchronized (this) {
+                if (labLocks == null)
+                    labLocks = new LabLocks();
+                locks = labLocks;
+            }
+        }
+        return locks;
+    }
+
+    // drop and rebuild the indexes, e.g. after the labs list was replaced
+    public synchronized void rebuildIndexes() {
+        index = null;
+        rebuildPeople();
+        scheduleIndex = new ScheduleIndex(labs);
+        conflictIndex = new ConflictIndex(labs);
+        // set last: a reader that finds the lab index finds the other two as well
+        index = new LabIndex(labs);
+        if (frozen)
+            return;
+        incremental = false;
+        if (dirtyLabs == null)
+            dirtyLabs = ConcurrentHashMap.newKeySet();
+        dirtyLabs.clear();
+        if (labListener == null)
+            labListener = new IndexUpdater();
+        for (Lab lab : labs)
+            lab.setChangeListener(labListener);
+    }
+
+    // the instructor with this name, added with a new id if unknown
+    public Instructor resolveInstructor(String name) {
+        checkWritable();
+        people();
+        return instructorRegistry.resolve(name);
+    }
+
+    // the TA with this name, added with a new id if unknown
+    public TA resolveTa(String name) {
+        checkWritable();
+        people();
+        return taRegistry.resolve(name);
+    }
+
+    public Instructor findInstructor(String id) {
+        people();
+        return instructorRegistry.findById(id);
+    }
+
+    public TA findTa(String id) {
+        people();
+        return taRegistry.findById(id);
+    }
+
+    // builds the lookup tables now instead of on the first query
+    public void ensureIndexed() {
+        index();
+        people();
+    }
+
+    // find a lab by id, or null
+    public Lab findLab(String labId) {
+        return index().findLab(labId);
+    }
+
+    public Collection<Lab> getLabsInBuilding(String building) {
+        return index().labsInBuilding(building);
+    }
+
+    public Collection<Lab> getLabsForInstructor(String instructorId) {
+        return index().labsForInstructor(instructorId);
+    }
+
+    public Collection<Lab> getLabsForTa(String taId) {
+        return index().labsForTa(taId);
+    }
+
+    public Collection<Lab> getLabsForInstructorName(String name) {
+        return index().labsForInstructorName(name);
+    }
+
+    public Collection<Lab> getLabsForTaName(String name) {
+        return index().labsForTaName(name);
+    }
+
+    // role-based scoping: officers and the HOD see every lab, others their building or own labs
+    public Collection<Lab> getLabsForUser(User user) {
+        switch (user.getRole()) {
+            case ACADEMIC_OFFICER:
+            case HOD:
+                // HOD sees all labs for now
+                return labs;
+            case ATTENDANT:
+                if (user.getBuilding() == null)
+                    return Collections.emptyList();
+                return getLabsInBuilding(user.getBuilding());
+            case INSTRUCTOR:
+                return getLabsForInstructorName(user.getName());
+            case TA:
+                return getLabsForTaName(user.getName());
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+    /**
+     * The user's labs that the mode admits now; see getLabsForUser(User, LabViewMode, LocalDateTime).
+     */
+    public List<Lab> getLabsForUser(User user, LabViewMode mode) {
+        return getLabsForUser(user, mode, LocalDateTime.now());
+    }
+
+    /**
+     * The labs in the user's scope that the mode admits at the given time, as a new list.
+     * Labs running then come from the schedule index and are intersected with the scope,
+     * walking whichever side is smaller.
+     */
+    public List<Lab> getLabsForUser(User user, LabViewMode mode, LocalDateTime now) {
+        Collection<Lab> scope = getLabsForUser(user);
+        Set<Lab> matches = mode == null ? null : mode.labsAt(this, now);
+        if (matches == null)
+            return new ArrayList<>(scope);
+        List<Lab> result = new ArrayList<>(Math.min(scope.size(), matches.size()));
+        if (scope == labs) {
+            result.addAll(matches);
+        } else if (scope.size() <= matches.size()) {
+            for (Lab lab : scope) {
+                if (matches.contains(lab))
+                    result.add(lab);
+            }
+        } else {
+            for (Lab lab : matches) {
+                if (scope.contains(lab))
+                    result.add(lab);
+            }
+        }
+        return result;
+    }
+
+    // room and staff clashes this lab has, or would have once added
+    public List<ScheduleConflict> findConflicts(Lab lab) {
+        index();
+        return conflictIndex.conflicts(lab);
+    }
+
+    // clashes the lab would have if moved to the given schedule
+    public List<ScheduleConflict> findScheduleConflicts(Lab lab, Schedule schedule) {
+        index();
+        return conflictIndex.conflicts(lab, lab.getVenue(), schedule, ConflictIndex.staffNames(lab));
+    }
+
+    // clashes the named person would have if they also took this lab
+    public List<ScheduleConflict> findStaffConflicts(Lab lab, String name) {
+        index();
+        return conflictIndex.conflicts(lab, null, lab.getSchedule(), Collections.singletonList(name));
+    }
+
+    // room and staff bookings, for availability searches
+    ConflictIndex bookings() {
+        index();
+        return conflictIndex;
+    }
+
+    // every room and staff clash on campus
+    public List<ScheduleConflict> auditConflicts() {
+        return ConflictIndex.audit(labs);
+    }
+
+    // campus-wide contact hours, one scan of each lab's session columns
+    public double totalContactHours() {
+        long minutes = 0;
+        for (Lab lab : labs)
+            minutes += lab.totalContactMinutes();
+        return minutes / 60.0;
+    }
+
+    // labs whose schedule or a recorded session contains the given time
+    public Set<Lab> getLabsActiveAt(LocalDateTime time) {
+        index();
+        return scheduleIndex.labsActiveAt(time);
+    }
+
+    // labs scheduled or held on the given date
+    public Set<Lab> getLabsOn(LocalDate date) {
+        index();
+        return scheduleIndex.labsStartingOn(date);
+    }
+
+    // ---- published versions ----
+
+    /**
+     * Publishes the current state as a read-only version and returns it. Call it where no
+     * change other than addSession can run meanwhile, e.g. on the thread that changes the
+     * store; when nothing changed the previous version is returned. Only labs reported as
+     * modified are copied again, plus the labs of any person whose assignments changed; the
+     * staff and request lists are reused as they are unless labChanged or requestChanged ran
+     * or they grew. Publishing may overlap with addSession on other threads; each lab is
+     * copied under its lock.
+     */
+    public synchronized DataStore publish() {
+        checkWritable();
+        DataStore last = published;
+        index(); // wires the change listeners that report modified labs
+        // after a rebuild or direct list edits every list is checked again
+        boolean full = last == null || !incremental;
+        boolean changed = last == null;
+
+        List<Instructor> frozenInstructors;
+        List<TA> frozenTas;
+        if (full || staffDirty || instructors.size() != last.instructors.size() || tas.size() != last.tas.size()) {
+            // cleared first: a person changed during the copy stays marked for the next publish
+            staffDirty = false;
+            frozenInstructors = freezeInstructors();
+            frozenTas = freezeTas();
+            changed = true;
+        } else {
+            frozenInstructors = last.instructors;
+            frozenTas = last.tas;
+        }
+
+        Lab[] frozenLabs = full ? null : publishModifiedLabs(last.labArray);
+        if (frozenLabs == null) {
+            // cleared first: a lab changed during the scan stays marked for the next publish
+            dirtyLabs.clear();
+            frozenLabs = new Lab[labs.size()];
+            for (int i = 0; i < frozenLabs.length; i++)
+                frozenLabs[i] = freeze(labs.get(i), i);
+            incremental = true;
+            changed = true;
+        } else {
+            changed |= frozenLabs != last.labArray;
+        }
+
+        List<MakeupLabRequest> frozenRequests;
+        if (full || requestsDirty || requests.size() != last.requests.size()) {
+            requestsDirty = false;
+            MakeupLabRequest[] copies = new MakeupLabRequest[requests.size()];
+            for (int i = 0; i < copies.length; i++)
+                copies[i] = freeze(requests.get(i));
+            frozenRequests = Collections.unmodifiableList(Arrays.asList(copies));
+            changed = true;
+        } else {
+            frozenRequests = last.requests;
+        }
+
+        if (!changed)
+            return last;
+        DataStore v = new DataStore();
+        v.instructors = frozenInstructors;
+        v.tas = frozenTas;
+        v.labArray = frozenLabs;
+        v.labs = last != null && frozenLabs == last.labArray ? last.labs
+                : Collections.unmodifiableList(Arrays.asList(frozenLabs));
+        v.requests = frozenRequests;
+        v.frozen = true;
+        v.version = ++version;
+        published = v;
+        return v;
+    }
+
+    private List<Instructor> freezeInstructors() {
+        Instructor[] frozen = new Instructor[instructors.size()];
+        for (int i = 0; i < frozen.length; i++) {
+            Instructor live = instructors.get(i);
+            Person before = live.published;
+            frozen[i] = freeze(live);
+            if (before != null && before != frozen[i])
+                staffChanged(live.getLabIds(), ((Instructor) before).getLabIds());
+        }
+        return Collections.unmodifiableList(Arrays.asList(frozen));
+    }
+
+    private List<TA> freezeTas() {
+        TA[] frozen = new TA[tas.size()];
+        for (int i = 0; i < frozen.length; i++) {
+            TA live = tas.get(i);
+            Person before = live.published;
+            frozen[i] = freeze(live);
+            if (before != null && before != frozen[i])
+                staffChanged(live.getLabIds(), ((TA) before).getLabIds());
+        }
+        return Collections.unmodifiableList(Arrays.asList(frozen));
+    }
+
+    /**
+     * The last version's labs with appended and modified ones replaced, the last array itself
+     * if no copy changed, or null to rescan.
+     */
+    private Lab[] publishModifiedLabs(Lab[] last) {
+        if (labs.size() < last.length)
+            return null;
+        Lab[] frozenLabs = null;
+        if (labs.size() > last.length) {
+            frozenLabs = Arrays.copyOf(last, labs.size());
+            for (int i = last.length; i < frozenLabs.length; i++)
+                frozenLabs[i] = freeze(labs.get(i), i);
+        }
+        for (Iterator<Lab> it = dirtyLabs.iterator(); it.hasNext(); ) {
+            Lab lab = it.next();
+            // unmarked before copying, so a session added meanwhile marks it again
+            it.remove();
+            int i = lab.publishedPosition;
+            if (i < 0 || i >= labs.size() || labs.get(i) != lab)
+                return null; // the list was edited directly
+            Lab copy = freeze(lab, i);
+            if (frozenLabs == null && copy != last[i])
+                frozenLabs = last.clone();
+            if (frozenLabs != null)
+                frozenLabs[i] = copy;
+        }
+        return frozenLabs != null ? frozenLabs : last;
+    }
+
+    // labs gained or lost a person whose published copy was replaced
+    private void staffChanged(List<String> labIds, List<String> previousLabIds) {
+        for (String id : labIds)
+            markModified(index.findLab(id));
+        for (String id : previousLabIds)
+            markModified(index.findLab(id));
+    }
+
+    private void markModified(Lab lab) {
+        if (lab != null)
+            dirtyLabs.add(lab);
+    }
+
+    // true if something was marked changed since the last publish, e.g. a session appended on another thread
+    public boolean hasUnpublishedChanges() {
+        return published == null || staffDirty || requestsDirty || (dirtyLabs != null && !dirtyLabs.isEmpty());
+    }
+
+    /**
+     * The latest published version, safe to read from any thread. Publishes one first if
+     * there is none yet, so the first call belongs on the changing thread too.
+     */
+    public DataStore snapshot() {
+        if (frozen)
+            return this;
+        DataStore v = published;
+        return v != null ? v : publish();
+    }
+
+    // the lab as of a freshly published version
+    public Lab publishedLab(Lab lab) {
+        if (lab.isFrozen())
+            return lab;
+        publish();
+        return lab.published != null ? lab.published : lab;
+    }
+
+    long getJournalGeneration() {
+        return journalGeneration;
+    }
+
+    void setJournalGeneration(long journalGeneration) {
+        this.journalGeneration = journalGeneration;
+    }
+
+    // counts publications; a version keeps the number it was published under
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkWritable() {
+        if (frozen)
+            throw new UnsupportedOperationException("DataStore version " + version + " is read-only");
+    }
+
+    private static Instructor freeze(Instructor live) {
+        Instructor copy = (Instructor) live.published;
+        if (copy == null || !copy.getLabIds().equals(live.getLabIds())) {
+            copy = new Instructor(live.getId(), live.getName());
+            copy.getLabIds().addAll(live.getLabIds());
+            live.published = copy;
+        }
+        return copy;
+    }
+
+    private static TA freeze(TA live) {
+        TA copy = (TA) live.published;
+        if (copy == null || !copy.getLabIds().equals(live.getLabIds())) {
+            copy = new TA(live.getId(), live.getName());
+            copy.getLabIds().addAll(live.getLabIds());
+            live.published = copy;
+        }
+        return copy;
+    }
+
+    // re-copies the lab only if a field, a staff member or a session changed
+    private Lab freeze(Lab live, int position) {
+        Lock lock = getLabLocks().of(live);
+        lock.lock();
+        try {
+            return freezeLocked(live, position);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Lab freezeLocked(Lab live, int position) {
+        live.publishedPosition = position;
+        Instructor instructor = live.getInstructor() == null ? null : freeze(live.getInstructor());
+        List<TA> liveTas = live.getTas();
+        Lab copy = live.published;
+        SessionLog log = live.getSessionLog();
+        boolean same = copy != null && copy.getVenue() == live.getVenue() && copy.getSchedule() == live.getSchedule()
+                && copy.getInstructor() == instructor && copy.getTas().size() == liveTas.size()
+                && copy.getSessionLog().version() == log.version() && copy.getSessionLog().size() == log.size();
+        for (int i = 0; same && i < liveTas.size(); i++)
+            same = copy.getTas().get(i) == freeze(liveTas.get(i));
+        if (!same) {
+            List<TA> staff = new ArrayList<>(liveTas.size());
+            for (TA ta : liveTas)
+                staff.add(freeze(ta));
+            copy = live.freeze(instructor, staff);
+            live.published = copy;
+        }
+        return copy;
+    }
+
+    private static MakeupLabRequest freeze(MakeupLabRequest live) {
+        MakeupLabRequest copy = live.published;
+        if (copy == null || copy.isApproved() != live.isApproved() || copy.getSchedule() != live.getSchedule()) {
+            copy = new MakeupLabRequest(live.getId(), live.getLabId(), live.getRequestedByInstructorId(),
+                    live.getSchedule(), live.isApproved(), live.getRequestedAt());
+            live.published = copy;
+        }
+        return copy;
+    }
+
+    private LabIndex index() {
+        // lookups do not queue behind a publish once the indexes exist
+        LabIndex idx = index;
+        if (idx != null && idx.size() == labs.size())
+            return idx;
+        synchronized (this) {
+            // also catches labs added straight through getLabs()
+            if (index == null || index.size() != labs.size())
+                rebuildIndexes();
+            return index;
+        }
+    }
+
+    private synchronized void people() {
+        // also catches people added straight through getInstructors() or getTas()
+        if (instructorRegistry == null || instructorRegistry.size() != instructors.size()
+                || taRegistry.size() != tas.size())
+            rebuildPeople();
+    }
+
+    // dedupes the people lists and points every lab at the surviving objects
+    private synchronized void rebuildPeople() {
+        if (frozen) {
+            // a version is already deduplicated; the registries only serve lookups
+            instructorRegistry = new PersonRegistry<>(new ArrayList<>(instructors), "I-", Instructor::new, Instructor::getLabIds);
+            taRegistry = new PersonRegistry<>(new ArrayList<>(tas), "TA-", TA::new, TA::getLabIds);
+            return;
+        }
+        instructorRegistry = new PersonRegistry<>(instructors, "I-", Instructor::new, Instructor::getLabIds);
+        taRegistry = new PersonRegistry<>(tas, "TA-", TA::new, TA::getLabIds);
+        staffDirty = true;
+        for (Lab lab : labs) {
+            if (canonicalize(lab) && index != null) {
+                index.reindex(lab);
+                conflictIndex.reindex(lab);
+            }
+        }
+    }
+
+    // swaps duplicate staff objects on the lab for the registered ones; true if any changed
+    private boolean canonicalize(Lab lab) {
+        people();
+        if (lab.getInstructor() != null || !lab.getTas().isEmpty())
+            staffDirty = true; // assignLab below may add the lab to them
+        boolean changed = false;
+        Instructor instructor = lab.getInstructor();
+        if (instructor != null) {
+            Instructor canonical = instructorRegistry.canonical(instructor);
+            canonical.assignLab(lab.getId());
+            if (canonical != instructor) {
+                lab.setInstructor(canonical);
+                changed = true;
+            }
+        }
+        List<TA> labTas = lab.getTas();
+        for (int i = 0; i < labTas.size(); i++) {
+            TA canonical = taRegistry.canonical(labTas.get(i));
+            canonical.assignLab(lab.getId());
+            if (canonical != labTas.get(i)) {
+                labTas.set(i, canonical);
+                changed = true;
+            }
+        }
+        if (changed)
+            lab.modified();
+        if (changed && labTas.size() > 1) {
+            // two aliases of one TA on the same lab
+            List<TA> distinct = new ArrayList<>(new LinkedHashSet<>(labTas));
+            if (distinct.size() != labTas.size()) {
+                labTas.clear();
+                labTas.addAll(distinct);
+            }
+        }
+        return changed;
+    }
+
+    // keeps the schedule index in step with Lab.addSession and Lab.setSchedule
+    private class IndexUpdater implements Lab.ChangeListener {
+        @Override
+        public void sessionAdded(Lab lab, TimeSheet ts) {
+            if (scheduleIndex != null)
+                scheduleIndex.sessionAdded(lab, ts);
+        }
+
+        @Override
+        public void scheduleChanged(Lab lab) {
+            if (scheduleIndex != null)
+                scheduleIndex.scheduleChanged(lab);
+            if (conflictIndex != null)
+                conflictIndex.reindex(lab);
+        }
+
+        @Override
+        public void labModified(Lab lab) {
+            dirtyLabs.add(lab);
+        }
+    }
 }
@@ -0,0 +1,490 @@
+package org.example;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataStoreCodec reads and writes the compact binary file format for DataStore and users.
+ * Single Responsibility: Encode/decode domain objects without java.io serialization.
+ *
+ * Layout: [magic][version][string table][body]. Strings are stored once and referenced
+ * by index, integers are varints and timestamps are minutes since the epoch (UTC).
+ * Session times are delta-encoded against the previous session of the same lab.
+ *
+ * Version 2 adds an optional weekly rule after every schedule; version 3 starts the body
+ * with the journal generation the snapshot was written for. Older files still load.
+ */
+public class DataStoreCodec {
+
+    public static final int DATASTORE_MAGIC = 0x4C414253; // "LABS"
+    public static final int USERS_MAGIC = 0x55535253;     // "USRS"
+    public static final int FORMAT_VERSION = 3;
+    // semester dates are stored as days since 2000-01-01 so they fit in a short varint
+    private static final long EPOCH_DAY_BASE = LocalDate.of(2000, 1, 1).toEpochDay();
+
+    /**
+     * Returns true if the stream starts with one of our headers. The stream must support mark/reset.
+     */
+    public static boolean isBinaryFormat(InputStream in) throws IOException {
+        in.mark(4);
+        DataInputStream din = new DataInputStream(in);
+        int magic;
+        try {
+            magic = din.readInt();
+        } catch (EOFException eof) {
+            magic = 0;
+        }
+        in.reset();
+        return magic == DATASTORE_MAGIC || magic == USERS_MAGIC;
+    }
+
+    // ---- DataStore ----
+
+    public static void write(DataStore ds, OutputStream os) throws IOException {
+        write(ds, 0, os);
+    }
+
+    /**
+     * Writes a snapshot that replaces journal generations before journalGeneration.
+     */
+    public static void write(DataStore ds, long journalGeneration, OutputStream os) throws IOException {
+        write(ds.getInstructors(), ds.getTas(), ds.getLabs(), ds.getRequests(), journalGeneration, os);
+    }
+
+    /**
+     * Writes some labs and requests as a store of their own, with only the staff those labs
+     * name. LabServer sends a user the part of the store they may see this way.
+     */
+    public static void write(List<Lab> labs, List<MakeupLabRequest> requests, OutputStream os) throws IOException {
+        write(new ArrayList<>(), new ArrayList<>(), labs, requests, 0, os);
+    }
+
+    private static void write(List<Instructor> listedInstructors, List<TA> listedTas, List<Lab> labs,
+                              List<MakeupLabRequest> requests, long journalGeneration, OutputStream os) throws IOException {
+        Writer w = new Writer();
+        w.varint(journalGeneration);
+
+        // every person reachable from the model, so shared references stay shared
+        List<Instructor> instructors = new ArrayList<>(listedInstructors);
+        List<TA> tas = new ArrayList<>(listedTas);
+        Map<Person, Integer> personIndex = new IdentityHashMap<>();
+        for (Instructor i : instructors)
+            personIndex.putIfAbsent(i, personIndex.size());
+        for (Lab lab : labs) {
+            if (lab.getInstructor() != null && !personIndex.containsKey(lab.getInstructor())) {
+                personIndex.put(lab.getInstructor(), personIndex.size());
+                instructors.add(lab.getInstructor());
+            }
+        }
+        Map<Person, Integer> taIndex = new IdentityHashMap<>();
+        for (TA t : tas)
+            taIndex.putIfAbsent(t, taIndex.size());
+        for (Lab lab : labs) {
+            for (TA t : lab.getTas()) {
+                if (!taIndex.containsKey(t)) {
+                    taIndex.put(t, taIndex.size());
+                    tas.add(t);
+                }
+            }
+        }
+
+        w.varint(instructors.size());
+        for (Instructor i : instructors) {
+            w.string(i.getId());
+            w.string(i.getName());
+            w.strings(i.getLabIds());
+        }
+        w.varint(listedInstructors.size());
+
+        w.varint(tas.size());
+        for (TA t : tas) {
+            w.string(t.getId());
+            w.string(t.getName());
+            w.strings(t.getLabIds());
+        }
+        w.varint(listedTas.size());
+
+        w.varint(labs.size());
+        for (Lab lab : labs) {
+            w.string(lab.getId());
+            w.string(lab.getName());
+            Venue v = lab.getVenue();
+            w.bool(v != null);
+            if (v != null) {
+                w.string(v.getBuilding());
+                w.string(v.getRoom());
+            }
+            w.varint(lab.getInstructor() == null ? 0 : personIndex.get(lab.getInstructor()) + 1);
+            w.varint(lab.getTas().size());
+            for (TA t : lab.getTas())
+                w.varint(taIndex.get(t));
+            w.schedule(lab.getSchedule());
+
+            // straight from the session columns, no TimeSheet per session
+            SessionLog sessions = lab.getSessionLog();
+            int sessionCount = sessions.size();
+            w.varint(sessionCount);
+            long base = 0;
+            for (int s = 0; s < sessionCount; s++) {
+                int start = sessions.startMinute(s);
+                w.minute(start, base);
+                if (start != SessionLog.NO_TIME)
+                    base = start;
+                w.minute(sessions.endMinute(s), base);
+            }
+        }
+
+        w.varint(requests.size());
+        for (MakeupLabRequest r : requests) {
+            w.string(r.getId());
+            w.string(r.getLabId());
+            w.string(r.getRequestedByInstructorId());
+            w.schedule(r.getSchedule());
+            w.bool(r.isApproved());
+            w.time(r.getRequestedAt(), 0);
+        }
+
+        w.finish(DATASTORE_MAGIC, os);
+    }
+
+    public static DataStore read(InputStream is) throws IOException {
+        Reader r = new Reader(is, DATASTORE_MAGIC);
+        DataStore ds = new DataStore();
+        if (r.version >= 3)
+            ds.setJournalGeneration(r.varlong());
+
+        int instructorCount = r.varint();
+        List<Instructor> instructors = new ArrayList<>(instructorCount);
+        for (int i = 0; i < instructorCount; i++) {
+            Instructor instr = new Instructor(r.string(), r.string());
+            for (String labId : r.strings())
+                instr.assignLab(labId);
+            instructors.add(instr);
+        }
+        int listedInstructors = r.varint();
+        ds.getInstructors().addAll(instructors.subList(0, listedInstructors));
+
+        int taCount = r.varint();
+        List<TA> tas = new ArrayList<>(taCount);
+        for (int i = 0; i < taCount; i++) {
+            TA ta = new TA(r.string(), r.string());
+            for (String labId : r.strings())
+                ta.assignLab(labId);
+            tas.add(ta);
+        }
+        int listedTas = r.varint();
+        ds.getTas().addAll(tas.subList(0, listedTas));
+
+        int labCount = r.varint();
+        for (int i = 0; i < labCount; i++) {
+            Lab lab = new Lab(r.string(), r.string());
+            if (r.bool())
+                lab.setVenue(new Venue(r.string(), r.string()));
+            int instructorRef = r.varint();
+            if (instructorRef > 0)
+                lab.setInstructor(instructors.get(instructorRef - 1));
+            int labTas = r.varint();
+            for (int t = 0; t < labTas; t++)
+                lab.addTA(tas.get(r.varint()));
+            lab.setSchedule(r.schedule());
+
+            int sessionCount = r.varint();
+            SessionLog sessions = lab.getSessionLog();
+            long base = 0;
+            for (int s = 0; s < sessionCount; s++) {
+                int start = r.minute(base);
+                if (start != SessionLog.NO_TIME)
+                    base = start;
+                sessions.addMinutes(start, r.minute(base));
+            }
+            ds.addLab(lab);
+        }
+
+        int requestCount = r.varint();
+        for (int i = 0; i < requestCount; i++) {
+            String id = r.string();
+            String labId = r.string();
+            String instructorId = r.string();
+            Schedule schedule = r.schedule();
+            boolean approved = r.bool();
+            LocalDateTime requestedAt = r.time(0);
+            ds.getRequests().add(new MakeupLabRequest(id, labId, instructorId, schedule, approved, requestedAt));
+        }
+        return ds;
+    }
+
+    // ---- users ----
+
+    public static void writeUsers(List<User> users, OutputStream os) throws IOException {
+        Writer w = new Writer();
+        w.varint(users.size());
+        for (User u : users) {
+            w.string(u.getId());
+            w.string(u.getUsername());
+            w.string(u.getPassword());
+            w.string(u.getName());
+            w.varint(u.getRole() == null ? 0 : u.getRole().ordinal() + 1);
+            w.string(u.getBuilding());
+        }
+        w.finish(USERS_MAGIC, os);
+    }
+
+    public static List<User> readUsers(InputStream is) throws IOException {
+        Reader r = new Reader(is, USERS_MAGIC);
+        int count = r.varint();
+        List<User> users = new ArrayList<>(count);
+        User.Role[] roles = User.Role.values();
+        for (int i = 0; i < count; i++) {
+            String id = r.string();
+            String username = r.string();
+            String password = r.string();
+            String name = r.string();
+            int role = r.varint();
+            String building = r.string();
+            users.add(new User(id, username, password, name, role == 0 ? null : roles[role - 1], building));
+        }
+        return users;
+    }
+
+    // ---- encoding helpers ----
+
+    private static long toMinutes(LocalDateTime t) {
+        return Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+
+    private static LocalDateTime fromMinutes(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60L, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Buffers the body while building the string table, then writes header, table and body.
+     */
+    private static class Writer {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        void varint(long v) {
+            writeVarint(body, v);
+        }
+
+        void bool(boolean b) {
+            body.write(b ? 1 : 0);
+        }
+
+        // 0 = null, otherwise index + 1 into the string table
+        void string(String s) {
+            if (s == null) {
+                varint(0);
+                return;
+            }
+            Integer id = stringIds.get(s);
+            if (id == null) {
+                id = strings.size();
+                stringIds.put(s, id);
+                strings.add(s);
+            }
+            varint(id + 1L);
+        }
+
+        void strings(List<String> list) {
+            varint(list.size());
+            for (String s : list)
+                string(s);
+        }
+
+        // 0 = null, otherwise zigzag(minutes - base) + 1
+        void time(LocalDateTime t, long base) {
+            if (t == null)
+                varint(0);
+            else
+                minutes(toMinutes(t), base);
+        }
+
+        // a session column value, same encoding as time()
+        void minute(int m, long base) {
+            if (m == SessionLog.NO_TIME)
+                varint(0);
+            else
+                minutes(m, base);
+        }
+
+        private void minutes(long m, long base) {
+            long delta = m - base;
+            varint(((delta << 1) ^ (delta >> 63)) + 1);
+        }
+
+        void schedule(Schedule s) {
+            bool(s != null);
+            if (s != null) {
+                time(s.getExpectedStart(), 0);
+                time(s.getExpectedEnd(), s.getExpectedStart() == null ? 0 : toMinutes(s.getExpectedStart()));
+                recurrence(s.getRecurrence());
+            }
+        }
+
+        // day, start minute and length, then semester bounds and holidays as day offsets
+        void recurrence(Recurrence r) {
+            bool(r != null);
+            if (r == null)
+                return;
+            varint(r.getDay().getValue());
+            varint(r.getStartTime().toSecondOfDay() / 60);
+            varint(r.getLength().toMinutes());
+            long first = r.getFirstDate().toEpochDay();
+            varint(first - EPOCH_DAY_BASE);
+            varint(r.getLastDate().toEpochDay() - first);
+            List<LocalDate> exceptions = r.getExceptions();
+            varint(exceptions.size());
+            long previous = first;
+            for (LocalDate d : exceptions) {
+                long day = d.toEpochDay();
+                long delta = day - previous;
+                varint((delta << 1) ^ (delta >> 63));
+                previous = day;
+            }
+        }
+
+        void finish(int magic, OutputStream os) throws IOException {
+            ByteArrayOutputStream header = new ByteArrayOutputStream(1024);
+            DataOutputStream dout = new DataOutputStream(header);
+            dout.writeInt(magic);
+            writeVarint(header, FORMAT_VERSION);
+            writeVarint(header, strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                writeVarint(header, bytes.length);
+                header.write(bytes);
+            }
+            header.writeTo(os);
+            body.writeTo(os);
+            os.flush();
+        }
+
+        private static void writeVarint(ByteArrayOutputStream out, long v) {
+            while ((v & ~0x7FL) != 0) {
+                out.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.write((int) v);
+        }
+    }
+
+    private static class Reader {
+        private final DataInputStream in;
+        private final String[] strings;
+        private final int version;
+
+        Reader(InputStream is, int expectedMagic) throws IOException {
+            this.in = new DataInputStream(is instanceof BufferedInputStream ? is : new BufferedInputStream(is));
+            int magic = in.readInt();
+            if (magic != expectedMagic)
+                throw new IOException("Not a binary data file (bad header)");
+            version = varint();
+            if (version > FORMAT_VERSION)
+                throw new IOException("Unsupported data format version " + version);
+            strings = new String[varint()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[varint()];
+                in.readFully(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+
+        int varint() throws IOException {
+            return (int) varlong();
+        }
+
+        long varlong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return result;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        boolean bool() throws IOException {
+            return in.readUnsignedByte() != 0;
+        }
+
+        String string() throws IOException {
+            int ref = varint();
+            return ref == 0 ? null : strings[ref - 1];
+        }
+
+        List<String> strings() throws IOException {
+            int n = varint();
+            List<String> list = new ArrayList<>(n);
+            for (int i = 0; i < n; i++)
+                list.add(string());
+            return list;
+        }
+
+        LocalDateTime time(long base) throws IOException {
+            long raw = varlong();
+            return raw == 0 ? null : fromMinutes(base + unzigzag(raw - 1));
+        }
+
+        int minute(long base) throws IOException {
+            long raw = varlong();
+            return raw == 0 ? SessionLog.NO_TIME : Math.toIntExact(base + unzigzag(raw - 1));
+        }
+
+        private static long unzigzag(long zz) {
+            return (zz >>> 1) ^ -(zz & 1);
+        }
+
+        Schedule schedule() throws IOException {
+            if (!bool())
+                return null;
+            LocalDateTime start = time(0);
+            LocalDateTime end = time(start == null ? 0 : toMinutes(start));
+            Schedule schedule = new Schedule(start, end);
+            if (version >= 2) {
+                Recurrence r = recurrence();
+                if (r != null)
+                    schedule.setRecurrence(r);
+            }
+            return schedule;
+        }
+
+        Recurrence recurrence() throws IOException {
+            if (!bool())
+                return null;
+            int day = varint();
+            int startMinute = varint();
+            long length = varlong();
+            long first = EPOCH_DAY_BASE + varlong();
+            long last = first + varlong();
+            int count = varint();
+            List<LocalDate> exceptions = new ArrayList<>(count);
+            long previous = first;
+            try {
+                for (int i = 0; i < count; i++) {
+                    long zz = varlong();
+                    previous += (zz >>> 1) ^ -(zz & 1);
+                    exceptions.add(LocalDate.ofEpochDay(previous));
+                }
+                return new Recurrence(DayOfWeek.of(day), LocalTime.ofSecondOfDay(startMinute * 60L),
+                        Duration.ofMinutes(length), LocalDate.ofEpochDay(first), LocalDate.ofEpochDay(last), exceptions);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new IOException("Malformed weekly schedule", e);
+            }
+        }
+    }
+}
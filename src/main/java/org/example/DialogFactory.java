@@ -5,8 +5,11 @@ import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * DialogFactory creates and manages all dialog windows.
@@ -173,19 +176,53 @@ public class DialogFactory {
     /**
      * Creates the "Request Makeup Lab" dialog.
      */
-    public Dialog<MakeupLabRequest> createRequestMakeupDialog(Lab lab) {
+    public Dialog<MakeupLabRequest> createRequestMakeupDialog(Lab lab, SlotFinder slotFinder) {
         Dialog<MakeupLabRequest> dlg = new Dialog<>();
         dlg.setTitle("Request Makeup Lab Session");
-        dlg.getDialogPane().setPrefSize(400, 250);
+        dlg.getDialogPane().setPrefSize(480, 520);
         dlg.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
 
         TextField startField = StyleManager.createStyledTextField("2024-12-02 10:00");
         TextField endField = StyleManager.createStyledTextField("2024-12-02 12:00");
         
+        // availability search: pick a free slot instead of guessing
+        Schedule regular = lab.getSchedule();
+        int minutes = 120;
+        if (regular != null && regular.getExpectedStart() != null && regular.getExpectedEnd() != null
+                && regular.getExpectedEnd().isAfter(regular.getExpectedStart())) {
+            minutes = (int) Duration.between(regular.getExpectedStart(), regular.getExpectedEnd()).toMinutes();
+        }
+        Spinner<Integer> lengthSpinner = new Spinner<>(SlotFinder.STEP_MINUTES, 8 * 60, minutes, SlotFinder.STEP_MINUTES);
+        DatePicker fromDate = new DatePicker(LocalDate.now());
+        DatePicker toDate = new DatePicker(LocalDate.now().plusWeeks(2));
+        ListView<SlotFinder.FreeSlot> slotList = new ListView<>();
+        slotList.setPrefHeight(150);
+        Button findBtn = StyleManager.createStyledButton("Find Free Slots", StyleManager.PRIMARY_COLOR);
+        findBtn.setOnAction(e -> {
+            if (fromDate.getValue() == null || toDate.getValue() == null)
+                return;
+            List<SlotFinder.FreeSlot> slots = slotFinder.findFreeSlots(lab,
+                    Duration.ofMinutes(lengthSpinner.getValue()), fromDate.getValue(), toDate.getValue(), 20);
+            slotList.getItems().setAll(slots);
+            if (slots.isEmpty())
+                AlertHelper.showInfo("No Free Slots", "Room and staff are fully booked in that range");
+        });
+        slotList.getSelectionModel().selectedItemProperty().addListener((obs, old, slot) -> {
+            if (slot != null) {
+                startField.setText(slot.getStart().format(dtf));
+                endField.setText(slot.getEnd().format(dtf));
+            }
+        });
+        
         VBox form = new VBox(15);
         form.setPadding(new Insets(15));
         form.getChildren().addAll(
             new Label("Lab: " + lab.getName()),
+            StyleManager.createFormGroup("Length (minutes)", lengthSpinner),
+            StyleManager.createFormGroup("Search From", fromDate),
+            StyleManager.createFormGroup("Search To", toDate),
+            findBtn,
+            slotList,
             StyleManager.createFormGroup("Makeup Session Start (yyyy-MM-dd HH:mm)", startField),
             StyleManager.createFormGroup("Makeup Session End (yyyy-MM-dd HH:mm)", endField)
         );
@@ -6,8 +6,11 @@ import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.Stage;
-import java.nio.file.Path;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * HODView - Dashboard for Head of Department role.
@@ -17,14 +20,13 @@ public class HODView {
     
     private final Stage stage;
     private final User user;
-    private final LabRepository labRepository;
     private final UIController uiController;
+    private LiveLabView labsView;
     
     public HODView(Stage stage, User user) {
         this.stage = stage;
         this.user = user;
-        this.labRepository = new LabRepository(Path.of("data", "datastore.dat"));
-        this.uiController = new UIController(labRepository);
+        this.uiController = new UIController(DataService.getInstance());
     }
     
     public void show() {
@@ -37,7 +39,7 @@ public class HODView {
         
         // Main content - labs table
         TableView<Lab> table = uiController.createLabsTable(user);
-        table.setItems(uiController.getLabsForUser(user, UIController.LabViewMode.ACTIVE_NOW));
+        labsView = uiController.createLabsView(user, table, LabViewMode.ACTIVE_NOW);
         root.setCenter(uiController.createTableContainer(table));
         
         // Controls - only HOD features (reports)
@@ -89,10 +91,10 @@ public class HODView {
         labReportBtn.setOnAction(e -> uiController.handleLabReport());
         exportBtn.setOnAction(e -> openExportDialog());
 
-        ChoiceBox<UIController.LabViewMode> viewChoice = new ChoiceBox<>();
-        viewChoice.getItems().addAll(UIController.LabViewMode.ACTIVE_NOW, UIController.LabViewMode.ALL, UIController.LabViewMode.TODAY);
-        viewChoice.setValue(UIController.LabViewMode.ACTIVE_NOW);
-        viewChoice.setOnAction(e -> table.setItems(uiController.getLabsForUser(user, viewChoice.getValue())));
+        ChoiceBox<LabViewMode> viewChoice = new ChoiceBox<>();
+        viewChoice.getItems().addAll(LabViewMode.ACTIVE_NOW, LabViewMode.ALL, LabViewMode.TODAY);
+        viewChoice.setValue(LabViewMode.ACTIVE_NOW);
+        viewChoice.setOnAction(e -> labsView.setMode(viewChoice.getValue()));
 
         HBox reportActions = new HBox(10, weeklyScheduleBtn, weeklyTimesheetBtn, labReportBtn, exportBtn, new Label(" "), viewChoice);
         reportActions.setPadding(new Insets(10));
@@ -107,7 +109,7 @@ public class HODView {
     }
     
     private void openExportDialog() {
-        Dialog<Void> dialog = new Dialog<>();
+        Dialog<Boolean> dialog = new Dialog<>();
         dialog.setTitle("Export Reports");
         dialog.setHeaderText("Choose export format and reports");
         
@@ -121,9 +123,9 @@ public class HODView {
         weeklyTimesheetCheck.setSelected(true);
         semesterLabCheck.setSelected(true);
         
-        ComboBox<String> formatCombo = new ComboBox<>();
-        formatCombo.getItems().addAll("PDF", "CSV", "Excel");
-        formatCombo.setValue("PDF");
+        ComboBox<ReportFormat> formatCombo = new ComboBox<>();
+        formatCombo.getItems().addAll(ReportFormat.values());
+        formatCombo.setValue(ReportFormat.CSV);
         formatCombo.setStyle("-fx-font-size: 12;");
         
         VBox reportBox = new VBox(10, weeklyScheduleCheck, weeklyTimesheetCheck, semesterLabCheck);
@@ -138,16 +140,32 @@ public class HODView {
         
         dialog.getDialogPane().setContent(content);
         dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialog.setResultConverter(bt -> bt == ButtonType.OK ? Boolean.TRUE : null);
         
         dialog.showAndWait().ifPresent(result -> {
-            String format = formatCombo.getValue() != null ? formatCombo.getValue() : "PDF";
-            AlertHelper.showSuccess("Export", "Reports exported as " + format);
+            List<ReportEngine.Report> reports = new ArrayList<>();
+            if (weeklyScheduleCheck.isSelected()) reports.add(ReportEngine.Report.WEEKLY_SCHEDULE);
+            if (weeklyTimesheetCheck.isSelected()) reports.add(ReportEngine.Report.WEEKLY_TIMESHEET);
+            if (semesterLabCheck.isSelected()) reports.add(ReportEngine.Report.LAB_SEMESTER);
+            if (reports.isEmpty()) {
+                AlertHelper.showWarning("Export", "Select at least one report");
+                return;
+            }
+            
+            DirectoryChooser chooser = new DirectoryChooser();
+            chooser.setTitle("Export Reports To");
+            File dir = chooser.showDialog(stage);
+            if (dir == null) return;
+            
+            ReportFormat format = formatCombo.getValue() != null ? formatCombo.getValue() : ReportFormat.CSV;
+            uiController.getReportGenerator().exportReports(reports, format, dir.toPath());
         });
     }
     
     private void logout() {
+        uiController.flushPendingSaves();
         try {
-            LoginUI loginUI = new LoginUI(new UserRepository(Path.of("data", "users.dat")));
+            LoginUI loginUI = new LoginUI(UserDirectory.getInstance());
             loginUI.show(stage);
         } catch (Exception ex) {
             AlertHelper.showError("Error", "Failed to load login screen");
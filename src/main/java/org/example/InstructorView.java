@@ -7,7 +7,6 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import java.nio.file.Path;
 
 /**
  * InstructorView - Dashboard for Lab Instructor role.
@@ -17,14 +16,13 @@ public class InstructorView {
     
     private final Stage stage;
     private final User user;
-    private final LabRepository labRepository;
     private final UIController uiController;
+    private LiveLabView labsView;
     
     public InstructorView(Stage stage, User user) {
         this.stage = stage;
         this.user = user;
-        this.labRepository = new LabRepository(Path.of("data", "datastore.dat"));
-        this.uiController = new UIController(labRepository);
+        this.uiController = new UIController(DataService.getInstance());
     }
     
     public void show() {
@@ -37,7 +35,7 @@ public class InstructorView {
         
         // Main content - labs table
         TableView<Lab> table = uiController.createLabsTable(user);
-        table.setItems(uiController.getLabsForUser(user, UIController.LabViewMode.ACTIVE_NOW));
+        labsView = uiController.createLabsView(user, table, LabViewMode.ACTIVE_NOW);
         root.setCenter(uiController.createTableContainer(table));
         
         // Controls - only Instructor features
@@ -87,10 +85,10 @@ public class InstructorView {
         requestMakeupBtn.setOnAction(e -> uiController.handleRequestMakeup());
         viewScheduleBtn.setOnAction(e -> openScheduleDialog());
 
-        ChoiceBox<UIController.LabViewMode> viewChoice = new ChoiceBox<>();
-        viewChoice.getItems().addAll(UIController.LabViewMode.ACTIVE_NOW, UIController.LabViewMode.ALL, UIController.LabViewMode.TODAY);
-        viewChoice.setValue(UIController.LabViewMode.ACTIVE_NOW);
-        viewChoice.setOnAction(e -> table.setItems(uiController.getLabsForUser(user, viewChoice.getValue())));
+        ChoiceBox<LabViewMode> viewChoice = new ChoiceBox<>();
+        viewChoice.getItems().addAll(LabViewMode.ACTIVE_NOW, LabViewMode.ALL, LabViewMode.TODAY);
+        viewChoice.setValue(LabViewMode.ACTIVE_NOW);
+        viewChoice.setOnAction(e -> labsView.setMode(viewChoice.getValue()));
 
         HBox primaryActions = new HBox(10, viewLabsBtn, requestMakeupBtn, viewScheduleBtn, new Label(" "), viewChoice);
         primaryActions.setPadding(new Insets(10));
@@ -114,15 +112,13 @@ public class InstructorView {
         
         ListView<String> labsList = new ListView<>();
         
-        // Get all labs and filter by this instructor
-        uiController.getLabs().forEach(lab -> {
-            if (lab.getInstructor() != null && lab.getInstructor().getName().equalsIgnoreCase(user.getName())) {
-                String timeStr = lab.getSchedule() != null ? 
-                    lab.getSchedule().getExpectedStart().getHour() + ":00 - " + 
-                    lab.getSchedule().getExpectedEnd().getHour() + ":00" : "TBD";
-                String venueStr = lab.getVenue() != null ? lab.getVenue().getBuilding() + " - " + lab.getVenue().getRoom() : "TBD";
-                labsList.getItems().add(lab.getName() + " - " + timeStr + " - " + venueStr);
-            }
+        // Get the labs assigned to this instructor
+        uiController.getLabsForUser(user, LabViewMode.ALL).forEach(lab -> {
+            String timeStr = lab.getSchedule() != null ? 
+                lab.getSchedule().getExpectedStart().getHour() + ":00 - " + 
+                lab.getSchedule().getExpectedEnd().getHour() + ":00" : "TBD";
+            String venueStr = lab.getVenue() != null ? lab.getVenue().getBuilding() + " - " + lab.getVenue().getRoom() : "TBD";
+            labsList.getItems().add(lab.getName() + " - " + timeStr + " - " + venueStr);
         });
         
         if (labsList.getItems().isEmpty()) {
@@ -166,8 +162,9 @@ public class InstructorView {
     }
     
     private void logout() {
+        uiController.flushPendingSaves();
         try {
-            LoginUI loginUI = new LoginUI(new UserRepository(Path.of("data", "users.dat")));
+            LoginUI loginUI = new LoginUI(UserDirectory.getInstance());
             loginUI.show(stage);
         } catch (Exception ex) {
             AlertHelper.showError("Error", "Failed to load login screen");
@@ -0,0 +1,214 @@
+package org.example;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * IntervalTree stores [start, end] intervals of epoch seconds, each carrying a value.
+ * Single Responsibility: Logarithmic interval lookups for the schedule and conflict indexes.
+ *
+ * Intervals live in a treap ordered by start time; every node also stores the latest
+ * end time in its subtree, so queries skip subtrees that end before the query range.
+ */
+public class IntervalTree<T> {
+
+    // intervals with an open end are kept for start queries but never match a time query
+    public static final long NO_END = Long.MIN_VALUE;
+
+    private static final Random PRIORITIES = new Random();
+
+    private Node<T> root;
+    private long nextSeq;
+    private int size;
+
+    /**
+     * Handle to a stored interval; pass it to delete() to remove the interval again.
+     */
+    public static final class Node<T> {
+        private final T value;
+        private final long start;
+        private final long end;
+        private final long seq;
+        private final int priority = PRIORITIES.nextInt();
+        private long maxEnd;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(T value, long start, long end, long seq) {
+            this.value = value;
+            this.start = start;
+            this.end = end;
+            this.seq = seq;
+            this.maxEnd = end;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Node<T> insert(T value, long start, long end) {
+        Node<T> n = new Node<>(value, start, end, nextSeq++);
+        root = insert(root, n);
+        size++;
+        return n;
+    }
+
+    public void delete(Node<T> n) {
+        root = delete(root, n);
+    }
+
+    /**
+     * Values of intervals containing t, ends inclusive.
+     */
+    public void stab(long t, Consumer<T> out) {
+        stab(root, t, out);
+    }
+
+    /**
+     * Values of intervals starting in [from, to).
+     */
+    public void startingIn(long from, long to, Consumer<T> out) {
+        startingIn(root, from, to, out);
+    }
+
+    /**
+     * Intervals overlapping [from, to); touching end points do not count.
+     */
+    public void overlapping(long from, long to, Consumer<Node<T>> out) {
+        overlapping(root, from, to, out);
+    }
+
+    // ---- queries ----
+
+    private static <T> void stab(Node<T> n, long t, Consumer<T> out) {
+        if (n == null || n.maxEnd < t)
+            return;
+        stab(n.left, t, out);
+        if (n.start > t)
+            return; // everything to the right starts even later
+        if (n.end >= t)
+            out.accept(n.value);
+        stab(n.right, t, out);
+    }
+
+    private static <T> void startingIn(Node<T> n, long from, long to, Consumer<T> out) {
+        if (n == null)
+            return;
+        if (n.start >= from)
+            startingIn(n.left, from, to, out);
+        if (n.start >= from && n.start < to)
+            out.accept(n.value);
+        if (n.start < to)
+            startingIn(n.right, from, to, out);
+    }
+
+    private static <T> void overlapping(Node<T> n, long from, long to, Consumer<Node<T>> out) {
+        if (n == null || n.maxEnd <= from)
+            return;
+        overlapping(n.left, from, to, out);
+        if (n.start >= to)
+            return;
+        if (n.end > from)
+            out.accept(n);
+        overlapping(n.right, from, to, out);
+    }
+
+    // ---- treap ----
+
+    private static int compare(Node<?> a, Node<?> b) {
+        int c = Long.compare(a.start, b.start);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    }
+
+    private static <T> Node<T> insert(Node<T> t, Node<T> n) {
+        if (t == null)
+            return n;
+        if (compare(n, t) < 0) {
+            t.left = insert(t.left, n);
+            if (t.left.priority > t.priority)
+                t = rotateRight(t);
+        } else {
+            t.right = insert(t.right, n);
+            if (t.right.priority > t.priority)
+                t = rotateLeft(t);
+        }
+        update(t);
+        return t;
+    }
+
+    private Node<T> delete(Node<T> t, Node<T> n) {
+        if (t == null)
+            return null;
+        int c = compare(n, t);
+        if (c < 0) {
+            t.left = delete(t.left, n);
+        } else if (c > 0) {
+            t.right = delete(t.right, n);
+        } else {
+            size--;
+            return merge(t.left, t.right);
+        }
+        update(t);
+        return t;
+    }
+
+    // joins two treaps where every key in a precedes every key in b
+    private static <T> Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> t) {
+        Node<T> l = t.left;
+        t.left = l.right;
+        l.right = t;
+        update(t);
+        update(l);
+        return l;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> t) {
+        Node<T> r = t.right;
+        t.right = r.left;
+        r.left = t;
+        update(t);
+        update(r);
+        return r;
+    }
+
+    private static void update(Node<?> t) {
+        long max = t.end;
+        if (t.left != null && t.left.maxEnd > max)
+            max = t.left.maxEnd;
+        if (t.right != null && t.right.maxEnd > max)
+            max = t.right.maxEnd;
+        t.maxEnd = max;
+    }
+}
@@ -13,7 +13,25 @@ public class Lab implements Serializable {
     private Instructor instructor;
     private List<TA> tas = new ArrayList<>();
     private Schedule schedule;
-    private java.util.List<TimeSheet> sessions = new java.util.ArrayList<>();
+    // declared as a List so labs serialized before SessionLog existed still load
+    private java.util.List<TimeSheet> sessions = new SessionLog();
+    private transient ChangeListener listener;
+    // set on the read-only copies that make up a published DataStore version
+    private transient boolean frozen;
+    // this lab's copy in the last published version, and where it sat in that version
+    transient volatile Lab published;
+    transient int publishedPosition = -1;
+
+    // notified when sessions or the schedule change, so indexes can follow
+    public interface ChangeListener {
+        void sessionAdded(Lab lab, TimeSheet ts);
+
+        void scheduleChanged(Lab lab);
+
+        // any change, including sessions edited straight through getSessions()
+        default void labModified(Lab lab) {
+        }
+    }
 
     // constructor
     public Lab() {
@@ -38,7 +56,9 @@ public class Lab implements Serializable {
     }
 
     public void setVenue(Venue venue) {
+        checkMutable();
         this.venue = venue;
+        modified();
     }
 
     public Instructor getInstructor() {
@@ -46,7 +66,9 @@ public class Lab implements Serializable {
     }
 
     public void setInstructor(Instructor instructor) {
+        checkMutable();
         this.instructor = instructor;
+        modified();
     }
 
     public List<TA> getTas() {
@@ -54,12 +76,15 @@ public class Lab implements Serializable {
     }
 
     public void addTA(TA ta) {
-        if (!tas.contains(ta))
+        if (!tas.contains(ta)) {
             tas.add(ta);
+            modified();
+        }
     }
 
     public void removeTA(TA ta) {
-        tas.remove(ta);
+        if (tas.remove(ta))
+            modified();
     }
 
     public Schedule getSchedule() {
@@ -67,37 +92,104 @@ public class Lab implements Serializable {
     }
 
     public void setSchedule(Schedule schedule) {
+        checkMutable();
         this.schedule = schedule;
+        if (listener != null)
+            listener.scheduleChanged(this);
+        modified();
     }
 
     public java.util.List<TimeSheet> getSessions() {
         return sessions;
     }
 
+    // the same sessions as primitive columns
+    public SessionLog getSessionLog() {
+        return (SessionLog) sessions;
+    }
+
+    // not thread-safe on its own; DataStore.addSession takes this lab's lock first
     public void addSession(TimeSheet ts) {
-        if (ts != null)
+        checkMutable();
+        if (ts != null) {
             sessions.add(ts);
+            if (listener != null)
+                listener.sessionAdded(this, ts);
+        }
+    }
+
+    /**
+     * A read-only copy for a published version. Venue and schedule objects are shared, since
+     * they are replaced rather than edited; staff are the given published copies and the
+     * sessions share the log's columns.
+     */
+    Lab freeze(Instructor frozenInstructor, List<TA> frozenTas) {
+        Lab copy = new Lab(id, name);
+        copy.venue = venue;
+        copy.instructor = frozenInstructor;
+        copy.tas = java.util.Collections.unmodifiableList(frozenTas);
+        copy.schedule = schedule;
+        copy.sessions = getSessionLog().snapshot();
+        copy.frozen = true;
+        return copy;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    // tell the store this lab needs a new published copy
+    void modified() {
+        if (listener != null)
+            listener.labModified(this);
+    }
+
+    private void checkMutable() {
+        if (frozen)
+            throw new UnsupportedOperationException("Lab " + id + " is a read-only snapshot");
     }
 
-    // calculate total hours
+    public void setChangeListener(ChangeListener listener) {
+        this.listener = listener;
+        getSessionLog().onChange(listener == null ? null : this::modified);
+    }
+
+    // calculate total hours; like the other totals, a scan of the sessions rather than a stored sum
     public double totalContactHours() {
-        double total = 0.0;
-        for (TimeSheet t : sessions) {
-            if (t.getActualStart() != null && t.getActualEnd() != null) {
-                total += java.time.Duration.between(t.getActualStart(), t.getActualEnd()).toMinutes() / 60.0;
-            }
-        }
-        return total;
+        return totalContactMinutes() / 60.0;
+    }
+
+    public long totalContactMinutes() {
+        return getSessionLog().contactMinutes();
     }
 
     // count leaves
     public long leavesCount() {
-        long cnt = 0;
-        for (TimeSheet t : sessions) {
-            if (t.getActualStart() == null || t.getActualEnd() == null)
-                cnt++;
+        return getSessionLog().leaveCount();
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    // earliest recorded start, or null
+    public java.time.LocalDateTime firstSessionStart() {
+        return getSessionLog().firstStart();
+    }
+
+    // latest recorded end, or null
+    public java.time.LocalDateTime lastSessionEnd() {
+        return getSessionLog().lastEnd();
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (!(sessions instanceof SessionLog)) {
+            SessionLog log = new SessionLog(sessions == null ? 0 : sessions.size());
+            if (sessions != null)
+                log.addAll(sessions);
+            sessions = log;
         }
-        return cnt;
     }
 
     @Override
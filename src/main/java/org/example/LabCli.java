@@ -0,0 +1,343 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LabCli runs reports and data maintenance from the command line.
+ * Single Responsibility: Give nightly jobs the desktop's reports and upkeep without a window.
+ *
+ * The store is loaded straight from the repository and no JavaFX class is ever touched, so
+ * a run starts in a fraction of a second and works on machines without a display. Unlike
+ * the desktop, a store that cannot be read is an error: nothing is quarantined or replaced
+ * with sample data, and a store that does not exist is only created by import --create.
+ * Exit status is 0 on success, 1 on failure and 2 on a usage error.
+ */
+public class LabCli {
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -cp <classes> org.example.LabCli [--data FILE] <command> [options]",
+            "",
+            "Commands:",
+            "  report [schedule|timesheet|semester|all]...   write the campus reports (default: all)",
+            "  lab-report LAB_ID...                          write each lab's semester timesheet",
+            "  compact                                       fold the journal into a new snapshot",
+            "  migrate [--to FILE]                           rewrite the store in the current data format",
+            "  import [--create] CSV...                      apply a bulk CSV import and save a snapshot;",
+            "                                                --create starts a new store if there is none",
+            "  ingest EVENTS...                              turn door-reader events into sessions",
+            "",
+            "Options:",
+            "  --data FILE            the store to use (default data/datastore.dat)",
+            "  --format text|csv|json report format (default text)",
+            "  --out DIR              report directory (default reports)",
+            "  --week YYYY-Www        the ISO week of the weekly reports (default: this week)");
+
+    // options that take a value, and flags that do not; anything else starting with -- is a usage error
+    private static final Set<String> OPTIONS = Set.of("--data", "--format", "--out", "--to", "--week");
+    private static final Set<String> FLAGS = Set.of("--create");
+
+    private static final Pattern ISO_WEEK = Pattern.compile("(\\d{4})-W(\\d{2})");
+
+    private static class UsageException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UsageException(String message) {
+            super(message);
+        }
+    }
+
+    private final Map<String, String> options = new HashMap<>();
+    private final List<String> operands = new ArrayList<>();
+    private final PrintStream out;
+    private final PrintStream err;
+    private DataService service;
+
+    private LabCli(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs one command and returns the exit status.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        LabCli cli = new LabCli(out, err);
+        try {
+            String command = cli.parse(args);
+            return cli.execute(command, err);
+        } catch (UsageException ex) {
+            err.println(ex.getMessage());
+            err.println(USAGE);
+            return 2;
+        } catch (IOException | ClassNotFoundException | RuntimeException ex) {
+            err.println("Failed: " + ex.getMessage());
+            return 1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            err.println("Interrupted");
+            return 1;
+        }
+    }
+
+    // fills options and operands, returns the command
+    private String parse(String[] args) throws UsageException {
+        String command = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-h") || arg.equals("--help"))
+                throw new UsageException("Labs command line tool");
+            if (FLAGS.contains(arg)) {
+                options.put(arg, "true");
+            } else if (arg.startsWith("--")) {
+                if (!OPTIONS.contains(arg))
+                    throw new UsageException("Unknown option " + arg);
+                if (i + 1 >= args.length)
+                    throw new UsageException(arg + " needs a value");
+                options.put(arg, args[++i]);
+            } else if (command == null) {
+                command = arg;
+            } else {
+                operands.add(arg);
+            }
+        }
+        if (command == null)
+            throw new UsageException("No command given");
+        return command;
+    }
+
+    private int execute(String command, PrintStream err)
+            throws UsageException, IOException, ClassNotFoundException, InterruptedException {
+        switch (command) {
+            case "report":
+                return report();
+            case "lab-report":
+                return labReport(err);
+            case "compact":
+                return compact();
+            case "migrate":
+                return migrate();
+            case "import":
+                return importCsv(err);
+            case "ingest":
+                return ingest(err);
+            default:
+                throw new UsageException("Unknown command " + command);
+        }
+    }
+
+    // ---- commands ----
+
+    private int report() throws UsageException, IOException, ClassNotFoundException {
+        Set<ReportEngine.Report> reports = EnumSet.noneOf(ReportEngine.Report.class);
+        for (String name : operands) {
+            switch (name) {
+                case "schedule":
+                case "weekly-schedule":
+                    reports.add(ReportEngine.Report.WEEKLY_SCHEDULE);
+                    break;
+                case "timesheet":
+                case "weekly-timesheet":
+                    reports.add(ReportEngine.Report.WEEKLY_TIMESHEET);
+                    break;
+                case "semester":
+                case "lab-semester":
+                    reports.add(ReportEngine.Report.LAB_SEMESTER);
+                    break;
+                case "all":
+                    reports.addAll(EnumSet.allOf(ReportEngine.Report.class));
+                    break;
+                default:
+                    throw new UsageException("Unknown report " + name);
+            }
+        }
+        if (reports.isEmpty())
+            reports.addAll(EnumSet.allOf(ReportEngine.Report.class));
+        ReportFormat format = format();
+        LocalDate week = week();
+        Path dir = outDir();
+
+        load();
+        List<Lab> labs = service.snapshot().getLabs();
+        ReportEngine engine = new ReportEngine(week);
+        for (ReportEngine.Report report : reports)
+            out.println("Wrote " + engine.export(report, labs, format, dir));
+        return 0;
+    }
+
+    private int labReport(PrintStream err) throws UsageException, IOException, ClassNotFoundException {
+        if (operands.isEmpty())
+            throw new UsageException("lab-report needs at least one lab id");
+        ReportFormat format = format();
+        Path dir = outDir();
+
+        DataStore ds = load();
+        ReportEngine engine = new ReportEngine();
+        int missing = 0;
+        for (String labId : operands) {
+            Lab lab = ds.findLab(labId);
+            if (lab == null) {
+                err.println("No such lab: " + labId);
+                missing++;
+                continue;
+            }
+            out.println("Wrote " + engine.exportLab(ds.publishedLab(lab), format, dir));
+        }
+        return missing == 0 ? 0 : 1;
+    }
+
+    private int compact() throws IOException, ClassNotFoundException {
+        DataStore ds = load();
+        LabRepository repository = service.getRepository();
+        long journaled = repository.journalSize();
+        service.save();
+        out.println("Compacted " + repository.getStoragePath() + ": " + ds.getLabs().size() + " labs, "
+                + journaled + " journal bytes folded into the snapshot");
+        return 0;
+    }
+
+    private int migrate() throws UsageException, IOException, ClassNotFoundException {
+        if (!operands.isEmpty())
+            throw new UsageException("migrate takes no operands; use --to FILE to write a copy");
+        String to = options.get("--to");
+        load();
+        if (to == null) {
+            // the previous file is kept as .bak by the atomic write
+            service.save();
+            out.println("Rewrote " + service.getRepository().getStoragePath()
+                    + " in data format version " + DataStoreCodec.FORMAT_VERSION);
+            return 0;
+        }
+        Path target = Path.of(to);
+        if (Files.exists(target))
+            throw new IOException(target + " already exists");
+        if (target.getParent() != null)
+            Files.createDirectories(target.getParent());
+        // journaled like the desktop's store, so a stale journal beside the target is cleared
+        new LabRepository(target, true).save(service.snapshot());
+        out.println("Wrote " + target + " in data format version " + DataStoreCodec.FORMAT_VERSION);
+        return 0;
+    }
+
+    // valid rows are applied and saved even when others are rejected; the status is then 1
+    private int importCsv(PrintStream err) throws UsageException, IOException, ClassNotFoundException {
+        if (operands.isEmpty())
+            throw new UsageException("import needs at least one CSV file");
+        List<Path> files = new ArrayList<>();
+        for (String name : operands)
+            files.add(Path.of(name));
+
+        DataStore ds = load(options.containsKey("--create"));
+        BulkImporter.Batch batch = new BulkImporter(ds).prepare(files);
+        for (BulkImporter.RowError e : batch.getErrors())
+            err.println(e);
+        if (batch.getErrorCount() > batch.getErrors().size())
+            err.println("... and " + (batch.getErrorCount() - batch.getErrors().size()) + " more");
+        batch.commit(ds);
+        // one snapshot for the whole import instead of a journal record per row
+        service.publish();
+        service.save();
+        out.println("Imported " + batch.getValidCount() + " rows, rejected " + batch.getErrorCount());
+        return batch.getErrorCount() == 0 ? 0 : 1;
+    }
+
+    private int ingest(PrintStream err) throws UsageException, IOException, ClassNotFoundException, InterruptedException {
+        if (operands.isEmpty())
+            throw new UsageException("ingest needs at least one event file");
+
+        DataStore ds = load();
+        AutoSaver autoSaver = service.getAutoSaver();
+        List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        autoSaver.setErrorHandler(failures::add);
+        AttendanceIngestor ingestor = new AttendanceIngestor(ds, autoSaver, Runnable::run, failures::add);
+        try {
+            // nothing else changes the store here, so the ingest worker commits directly
+            for (String name : operands) {
+                try (Reader in = Files.newBufferedReader(Path.of(name), StandardCharsets.UTF_8)) {
+                    ingestor.ingest(in);
+                }
+            }
+        } finally {
+            ingestor.close();
+            autoSaver.flush();
+        }
+        for (Exception ex : failures)
+            err.println("Failed: " + ex.getMessage());
+        out.println("Events " + ingestor.getReceived() + ", sessions added " + ingestor.getSessions()
+                + ", duplicates " + ingestor.getDuplicates() + ", unmatched " + ingestor.getUnmatched()
+                + ", rejected " + ingestor.getRejected());
+        return failures.isEmpty() ? 0 : 1;
+    }
+
+    // ---- helpers ----
+
+    private DataStore load() throws IOException, ClassNotFoundException {
+        return load(false);
+    }
+
+    // reads the store and journal; fails instead of falling back to sample data or, unless
+    // create is set, to an empty store, so a mistyped --data is not taken for a new store
+    private DataStore load(boolean create) throws IOException, ClassNotFoundException {
+        Path data = Path.of(options.getOrDefault("--data", "data/datastore.dat"));
+        LabRepository repository = new LabRepository(data, true);
+        if (!create && !repository.exists())
+            throw new NoSuchFileException(data.toString(), null, "no data store");
+        service = new DataService(repository);
+        // e.g. the store was read from its backup; commands that count failures set their own handler
+        service.getAutoSaver().setErrorHandler(ex -> err.println("Warning: " + ex.getMessage()));
+        return service.reload();
+    }
+
+    // Monday of the --week option, or of the current week
+    private LocalDate week() throws UsageException {
+        String name = options.get("--week");
+        if (name == null)
+            return LocalDate.now().with(DayOfWeek.MONDAY);
+        Matcher m = ISO_WEEK.matcher(name);
+        if (!m.matches())
+            throw new UsageException("Week must look like 2025-W36, not " + name);
+        // 4 January is always in week 1 of its week-based year
+        LocalDate first = LocalDate.of(Integer.parseInt(m.group(1)), 1, 4);
+        int week = Integer.parseInt(m.group(2));
+        if (!IsoFields.WEEK_OF_WEEK_BASED_YEAR.rangeRefinedBy(first).isValidValue(week))
+            throw new UsageException(m.group(1) + " has no week " + week);
+        return first.with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, week).with(DayOfWeek.MONDAY);
+    }
+
+    private ReportFormat format() throws UsageException {
+        String name = options.getOrDefault("--format", "text");
+        try {
+            return ReportFormat.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new UsageException("Unknown format " + name);
+        }
+    }
+
+    private Path outDir() throws IOException {
+        Path dir = Path.of(options.getOrDefault("--out", "reports"));
+        Files.createDirectories(dir);
+        return dir;
+    }
+}
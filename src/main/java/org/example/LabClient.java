@@ -0,0 +1,104 @@
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LabClient talks to a LabServer on behalf of one user.
+ * Single Responsibility: Fetch the user's store from the server and send it the user's changes.
+ *
+ * DataService uses it in place of the data files when the desktop is started with a server
+ * address. The store arrives in the data file format and changes travel as journal records,
+ * so the views work the same either way. A refused call throws IOException with the
+ * server's message.
+ */
+public class LabClient {
+
+    private final HttpClient http;
+    private final URI base;
+    private final String username;
+    private final String authorization;
+
+    /**
+     * @param base the server's address, e.g. http://localhost:8080/
+     */
+    public LabClient(URI base, String username, String password) {
+        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        this.base = base.resolve("/api/");
+        this.username = username;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public URI getAddress() {
+        return base;
+    }
+
+    /**
+     * The account the server knows these credentials by; fails if it does not accept them.
+     */
+    public User currentUser() throws IOException {
+        Map<String, Object> m = Json.parseObject(new String(send(request("me").GET()), StandardCharsets.UTF_8));
+        String building = m.get("building") == null ? null : m.get("building").toString();
+        // the password stays with the client
+        return new User(String.valueOf(m.get("id")), username, null, String.valueOf(m.get("name")),
+                User.Role.valueOf(String.valueOf(m.get("role"))), building);
+    }
+
+    /**
+     * The labs and requests this user may see, as a store of their own.
+     */
+    public DataStore fetchStore() throws IOException {
+        return DataStoreCodec.read(new ByteArrayInputStream(send(request("store").GET())));
+    }
+
+    /**
+     * Sends changes made on the desktop; the server applies them in order and journals them.
+     */
+    public void send(List<LabJournal.Entry> entries) throws IOException {
+        if (entries.isEmpty())
+            return;
+        send(request("journal")
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(LabJournal.encode(entries))));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization);
+    }
+
+    private byte[] send(HttpRequest.Builder request) throws IOException {
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the server", e);
+        }
+        if (response.statusCode() >= 400)
+            throw new IOException(describeError(response));
+        return response.body();
+    }
+
+    // the server's message from a JSON error body, if there is one
+    private static String describeError(HttpResponse<byte[]> response) {
+        try {
+            Object message = Json.parseObject(new String(response.body(), StandardCharsets.UTF_8)).get("error");
+            if (message != null)
+                return message.toString();
+        } catch (IllegalArgumentException ignored) {
+        }
+        return "Server answered " + response.statusCode();
+    }
+}
@@ -0,0 +1,139 @@
+package org.example;
+
+import java.util.*;
+
+/**
+ * LabIndex keeps secondary lookup tables over the labs of a DataStore.
+ * Single Responsibility: Answer role-scoped lab lookups without scanning every lab.
+ *
+ * Each lab remembers the keys it was filed under, so reindexing after a change
+ * only touches that lab's entries.
+ */
+public class LabIndex {
+
+    private final Map<String, Lab> byId = new HashMap<>();
+    private final Map<String, Set<Lab>> byBuilding = new HashMap<>();
+    private final Map<String, Set<Lab>> byInstructorId = new HashMap<>();
+    private final Map<String, Set<Lab>> byTaId = new HashMap<>();
+    // users are matched to staff by name, so names are indexed alongside ids
+    private final Map<String, Set<Lab>> byInstructorName = new HashMap<>();
+    private final Map<String, Set<Lab>> byTaName = new HashMap<>();
+    private final Map<Lab, Keys> keysByLab = new IdentityHashMap<>();
+
+    public LabIndex(List<Lab> labs) {
+        for (Lab lab : labs)
+            add(lab);
+    }
+
+    public int size() {
+        return keysByLab.size();
+    }
+
+    public void add(Lab lab) {
+        Keys keys = new Keys(lab);
+        keysByLab.put(lab, keys);
+        if (keys.id != null)
+            byId.put(keys.id, lab);
+        put(byBuilding, keys.building, lab);
+        put(byInstructorId, keys.instructorId, lab);
+        put(byInstructorName, keys.instructorName, lab);
+        for (String taId : keys.taIds)
+            put(byTaId, taId, lab);
+        for (String taName : keys.taNames)
+            put(byTaName, taName, lab);
+    }
+
+    public void remove(Lab lab) {
+        Keys keys = keysByLab.remove(lab);
+        if (keys == null)
+            return;
+        if (keys.id != null && byId.get(keys.id) == lab)
+            byId.remove(keys.id);
+        take(byBuilding, keys.building, lab);
+        take(byInstructorId, keys.instructorId, lab);
+        take(byInstructorName, keys.instructorName, lab);
+        for (String taId : keys.taIds)
+            take(byTaId, taId, lab);
+        for (String taName : keys.taNames)
+            take(byTaName, taName, lab);
+    }
+
+    // call after a lab's venue, instructor or TAs changed
+    public void reindex(Lab lab) {
+        remove(lab);
+        add(lab);
+    }
+
+    public Lab findLab(String labId) {
+        return byId.get(labId);
+    }
+
+    public Collection<Lab> labsInBuilding(String building) {
+        return lookup(byBuilding, Names.normalize(building));
+    }
+
+    public Collection<Lab> labsForInstructor(String instructorId) {
+        return lookup(byInstructorId, instructorId);
+    }
+
+    public Collection<Lab> labsForTa(String taId) {
+        return lookup(byTaId, taId);
+    }
+
+    public Collection<Lab> labsForInstructorName(String name) {
+        return lookup(byInstructorName, Names.normalize(name));
+    }
+
+    public Collection<Lab> labsForTaName(String name) {
+        return lookup(byTaName, Names.normalize(name));
+    }
+
+    private static Collection<Lab> lookup(Map<String, Set<Lab>> map, String key) {
+        Set<Lab> labs = key == null ? null : map.get(key);
+        return labs == null ? Collections.emptySet() : Collections.unmodifiableSet(labs);
+    }
+
+    private static void put(Map<String, Set<Lab>> map, String key, Lab lab) {
+        if (key == null)
+            return;
+        map.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(lab);
+    }
+
+    private static void take(Map<String, Set<Lab>> map, String key, Lab lab) {
+        if (key == null)
+            return;
+        Set<Lab> labs = map.get(key);
+        if (labs != null) {
+            labs.remove(lab);
+            if (labs.isEmpty())
+                map.remove(key);
+        }
+    }
+
+    // the keys a lab was filed under when it was last indexed
+    private static class Keys {
+        final String id;
+        final String building;
+        final String instructorId;
+        final String instructorName;
+        final List<String> taIds = new ArrayList<>();
+        final List<String> taNames = new ArrayList<>();
+
+        Keys(Lab lab) {
+            id = lab.getId();
+            building = lab.getVenue() == null ? null : Names.normalize(lab.getVenue().getBuilding());
+            Instructor instr = lab.getInstructor();
+            instructorId = instr == null ? null : personKey(instr);
+            instructorName = instr == null ? null : Names.normalize(instr.getName());
+            for (TA ta : lab.getTas()) {
+                taIds.add(personKey(ta));
+                taNames.add(Names.normalize(ta.getName()));
+            }
+        }
+
+        // people created without an id are still indexed under their name
+        private static String personKey(Person p) {
+            return p.getId() != null ? p.getId() : "name:" + Names.normalize(p.getName());
+        }
+    }
+}
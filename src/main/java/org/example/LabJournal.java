@@ -0,0 +1,608 @@
+package org.example;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * LabJournal is an append-only log of small mutations made after the last snapshot.
+ * Single Responsibility: Write and replay typed change records for a DataStore.
+ *
+ * Each record is framed as [length][payload][crc32], so a record torn by a crash
+ * is detected on replay and everything after it is discarded.
+ *
+ * Fields added later go at the end of a payload and are read only if present,
+ * so journals written by older builds still replay.
+ *
+ * Every snapshot starts a new journal generation, and a journal file begins with the
+ * generation it belongs to. A journal older than the snapshot it sits next to (left behind
+ * by a crash right after the snapshot was written) is therefore skipped instead of being
+ * replayed on top of changes the snapshot already holds.
+ */
+public class LabJournal {
+
+    private static final byte LAB_CREATED = 1;
+    private static final byte SESSION_ADDED = 2;
+    private static final byte STAFF_ASSIGNED = 3;
+    private static final byte MAKEUP_REQUESTED = 4;
+    private static final byte SCHEDULE_CHANGED = 5;
+    // header frame: the generation of the records that follow
+    private static final byte GENERATION = 6;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final Path journalPath;
+    private FileChannel channel;
+    private long generation;
+
+    public LabJournal(Path journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    public Path getPath() {
+        return journalPath;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Appends one record to the end of the journal.
+     */
+    public void append(Entry entry) throws IOException {
+        appendAll(Collections.singletonList(entry));
+    }
+
+    /**
+     * Appends several records with a single write and returns once they are on disk. Callers
+     * batch their records (AutoSaver sends a whole burst in one call), so each call is one fsync.
+     */
+    public void appendAll(List<Entry> entries) throws IOException {
+        if (entries.isEmpty())
+            return;
+        byte[] frames = encode(entries);
+        synchronized (this) {
+            FileChannel ch = openChannel();
+            writeFully(ch, frames);
+            ch.force(false);
+        }
+    }
+
+    /**
+     * The entries framed as in the journal file; how a desktop sends its changes to a LabServer.
+     */
+    public static byte[] encode(List<Entry> entries) throws IOException {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream(128 * entries.size());
+        DataOutputStream framesOut = new DataOutputStream(frames);
+        for (Entry entry : entries) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+            try (DataOutputStream out = new DataOutputStream(buffer)) {
+                out.writeByte(entry.type());
+                entry.write(out);
+            }
+            writeFrame(framesOut, buffer.toByteArray());
+        }
+        framesOut.flush();
+        return frames.toByteArray();
+    }
+
+    /**
+     * Reads entries made by encode(). Unlike a journal file, a torn or corrupt frame here is
+     * an error: the sender still has the entries and sends them again.
+     */
+    public static List<Entry> decode(InputStream stream) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException eof) {
+                return entries;
+            }
+            if (length <= 0)
+                throw new IOException("Bad record length " + length);
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != in.readInt())
+                throw new IOException("Record " + (entries.size() + 1) + " failed its checksum");
+            if (payload[0] != GENERATION)
+                entries.add(entryOf(payload));
+        }
+    }
+
+    private static void writeFrame(DataOutputStream out, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static void writeFully(FileChannel ch, byte[] bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining())
+            ch.write(buf);
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Files.createDirectories(journalPath.toAbsolutePath().getParent());
+            channel = FileChannel.open(journalPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // a new file starts with its generation
+            if (channel.size() == 0) {
+                ByteArrayOutputStream header = new ByteArrayOutputStream(24);
+                DataOutputStream out = new DataOutputStream(header);
+                writeFrame(out, ByteBuffer.allocate(9).put(GENERATION).putLong(generation).array());
+                out.flush();
+                writeFully(channel, header.toByteArray());
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Reads every intact record in order. Stops at the first torn or corrupt record.
+     */
+    public List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        readInto(entries);
+        return entries;
+    }
+
+    // adds the records to entries and returns the file's generation, 0 if it has none
+    private long readInto(List<Entry> entries) throws IOException {
+        long fileGeneration = 0;
+        if (!Files.exists(journalPath))
+            return fileGeneration;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalPath)))) {
+            while (true) {
+                byte[] payload;
+                int storedCrc;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0)
+                        break;
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    storedCrc = in.readInt();
+                } catch (EOFException eof) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != storedCrc)
+                    break;
+                if (payload[0] == GENERATION)
+                    fileGeneration = ByteBuffer.wrap(payload, 1, payload.length - 1).getLong();
+                else
+                    entries.add(entryOf(payload));
+            }
+        }
+        return fileGeneration;
+    }
+
+    /**
+     * Replays the journal on top of a freshly loaded snapshot. A journal from before the
+     * snapshot's generation is dropped unread; later appends continue the journal's generation.
+     */
+    public synchronized int replay(DataStore ds) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long fileGeneration = readInto(entries);
+        if (fileGeneration < ds.getJournalGeneration()) {
+            // the snapshot already holds these records
+            startGeneration(ds.getJournalGeneration());
+            return 0;
+        }
+        generation = fileGeneration;
+        Replay replay = new Replay();
+        for (Entry e : entries) {
+            e.apply(ds, replay);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Size of the journal on disk, used to decide when to compact into a snapshot.
+     */
+    public long size() throws IOException {
+        return Files.exists(journalPath) ? Files.size(journalPath) : 0L;
+    }
+
+    /**
+     * Drops all records, e.g. when the journal is moved aside as unreadable.
+     */
+    public synchronized void clear() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.deleteIfExists(journalPath);
+    }
+
+    /**
+     * Drops all records and starts the given generation. Called once a snapshot written
+     * for that generation is in place.
+     */
+    public synchronized void startGeneration(long next) throws IOException {
+        clear();
+        generation = next;
+    }
+
+    private static Entry entryOf(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte type = in.readByte();
+            switch (type) {
+                case LAB_CREATED:
+                    return LabCreated.read(in);
+                case SESSION_ADDED:
+                    return SessionAdded.read(in);
+                case STAFF_ASSIGNED:
+                    return StaffAssigned.read(in);
+                case MAKEUP_REQUESTED:
+                    return MakeupRequested.read(in);
+                case SCHEDULE_CHANGED:
+                    return ScheduleChanged.read(in);
+                default:
+                    throw new IOException("Unknown journal record type: " + type);
+            }
+        }
+    }
+
+    // ---- record types ----
+
+    // what a replay has learned about the snapshot it runs on
+    static class Replay {
+        // each lab's session count before its first replayed session
+        private final Map<Lab, Integer> loadedSessions = new IdentityHashMap<>();
+
+        int loadedSessions(Lab lab) {
+            return loadedSessions.computeIfAbsent(lab, Lab::sessionCount);
+        }
+    }
+
+    /**
+     * A single journaled mutation.
+     */
+    public abstract static class Entry {
+        abstract byte type();
+
+        abstract void write(DataOutputStream out) throws IOException;
+
+        abstract void apply(DataStore ds, Replay replay);
+    }
+
+    public static class LabCreated extends Entry {
+        private final Lab lab;
+
+        public LabCreated(Lab lab) {
+            this.lab = lab;
+        }
+
+        Lab getLab() {
+            return lab;
+        }
+
+        @Override
+        byte type() {
+            return LAB_CREATED;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, lab.getId());
+            writeString(out, lab.getName());
+            writeString(out, lab.getVenue() == null ? null : lab.getVenue().getBuilding());
+            writeString(out, lab.getVenue() == null ? null : lab.getVenue().getRoom());
+            writeTime(out, lab.getSchedule() == null ? null : lab.getSchedule().getExpectedStart());
+            writeTime(out, lab.getSchedule() == null ? null : lab.getSchedule().getExpectedEnd());
+            writeString(out, lab.getInstructor() == null ? null : lab.getInstructor().getId());
+            writeString(out, lab.getInstructor() == null ? null : lab.getInstructor().getName());
+            writeRecurrence(out, lab.getSchedule() == null ? null : lab.getSchedule().getRecurrence());
+            List<TA> tas = lab.getTas();
+            out.writeInt(tas.size());
+            for (TA ta : tas) {
+                writeString(out, ta.getId());
+                writeString(out, ta.getName());
+            }
+        }
+
+        static LabCreated read(DataInputStream in) throws IOException {
+            Lab lab = new Lab(readString(in), readString(in));
+            String building = readString(in);
+            String room = readString(in);
+            if (building != null || room != null)
+                lab.setVenue(new Venue(building, room));
+            LocalDateTime start = readTime(in);
+            LocalDateTime end = readTime(in);
+            if (start != null || end != null)
+                lab.setSchedule(new Schedule(start, end));
+            String instructorId = readString(in);
+            String instructorName = readString(in);
+            if (instructorId != null || instructorName != null)
+                lab.setInstructor(new Instructor(instructorId, instructorName));
+            Recurrence recurrence = readRecurrence(in);
+            if (recurrence != null)
+                lab.setSchedule(new Schedule(recurrence));
+            // absent in records from builds that did not journal the TAs
+            int taCount = in.available() > 0 ? in.readInt() : 0;
+            for (int i = 0; i < taCount; i++)
+                lab.addTA(new TA(readString(in), readString(in)));
+            return new LabCreated(lab);
+        }
+
+        @Override
+        void apply(DataStore ds, Replay replay) {
+            // a snapshot taken just after the lab was added may already hold it
+            if (ds.findLab(lab.getId()) == null)
+                ds.addLab(lab);
+        }
+    }
+
+    /**
+     * A session and the position it was appended at. A lab's log only grows and a snapshot
+     * copies a prefix of it, so a record whose position the snapshot already covers is
+     * skipped on replay, whatever order parallel appends reached the journal in.
+     */
+    public static class SessionAdded extends Entry {
+        private final String labId;
+        private final TimeSheet session;
+        // -1 if unknown; such records are always applied
+        private final int position;
+
+        public SessionAdded(String labId, TimeSheet session) {
+            this(labId, session, -1);
+        }
+
+        public SessionAdded(String labId, TimeSheet session, int position) {
+            this.labId = labId;
+            this.session = session;
+            this.position = position;
+        }
+
+        String getLabId() {
+            return labId;
+        }
+
+        TimeSheet getSession() {
+            return session;
+        }
+
+        @Override
+        byte type() {
+            return SESSION_ADDED;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, labId);
+            writeTime(out, session.getActualStart());
+            writeTime(out, session.getActualEnd());
+            out.writeInt(position);
+        }
+
+        static SessionAdded read(DataInputStream in) throws IOException {
+            String labId = readString(in);
+            TimeSheet session = new TimeSheet(readTime(in), readTime(in));
+            // absent in records from builds that did not journal positions
+            int position = in.available() > 0 ? in.readInt() : -1;
+            return new SessionAdded(labId, session, position);
+        }
+
+        @Override
+        void apply(DataStore ds, Replay replay) {
+            Lab lab = ds.findLab(labId);
+            if (lab == null)
+                return;
+            if (position >= 0 && position < replay.loadedSessions(lab))
+                return; // published into the snapshot before this record was journaled
+            ds.addSession(lab, session);
+        }
+    }
+
+    public static class StaffAssigned extends Entry {
+        private final String labId;
+        private final String name;
+        private final boolean instructor;
+
+        public StaffAssigned(String labId, String name, boolean instructor) {
+            this.labId = labId;
+            this.name = name;
+            this.instructor = instructor;
+        }
+
+        String getLabId() {
+            return labId;
+        }
+
+        @Override
+        byte type() {
+            return STAFF_ASSIGNED;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, labId);
+            writeString(out, name);
+            out.writeBoolean(instructor);
+        }
+
+        static StaffAssigned read(DataInputStream in) throws IOException {
+            return new StaffAssigned(readString(in), readString(in), in.readBoolean());
+        }
+
+        @Override
+        void apply(DataStore ds, Replay replay) {
+            // older journals may hold assignments with a blank name, which no longer resolve
+            if (name == null || name.trim().isEmpty())
+                return;
+            AcademicOfficer officer = new AcademicOfficer(ds);
+            if (instructor)
+                officer.assignInstructor(labId, name);
+            else
+                officer.assignTA(labId, name);
+        }
+    }
+
+    public static class MakeupRequested extends Entry {
+        private final MakeupLabRequest request;
+
+        public MakeupRequested(MakeupLabRequest request) {
+            this.request = request;
+        }
+
+        MakeupLabRequest getRequest() {
+            return request;
+        }
+
+        @Override
+        byte type() {
+            return MAKEUP_REQUESTED;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            Schedule s = request.getSchedule();
+            writeString(out, request.getId());
+            writeString(out, request.getLabId());
+            writeString(out, request.getRequestedByInstructorId());
+            writeTime(out, s == null ? null : s.getExpectedStart());
+            writeTime(out, s == null ? null : s.getExpectedEnd());
+            out.writeBoolean(request.isApproved());
+            writeTime(out, request.getRequestedAt());
+        }
+
+        static MakeupRequested read(DataInputStream in) throws IOException {
+            String id = readString(in);
+            String labId = readString(in);
+            String instructorId = readString(in);
+            Schedule schedule = new Schedule(readTime(in), readTime(in));
+            boolean approved = in.readBoolean();
+            LocalDateTime requestedAt = readTime(in);
+            return new MakeupRequested(
+                    new MakeupLabRequest(id, labId, instructorId, schedule, approved, requestedAt));
+        }
+
+        @Override
+        void apply(DataStore ds, Replay replay) {
+            for (MakeupLabRequest r : ds.getRequests()) {
+                if (r.getId() != null && r.getId().equals(request.getId()))
+                    return;
+            }
+            ds.getRequests().add(request);
+        }
+    }
+
+    public static class ScheduleChanged extends Entry {
+        private final String labId;
+        private final Schedule schedule;
+
+        public ScheduleChanged(String labId, Schedule schedule) {
+            this.labId = labId;
+            this.schedule = schedule;
+        }
+
+        String getLabId() {
+            return labId;
+        }
+
+        @Override
+        byte type() {
+            return SCHEDULE_CHANGED;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, labId);
+            writeTime(out, schedule.getExpectedStart());
+            writeTime(out, schedule.getExpectedEnd());
+            writeRecurrence(out, schedule.getRecurrence());
+        }
+
+        static ScheduleChanged read(DataInputStream in) throws IOException {
+            String labId = readString(in);
+            Schedule schedule = new Schedule(readTime(in), readTime(in));
+            Recurrence recurrence = readRecurrence(in);
+            if (recurrence != null)
+                schedule.setRecurrence(recurrence);
+            return new ScheduleChanged(labId, schedule);
+        }
+
+        @Override
+        void apply(DataStore ds, Replay replay) {
+            new AcademicOfficer(ds).setSchedule(labId, schedule);
+        }
+    }
+
+    // ---- field helpers ----
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null)
+            out.writeUTF(s);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime t) throws IOException {
+        out.writeLong(t == null ? NO_TIME : t.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static void writeRecurrence(DataOutputStream out, Recurrence r) throws IOException {
+        out.writeBoolean(r != null);
+        if (r == null)
+            return;
+        out.writeByte(r.getDay().getValue());
+        out.writeInt(r.getStartTime().toSecondOfDay());
+        out.writeInt((int) r.getLength().toMinutes());
+        out.writeLong(r.getFirstDate().toEpochDay());
+        out.writeLong(r.getLastDate().toEpochDay());
+        List<LocalDate> exceptions = r.getExceptions();
+        out.writeInt(exceptions.size());
+        for (LocalDate d : exceptions)
+            out.writeLong(d.toEpochDay());
+    }
+
+    // absent in records from builds without weekly schedules
+    private static Recurrence readRecurrence(DataInputStream in) throws IOException {
+        if (in.available() <= 0 || !in.readBoolean())
+            return null;
+        DayOfWeek day = DayOfWeek.of(in.readByte());
+        LocalTime startTime = LocalTime.ofSecondOfDay(in.readInt());
+        Duration length = Duration.ofMinutes(in.readInt());
+        LocalDate first = LocalDate.ofEpochDay(in.readLong());
+        LocalDate last = LocalDate.ofEpochDay(in.readLong());
+        int count = in.readInt();
+        List<LocalDate> exceptions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            exceptions.add(LocalDate.ofEpochDay(in.readLong()));
+        return new Recurrence(day, startTime, length, first, last, exceptions);
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LabLocks hands out a lock per lab from a fixed set of stripes.
+ * Single Responsibility: Let changes to different labs run in parallel without a lock object per lab.
+ *
+ * A lab's stripe is picked from its id, so a lab always gets the same lock and two labs
+ * share one only when their ids hash alike. The stripes are ReentrantLocks, so a virtual
+ * thread waiting for one does not hold on to its carrier thread.
+ */
+public class LabLocks {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public LabLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    // the count is rounded up to a power of two
+    public LabLocks(int stripeCount) {
+        int n = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++)
+            stripes[i] = new ReentrantLock();
+        mask = n - 1;
+    }
+
+    public Lock of(Lab lab) {
+        return of(lab.getId());
+    }
+
+    public Lock of(String labId) {
+        int h = labId == null ? 0 : labId.hashCode();
+        // mix the high bits in, ids often differ only in their last characters
+        h ^= h >>> 16;
+        return stripes[h & mask];
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+}
@@ -3,30 +3,158 @@ package org.example;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
 // class to handle saving and loading data
 public class LabRepository {
+    // compact the journal into a new snapshot once it grows past this size
+    private static final long COMPACT_THRESHOLD_BYTES = 1024 * 1024;
+
     private Path storagePath;
+    private LabJournal journal;
+    // told about problems load and compaction got past; DataService hands them to AutoSaver
+    private volatile Consumer<IOException> problemHandler = ex -> { };
 
     // constructor
     public LabRepository(Path storagePath) {
+        this(storagePath, false);
+    }
+
+    // constructor with journaling; changes are appended to <file>.journal between snapshots
+    public LabRepository(Path storagePath, boolean journaled) {
         this.storagePath = storagePath;
+        if (journaled) {
+            this.journal = new LabJournal(storagePath.resolveSibling(storagePath.getFileName() + ".journal"));
+        }
+    }
+
+    /**
+     * Called with problems that did not stop a load or save: a snapshot read from its backup,
+     * a failed compaction. Repositories used on their own ignore them.
+     */
+    public void setProblemHandler(Consumer<IOException> problemHandler) {
+        this.problemHandler = problemHandler;
+    }
+
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    public Path getStoragePath() {
+        return storagePath;
+    }
+
+    // true if there is a snapshot, its backup or a journal to load; otherwise load() starts empty
+    public boolean exists() {
+        return Files.exists(storagePath) || Files.exists(AtomicFile.backupOf(storagePath))
+                || (journal != null && Files.exists(journal.getPath()));
+    }
+
+    // bytes of changes recorded since the last snapshot
+    public long journalSize() throws IOException {
+        return journal == null ? 0 : journal.size();
+    }
+
+    // identifies the current on-disk state (modification time and size of snapshot and journal)
+    public String fingerprint() {
+        String fp = fileStamp(storagePath);
+        if (journal != null)
+            fp += "|" + fileStamp(journal.getPath());
+        return fp;
     }
 
-    // save data to file
-    public void save(DataStore ds) throws IOException {
-        Files.createDirectories(storagePath.getParent());
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(storagePath.toFile()))) {
-            oos.writeObject(ds);
+    private static String fileStamp(Path p) {
+        try {
+            if (!Files.exists(p))
+                return "-";
+            return Files.getLastModifiedTime(p).toMillis() + ":" + Files.size(p);
+        } catch (IOException e) {
+            return "?";
         }
     }
 
-    // load data from file
+    // save data to file: temp file, fsync, then rename over the old snapshot (kept as .bak).
+    // Saves are serialized; DataService writes under its I/O lock and AutoSaver coalesces a
+    // burst of changes into one save or journal batch, so there is nothing to group here
+    public synchronized void save(DataStore ds) throws IOException {
+        long generation = journal == null ? 0 : journal.getGeneration() + 1;
+        AtomicFile.write(storagePath, out -> DataStoreCodec.write(ds, generation, out));
+        // the snapshot now contains everything the journal recorded; should we crash before
+        // the old journal is gone, load() sees it is from an earlier generation and skips it
+        if (journal != null)
+            journal.startGeneration(generation);
+    }
+
+    // record a single change; journaled repositories append it, others rewrite the snapshot
+    public void record(DataStore ds, LabJournal.Entry entry) throws IOException {
+        recordAll(ds, Collections.singletonList(entry));
+    }
+
+    // record a batch of changes with one write; throws only if the changes were not written
+    public void recordAll(DataStore ds, List<LabJournal.Entry> entries) throws IOException {
+        if (journal == null) {
+            save(ds);
+            return;
+        }
+        journal.appendAll(entries);
+        try {
+            if (journal.size() > COMPACT_THRESHOLD_BYTES)
+                save(ds);
+        } catch (IOException ex) {
+            // the entries are journaled, so the caller must not write them again;
+            // the journal stays and the next batch retries the compaction
+            problemHandler.accept(new IOException("Could not compact " + journal.getPath()
+                    + ", the changes stay in the journal: " + ex.getMessage(), ex));
+        }
+    }
+
+    // load data from file, falling back to the previous generation if the latest is unreadable
     public DataStore load() throws IOException, ClassNotFoundException {
-        if (!Files.exists(storagePath))
-            return new DataStore();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(storagePath.toFile()))) {
-            return (DataStore) ois.readObject();
+        DataStore ds;
+        Path backup = AtomicFile.backupOf(storagePath);
+        if (Files.exists(storagePath)) {
+            try {
+                ds = readSnapshot(storagePath);
+            } catch (IOException | ClassNotFoundException | RuntimeException ex) {
+                if (!Files.exists(backup))
+                    throw ex;
+                ds = readSnapshot(backup);
+                String reason = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+                problemHandler.accept(new IOException("Could not read " + storagePath + " (" + reason
+                        + "), loaded the previous save from " + backup, ex));
+            }
+        } else if (Files.exists(backup)) {
+            // only the previous generation is left, e.g. the snapshot was deleted by hand
+            ds = readSnapshot(backup);
+            problemHandler.accept(new IOException(storagePath + " is missing, loaded the previous save from " + backup));
+        } else {
+            ds = new DataStore();
+        }
+        if (journal != null)
+            journal.replay(ds);
+        return ds;
+    }
+
+    // move unreadable files aside so they are not overwritten with defaults
+    public void quarantine() throws IOException {
+        String suffix = ".corrupt-" + System.currentTimeMillis();
+        if (Files.exists(storagePath))
+            Files.move(storagePath, storagePath.resolveSibling(storagePath.getFileName() + suffix));
+        if (journal != null && Files.exists(journal.getPath())) {
+            Files.copy(journal.getPath(), journal.getPath().resolveSibling(journal.getPath().getFileName() + suffix));
+            journal.clear();
+        }
+    }
+
+    private static DataStore readSnapshot(Path file) throws IOException, ClassNotFoundException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file.toFile()))) {
+            if (DataStoreCodec.isBinaryFormat(in)) {
+                return DataStoreCodec.read(in);
+            }
+            // legacy file written with java.io serialization; rewritten in binary format on next save
+            return (DataStore) new ObjectInputStream(in).readObject();
         }
     }
 }
@@ -0,0 +1,98 @@
+package org.example;
+
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * LabRow is the labs table's view of one Lab.
+ * Single Responsibility: Format a lab's columns once and keep them until the lab changes.
+ *
+ * Cell value factories hand out these properties instead of allocating a new property and
+ * string on every repaint. invalidate() re-formats the row; only columns whose text actually
+ * changed notify their cells.
+ */
+public class LabRow {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final Lab lab;
+    private final ReadOnlyStringWrapper id = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper name = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper venue = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper schedule = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper instructor = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper tas = new ReadOnlyStringWrapper();
+
+    public LabRow(Lab lab) {
+        this.lab = lab;
+        invalidate();
+    }
+
+    public Lab getLab() {
+        return lab;
+    }
+
+    // re-format after the lab's venue, schedule or staff changed
+    public void invalidate() {
+        // a property ignores a set to an equal string, so unchanged cells are not redrawn
+        id.set(lab.getId() == null ? "" : lab.getId());
+        name.set(lab.getName() == null ? "" : lab.getName());
+        venue.set(lab.getVenue() == null ? "N/A" : lab.getVenue().toString());
+        schedule.set(formatSchedule(lab.getSchedule()));
+        instructor.set(lab.getInstructor() == null ? "Unassigned" : lab.getInstructor().getName());
+        tas.set(formatTas(lab));
+    }
+
+    public ReadOnlyStringProperty idProperty() {
+        return id.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty nameProperty() {
+        return name.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty venueProperty() {
+        return venue.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty scheduleProperty() {
+        return schedule.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty instructorProperty() {
+        return instructor.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty tasProperty() {
+        return tas.getReadOnlyProperty();
+    }
+
+    private static String formatSchedule(Schedule s) {
+        if (s == null)
+            return "(Not Set)";
+        if (s.isRecurring())
+            return s.getRecurrence().toString();
+        if (s.getExpectedStart() == null)
+            return "(Not Set)";
+        String start = TIME.format(s.getExpectedStart());
+        if (s.getExpectedEnd() == null)
+            return start;
+        if (s.getExpectedEnd().toLocalDate().equals(s.getExpectedStart().toLocalDate()))
+            return start + " - " + s.getExpectedEnd().toLocalTime();
+        return start + " - " + TIME.format(s.getExpectedEnd());
+    }
+
+    private static String formatTas(Lab lab) {
+        if (lab.getTas().isEmpty())
+            return "None";
+        StringBuilder sb = new StringBuilder();
+        for (TA ta : lab.getTas()) {
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(ta.getName());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,715 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * LabServer serves one shared DataStore to many clients over a small JSON API.
+ * Single Responsibility: Turn HTTP requests into the same lab operations the dashboards run.
+ *
+ * Every request runs on its own virtual thread. Lookups and timesheet entries share the
+ * store lock, so sessions for different labs are recorded in parallel, each lab behind its
+ * own stripe (see DataStore.addSession); a timesheet entry holds no other lock and does not
+ * publish. Adding labs, staff, schedules and requests takes the lock exclusively and
+ * publishes the store. Sessions are published by the next lookup that needs them, or by
+ * the AutoSaver before it writes. Lookup responses are written from published lab copies
+ * after the lock is gone.
+ * Users authenticate with HTTP Basic credentials from the user directory and see the labs
+ * their role sees on the desktop. Basic credentials are only encoded, so the server listens
+ * on the loopback interface unless given another address; expose it through a TLS proxy.
+ *
+ * The desktop uses it as a remote store (see LabClient): it downloads the labs the user may
+ * see in the data file format and sends its changes back as journal records.
+ *
+ * <pre>
+ * GET  /api/me                                 the caller's account
+ * GET  /api/store                              the caller's labs and requests, DataStoreCodec format
+ * POST /api/journal                            LabJournal records from a desktop, applied in order
+ * GET  /api/labs[?mode=ALL|ACTIVE_NOW|TODAY]   labs for the caller
+ * GET  /api/labs/{id}                          one lab with its sessions
+ * POST /api/labs                               {id, name, building, room, start, end}
+ * PUT  /api/labs/{id}/instructor               {name}
+ * POST /api/labs/{id}/tas                      {name}
+ * PUT  /api/labs/{id}/schedule                 {start, end}
+ * POST /api/labs/{id}/sessions                 {start, end}; both null records a leave
+ * GET  /api/requests                           makeup requests for the caller's labs
+ * POST /api/requests                           {labId, start, end}
+ * </pre>
+ *
+ * Times are ISO date-times ("2025-09-01T09:00" or "2025-09-01 09:00"). Changes that would
+ * double-book a room or a person are refused with 409 and the conflicts, unless the request
+ * adds ?force=true, the same choice the desktop asks for. Journal records are not checked
+ * for clashes, since the desktop already asked its user about them.
+ */
+public class LabServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    // room for a burst of connections from hundreds of clients
+    private static final int BACKLOG = 1024;
+
+    private final DataService dataService;
+    private final UserDirectory users;
+    private final DataStore store;
+    private final AcademicOfficer academicOfficer;
+    // shared for lookups and session appends, exclusive for every other change; not a monitor,
+    // so waiting virtual threads do not pin their carrier
+    private final ReentrantReadWriteLock storeLock = new ReentrantReadWriteLock();
+    private long lastRequestMillis;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public LabServer(DataService dataService, UserDirectory users) {
+        this.dataService = dataService;
+        this.users = users;
+        storeLock.writeLock().lock();
+        try {
+            this.store = dataService.getDataStore();
+            store.ensureIndexed();
+            store.publish();
+            this.academicOfficer = new AcademicOfficer(store);
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+        dataService.getAutoSaver().setPublisher(this::publishShared);
+    }
+
+    /**
+     * Starts listening on the loopback interface; port 0 picks a free port, see getPort().
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Starts listening on the given address, e.g. 0.0.0.0 for every interface.
+     */
+    public synchronized void start(InetAddress address, int port) throws IOException {
+        if (server != null)
+            throw new IllegalStateException("Server already started");
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(address, port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+    }
+
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, lets running ones finish briefly and writes pending changes.
+     */
+    public synchronized void stop() {
+        if (server == null)
+            return;
+        server.stop(1);
+        executor.shutdown();
+        server = null;
+        dataService.getAutoSaver().flush();
+    }
+
+    // args: [port [bind-address]]; the address defaults to loopback
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        InetAddress address = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+        DataService dataService = DataService.getInstance();
+        dataService.getAutoSaver().setErrorHandler(ex -> System.err.println(ex.getMessage()));
+        LabServer labServer = new LabServer(dataService, UserDirectory.getInstance());
+        labServer.start(address, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(labServer::stop, "server-shutdown"));
+        System.out.println("Labs server listening on " + address.getHostAddress() + ":" + labServer.getPort());
+        if (!address.isLoopbackAddress())
+            System.out.println("Passwords are sent in plain HTTP; serve it to other machines through a TLS proxy");
+    }
+
+    // ---- routing ----
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            User user = authenticate(ex);
+            String method = ex.getRequestMethod();
+            String[] path = pathOf(ex);
+            Map<String, String> query = queryOf(ex);
+            boolean force = Boolean.parseBoolean(query.get("force"));
+            Object result;
+            int status = 200;
+
+            if (path.length == 1 && path[0].equals("me") && method.equals("GET")) {
+                result = userJson(user);
+            } else if (path.length == 1 && path[0].equals("store") && method.equals("GET")) {
+                sendBytes(ex, storeFor(user));
+                return;
+            } else if (path.length == 1 && path[0].equals("journal") && method.equals("POST")) {
+                result = applyJournal(user, ex);
+            } else if (path.length == 1 && path[0].equals("labs") && method.equals("GET")) {
+                result = listLabs(user, query.get("mode"));
+            } else if (path.length == 1 && path[0].equals("labs") && method.equals("POST")) {
+                result = createLab(user, body(ex), force);
+                status = 201;
+            } else if (path.length == 2 && path[0].equals("labs") && method.equals("GET")) {
+                result = getLab(user, path[1]);
+            } else if (path.length == 3 && path[0].equals("labs") && path[2].equals("instructor")
+                    && (method.equals("PUT") || method.equals("POST"))) {
+                result = assignStaff(user, path[1], body(ex), true, force);
+            } else if (path.length == 3 && path[0].equals("labs") && path[2].equals("tas") && method.equals("POST")) {
+                result = assignStaff(user, path[1], body(ex), false, force);
+            } else if (path.length == 3 && path[0].equals("labs") && path[2].equals("schedule") && method.equals("PUT")) {
+                result = setSchedule(user, path[1], body(ex), force);
+            } else if (path.length == 3 && path[0].equals("labs") && path[2].equals("sessions") && method.equals("POST")) {
+                result = addSession(user, path[1], body(ex));
+                status = 201;
+            } else if (path.length == 1 && path[0].equals("requests") && method.equals("GET")) {
+                result = listRequests(user);
+            } else if (path.length == 1 && path[0].equals("requests") && method.equals("POST")) {
+                result = requestMakeup(user, body(ex));
+                status = 201;
+            } else {
+                throw new ApiException(404, "No such endpoint: " + method + " " + ex.getRequestURI().getPath());
+            }
+            send(ex, status, result);
+        } catch (ApiException e) {
+            if (e.status == 401)
+                ex.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"labs\"");
+            send(ex, e.status, e.body());
+        } catch (IllegalArgumentException e) {
+            send(ex, 400, error(e.getMessage()));
+        } catch (Exception e) {
+            send(ex, 500, error("Server error: " + e.getMessage()));
+        } finally {
+            ex.close();
+        }
+    }
+
+    // ---- reads ----
+
+    private List<Object> listLabs(User user, String modeName) {
+        LabViewMode mode = modeOf(modeName);
+        List<Object> out = new ArrayList<>();
+        for (Lab lab : labsFor(user, mode))
+            out.add(labJson(lab, false));
+        return out;
+    }
+
+    private Map<String, Object> getLab(User user, String labId) {
+        Lab lab;
+        storeLock.readLock().lock();
+        try {
+            publishIfChanged();
+            lab = published(visibleLab(user, labId));
+        } finally {
+            storeLock.readLock().unlock();
+        }
+        return labJson(lab, true);
+    }
+
+    private List<Object> listRequests(User user) {
+        List<MakeupLabRequest> visible = new ArrayList<>();
+        storeLock.readLock().lock();
+        try {
+            Collection<Lab> scope = store.getLabsForUser(user);
+            for (MakeupLabRequest r : store.getRequests()) {
+                Lab lab = store.findLab(r.getLabId());
+                if (lab != null && (scope == store.getLabs() || scope.contains(lab)))
+                    visible.add(r.published != null ? r.published : r);
+            }
+        } finally {
+            storeLock.readLock().unlock();
+        }
+        List<Object> out = new ArrayList<>();
+        for (MakeupLabRequest r : visible)
+            out.add(requestJson(r));
+        return out;
+    }
+
+    // the published version, or the caller's labs and their requests, encoded after the lock is gone
+    private byte[] storeFor(User user) throws IOException {
+        DataStore version = null;
+        List<Lab> labs = null;
+        List<MakeupLabRequest> requests = new ArrayList<>();
+        storeLock.readLock().lock();
+        try {
+            publishIfChanged();
+            Collection<Lab> scope = store.getLabsForUser(user);
+            if (scope == store.getLabs()) {
+                version = store.snapshot();
+            } else {
+                labs = new ArrayList<>(scope);
+                labs.replaceAll(LabServer::published);
+                for (MakeupLabRequest r : store.getRequests()) {
+                    Lab lab = store.findLab(r.getLabId());
+                    if (lab != null && scope.contains(lab))
+                        requests.add(r.published != null ? r.published : r);
+                }
+            }
+        } finally {
+            storeLock.readLock().unlock();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (version != null)
+            DataStoreCodec.write(version, out);
+        else
+            DataStoreCodec.write(labs, requests, out);
+        return out.toByteArray();
+    }
+
+    // the caller's labs as published copies; only the index lookups happen under the lock
+    private List<Lab> labsFor(User user, LabViewMode mode) {
+        storeLock.readLock().lock();
+        try {
+            publishIfChanged();
+            List<Lab> result = store.getLabsForUser(user, mode);
+            result.replaceAll(LabServer::published);
+            return result;
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    // ---- changes ----
+
+    private Map<String, Object> createLab(User user, Map<String, Object> body, boolean force) {
+        requireRole(user, User.Role.ACADEMIC_OFFICER);
+        String id = required(body, "id");
+        String name = required(body, "name");
+        Lab lab = new Lab(id, name);
+        String building = optional(body, "building");
+        String room = optional(body, "room");
+        if (building != null || room != null)
+            lab.setVenue(new Venue(building, room));
+        LocalDateTime start = time(body, "start");
+        LocalDateTime end = time(body, "end");
+        if (start != null || end != null)
+            lab.setSchedule(new Schedule(start, end));
+        storeLock.writeLock().lock();
+        try {
+            if (store.findLab(id) != null)
+                throw new ApiException(409, "Lab " + id + " already exists");
+            checkConflicts(academicOfficer.checkNewLab(lab), force);
+            store.addLab(lab);
+            store.publish();
+            // the journal gets the published copy, which later edits cannot change
+            record(new LabJournal.LabCreated(lab.published));
+            return labJson(lab.published, false);
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, Object> assignStaff(User user, String labId, Map<String, Object> body,
+                                            boolean instructor, boolean force) {
+        requireRole(user, User.Role.ACADEMIC_OFFICER);
+        String name = required(body, "name");
+        storeLock.writeLock().lock();
+        try {
+            Lab lab = existingLab(labId);
+            checkConflicts(academicOfficer.checkStaff(lab.getId(), name), force);
+            if (instructor)
+                academicOfficer.assignInstructor(lab.getId(), name);
+            else
+                academicOfficer.assignTA(lab.getId(), name);
+            record(new LabJournal.StaffAssigned(lab.getId(), name, instructor));
+            return labJson(published(lab), false);
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, Object> setSchedule(User user, String labId, Map<String, Object> body, boolean force) {
+        requireRole(user, User.Role.ACADEMIC_OFFICER);
+        Schedule schedule = new Schedule(time(body, "start"), time(body, "end"));
+        storeLock.writeLock().lock();
+        try {
+            Lab lab = existingLab(labId);
+            checkConflicts(academicOfficer.checkSchedule(lab.getId(), schedule), force);
+            academicOfficer.setSchedule(lab.getId(), schedule);
+            record(new LabJournal.ScheduleChanged(lab.getId(), schedule));
+            return labJson(published(lab), false);
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, Object> addSession(User user, String labId, Map<String, Object> body) {
+        requireRole(user, User.Role.ATTENDANT);
+        TimeSheet ts = new TimeSheet(time(body, "start"), time(body, "end"));
+        storeLock.readLock().lock();
+        try {
+            Lab lab = visibleLab(user, labId);
+            Lock labLock = store.getLabLocks().of(lab);
+            int position;
+            Map<String, Object> json;
+            labLock.lock();
+            try {
+                position = store.addSession(lab, ts);
+                // from the live lab: its other fields only change under the exclusive lock
+                json = labJson(lab, false);
+            } finally {
+                labLock.unlock();
+            }
+            dataService.getAutoSaver().queue(new LabJournal.SessionAdded(lab.getId(), ts, position));
+            return json;
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Object> requestMakeup(User user, Map<String, Object> body) {
+        requireRole(user, User.Role.INSTRUCTOR);
+        String labId = required(body, "labId");
+        Schedule schedule = new Schedule(time(body, "start"), time(body, "end"));
+        storeLock.writeLock().lock();
+        try {
+            Lab lab = visibleLab(user, labId);
+            // the desktop's "R-<millis>" ids, kept unique when requests arrive in the same millisecond
+            lastRequestMillis = Math.max(System.currentTimeMillis(), lastRequestMillis + 1);
+            MakeupLabRequest req = new MakeupLabRequest("R-" + lastRequestMillis, lab.getId(),
+                    lab.getInstructor() == null ? "" : lab.getInstructor().getId(), schedule);
+            store.getRequests().add(req);
+            record(new LabJournal.MakeupRequested(req));
+            return requestJson(req);
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A desktop's changes, applied in order with replay's rules: a lab or request that exists
+     * already is skipped. A session the lab holds with the same start and end is skipped as
+     * well, so a batch sent again after a lost reply adds nothing twice. Every record is
+     * checked against the caller's role before any is applied.
+     */
+    private Map<String, Object> applyJournal(User user, HttpExchange ex) throws IOException {
+        List<LabJournal.Entry> entries;
+        try (InputStream in = ex.getRequestBody()) {
+            entries = LabJournal.decode(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed journal records: " + e.getMessage());
+        }
+        storeLock.writeLock().lock();
+        try {
+            for (LabJournal.Entry entry : entries)
+                authorize(user, entry);
+            LabJournal.Replay replay = new LabJournal.Replay();
+            for (LabJournal.Entry entry : entries) {
+                if (entry instanceof LabJournal.SessionAdded) {
+                    LabJournal.SessionAdded session = (LabJournal.SessionAdded) entry;
+                    Lab lab = store.findLab(session.getLabId());
+                    if (lab == null || holds(lab, session.getSession()))
+                        continue;
+                    int position = store.addSession(lab, session.getSession());
+                    dataService.getAutoSaver().queue(new LabJournal.SessionAdded(lab.getId(), session.getSession(), position));
+                } else if (entry instanceof LabJournal.LabCreated) {
+                    Lab lab = ((LabJournal.LabCreated) entry).getLab();
+                    if (store.findLab(lab.getId()) != null)
+                        continue;
+                    store.addLab(lab);
+                    store.publish();
+                    record(new LabJournal.LabCreated(lab.published));
+                } else {
+                    entry.apply(store, replay);
+                    record(entry);
+                }
+            }
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("received", entries.size());
+        return m;
+    }
+
+    // the same roles the matching endpoints require
+    private void authorize(User user, LabJournal.Entry entry) {
+        if (entry instanceof LabJournal.SessionAdded) {
+            requireRole(user, User.Role.ATTENDANT);
+            visibleLab(user, ((LabJournal.SessionAdded) entry).getLabId());
+        } else if (entry instanceof LabJournal.MakeupRequested) {
+            requireRole(user, User.Role.INSTRUCTOR);
+            visibleLab(user, ((LabJournal.MakeupRequested) entry).getRequest().getLabId());
+        } else {
+            requireRole(user, User.Role.ACADEMIC_OFFICER);
+        }
+    }
+
+    // whether the lab has a held session with exactly these times; leaves are never matched
+    private static boolean holds(Lab lab, TimeSheet ts) {
+        int start = SessionLog.toMinute(ts.getActualStart());
+        int end = SessionLog.toMinute(ts.getActualEnd());
+        if (start == SessionLog.NO_TIME || end == SessionLog.NO_TIME)
+            return false;
+        SessionLog log = lab.getSessionLog();
+        for (int i = log.size() - 1; i >= 0; i--) {
+            if (log.startMinute(i) == start && log.endMinute(i) == end)
+                return true;
+        }
+        return false;
+    }
+
+    // queues the change for the journal; the AutoSaver publishes the store while queuing it
+    private void record(LabJournal.Entry entry) {
+        dataService.getAutoSaver().record(entry);
+    }
+
+    // ---- helpers, called with the store lock held unless noted ----
+
+    private Lab existingLab(String labId) {
+        Lab lab = store.findLab(labId);
+        if (lab == null)
+            throw new ApiException(404, "No lab " + labId);
+        return lab;
+    }
+
+    // a lab the user may see, as 404 otherwise so ids outside their scope are not revealed
+    private Lab visibleLab(User user, String labId) {
+        Lab lab = existingLab(labId);
+        Collection<Lab> scope = store.getLabsForUser(user);
+        if (scope != store.getLabs() && !scope.contains(lab))
+            throw new ApiException(404, "No lab " + labId);
+        return lab;
+    }
+
+    // sessions appended since the last publish are published by the first lookup after them
+    private void publishIfChanged() {
+        if (store.hasUnpublishedChanges())
+            store.publish();
+    }
+
+    // the AutoSaver's version; under the shared lock no lab, staff or schedule change is half done
+    private DataStore publishShared() {
+        storeLock.readLock().lock();
+        try {
+            return store.publish();
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    // current after publishIfChanged() or any exclusive change
+    private static Lab published(Lab lab) {
+        return lab.published != null ? lab.published : lab;
+    }
+
+    private static void checkConflicts(List<ScheduleConflict> conflicts, boolean force) {
+        if (conflicts.isEmpty() || force)
+            return;
+        List<Object> listed = new ArrayList<>();
+        for (ScheduleConflict c : conflicts)
+            listed.add(c.toString());
+        ApiException e = new ApiException(409, conflicts.size() + " schedule conflict(s); add ?force=true to save anyway");
+        e.conflicts = listed;
+        throw e;
+    }
+
+    private static void requireRole(User user, User.Role role) {
+        if (user.getRole() != role)
+            throw new ApiException(403, role.getDisplayName() + " only");
+    }
+
+    // no lock needed
+    private User authenticate(HttpExchange ex) throws IOException, ClassNotFoundException {
+        String header = ex.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6))
+            throw new ApiException(401, "Login required");
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(401, "Login required");
+        }
+        int colon = credentials.indexOf(':');
+        User user = colon < 0 ? null : users.authenticate(credentials.substring(0, colon), credentials.substring(colon + 1));
+        if (user == null)
+            throw new ApiException(401, "Invalid username or password");
+        return user;
+    }
+
+    private static LabViewMode modeOf(String name) {
+        if (name == null || name.isEmpty())
+            return LabViewMode.ALL;
+        try {
+            return LabViewMode.valueOf(name.trim().toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown mode '" + name + "'");
+        }
+    }
+
+    // ---- JSON ----
+
+    private static Map<String, Object> labJson(Lab lab, boolean withSessions) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", lab.getId());
+        m.put("name", lab.getName());
+        m.put("building", lab.getVenue() == null ? null : lab.getVenue().getBuilding());
+        m.put("room", lab.getVenue() == null ? null : lab.getVenue().getRoom());
+        Schedule s = lab.getSchedule();
+        m.put("start", s == null ? null : s.getExpectedStart());
+        m.put("end", s == null ? null : s.getExpectedEnd());
+        m.put("recurrence", s == null || s.getRecurrence() == null ? null : s.getRecurrence().toString());
+        m.put("instructor", lab.getInstructor() == null ? null : lab.getInstructor().getName());
+        List<Object> tas = new ArrayList<>();
+        for (TA ta : lab.getTas())
+            tas.add(ta.getName());
+        m.put("tas", tas);
+        m.put("sessionCount", lab.sessionCount());
+        m.put("leaves", lab.leavesCount());
+        m.put("contactHours", lab.totalContactHours());
+        if (withSessions) {
+            List<Object> sessions = new ArrayList<>();
+            SessionLog log = lab.getSessionLog();
+            for (int i = 0; i < log.size(); i++) {
+                Map<String, Object> ts = new LinkedHashMap<>();
+                ts.put("start", SessionLog.toTime(log.startMinute(i)));
+                ts.put("end", SessionLog.toTime(log.endMinute(i)));
+                sessions.add(ts);
+            }
+            m.put("sessions", sessions);
+        }
+        return m;
+    }
+
+    private static Map<String, Object> userJson(User user) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", user.getId());
+        m.put("username", user.getUsername());
+        m.put("name", user.getName());
+        m.put("role", user.getRole().name());
+        m.put("building", user.getBuilding());
+        return m;
+    }
+
+    private static Map<String, Object> requestJson(MakeupLabRequest r) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", r.getId());
+        m.put("labId", r.getLabId());
+        m.put("instructorId", r.getRequestedByInstructorId());
+        m.put("start", r.getSchedule() == null ? null : r.getSchedule().getExpectedStart());
+        m.put("end", r.getSchedule() == null ? null : r.getSchedule().getExpectedEnd());
+        m.put("approved", r.isApproved());
+        m.put("requestedAt", r.getRequestedAt());
+        return m;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("error", message);
+        return m;
+    }
+
+    private static Map<String, Object> body(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            if (text.isBlank())
+                throw new IllegalArgumentException("A JSON body is required");
+            return Json.parseObject(text);
+        }
+    }
+
+    private static String optional(Map<String, Object> body, String field) {
+        Object v = body.get(field);
+        if (v == null)
+            return null;
+        String s = v.toString().trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    private static String required(Map<String, Object> body, String field) {
+        String v = optional(body, field);
+        if (v == null)
+            throw new IllegalArgumentException("Missing " + field);
+        return v;
+    }
+
+    private static LocalDateTime time(Map<String, Object> body, String field) {
+        String v = optional(body, field);
+        if (v == null)
+            return null;
+        try {
+            return LocalDateTime.parse(v.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Bad " + field + " time '" + v + "'");
+        }
+    }
+
+    // path segments after /api/, decoded
+    private static String[] pathOf(HttpExchange ex) {
+        String path = ex.getRequestURI().getRawPath().substring("/api/".length());
+        if (path.endsWith("/"))
+            path = path.substring(0, path.length() - 1);
+        String[] parts = path.split("/", -1);
+        for (int i = 0; i < parts.length; i++)
+            parts[i] = URLDecoder.decode(parts[i], StandardCharsets.UTF_8);
+        return parts;
+    }
+
+    private static Map<String, String> queryOf(HttpExchange ex) {
+        Map<String, String> query = new LinkedHashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null)
+            return query;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "true" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(key, value);
+        }
+        return query;
+    }
+
+    private static void sendBytes(HttpExchange ex, byte[] bytes) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        ex.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // an HTTP error with its status and message
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+        List<Object> conflicts;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        Map<String, Object> body() {
+            Map<String, Object> m = error(getMessage());
+            if (conflicts != null)
+                m.put("conflicts", conflicts);
+            return m;
+        }
+    }
+}
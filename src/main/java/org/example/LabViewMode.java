@@ -0,0 +1,42 @@
+package org.example;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * LabViewMode narrows a user's labs to those running at a given time.
+ * Single Responsibility: Say which labs "all", "active now" and "today" mean.
+ *
+ * The modes are shared by the dashboards, the server and any other view; none of them
+ * needs JavaFX. A whole store is searched through its schedule index, a single lab is
+ * checked against its schedule and sessions directly.
+ */
+public enum LabViewMode {
+    ALL, ACTIVE_NOW, TODAY;
+
+    /**
+     * The store's labs this mode admits at the given time, or null for ALL (no limit).
+     */
+    public Set<Lab> labsAt(DataStore ds, LocalDateTime now) {
+        switch (this) {
+            case ACTIVE_NOW:
+                return ds.getLabsActiveAt(now);
+            case TODAY:
+                return ds.getLabsOn(now.toLocalDate());
+            default:
+                return null;
+        }
+    }
+
+    // whether one lab belongs in this mode at the given time
+    public boolean includes(Lab lab, LocalDateTime now) {
+        switch (this) {
+            case ACTIVE_NOW:
+                return ScheduleIndex.activeAt(lab, now);
+            case TODAY:
+                return ScheduleIndex.startsOn(lab, now.toLocalDate());
+            default:
+                return true;
+        }
+    }
+}
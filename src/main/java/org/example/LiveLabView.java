@@ -0,0 +1,114 @@
+package org.example;
+
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * LiveLabView is one user's filtered and sorted view of the shared lab list.
+ * Single Responsibility: Decide which labs a dashboard table shows.
+ *
+ * The table is bound to a SortedList over a FilteredList over UIController's master list,
+ * so adding or updating one lab there changes one row here instead of replacing the items.
+ * "Now" and "today" are fixed when the mode is chosen; the labs running then come from the
+ * schedule index once, and labs that change afterwards are re-checked one at a time.
+ */
+public class LiveLabView {
+
+    private final DataService dataService;
+    private final Predicate<Lab> scope;
+    private final FilteredList<Lab> filtered;
+    private final SortedList<Lab> sorted;
+    private LabViewMode mode = LabViewMode.ALL;
+    private LocalDateTime now;
+    // labs running at the chosen time, for ACTIVE_NOW and TODAY
+    private Set<Lab> matches = Collections.emptySet();
+
+    LiveLabView(ObservableList<Lab> master, DataService dataService, Predicate<Lab> scope) {
+        this.dataService = dataService;
+        this.scope = scope;
+        this.filtered = new FilteredList<>(master, scope);
+        this.sorted = new SortedList<>(filtered);
+    }
+
+    // the rows to hand to TableView.setItems
+    public SortedList<Lab> getItems() {
+        return sorted;
+    }
+
+    public LabViewMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Switches mode and re-filters the master list once; choosing the same mode again
+     * moves "now" forward.
+     */
+    public void setMode(LabViewMode mode) {
+        this.mode = mode == null ? LabViewMode.ALL : mode;
+        refresh();
+    }
+
+    // re-runs the filter, e.g. after the store was reloaded
+    void refresh() {
+        now = LocalDateTime.now();
+        Set<Lab> running = mode.labsAt(dataService.getDataStore(), now);
+        matches = running == null ? Collections.emptySet() : running;
+        if (running == null) {
+            filtered.setPredicate(scope);
+        } else {
+            filtered.setPredicate(lab -> running.contains(lab) && scope.test(lab));
+        }
+    }
+
+    /**
+     * Re-checks one lab against the chosen time. Called before the master list reports the
+     * lab as added or updated, so the filter sees the new answer.
+     */
+    void labChanged(Lab lab) {
+        if (mode == LabViewMode.ALL)
+            return;
+        if (mode.includes(lab, now))
+            matches.add(lab);
+        else
+            matches.remove(lab);
+    }
+
+    // role-based scoping, the same rules as the DataStore's lookups
+    static Predicate<Lab> scopeOf(User user) {
+        switch (user.getRole()) {
+            case ACADEMIC_OFFICER:
+            case HOD:
+                // HOD sees all labs for now
+                return lab -> true;
+            case ATTENDANT: {
+                String building = Names.normalize(user.getBuilding());
+                if (building == null)
+                    return lab -> false;
+                return lab -> lab.getVenue() != null && building.equals(Names.normalize(lab.getVenue().getBuilding()));
+            }
+            case INSTRUCTOR: {
+                String name = Names.normalize(user.getName());
+                return lab -> lab.getInstructor() != null
+                        && name != null && name.equals(Names.normalize(lab.getInstructor().getName()));
+            }
+            case TA: {
+                String name = Names.normalize(user.getName());
+                return lab -> {
+                    for (TA ta : lab.getTas()) {
+                        if (name != null && name.equals(Names.normalize(ta.getName())))
+                            return true;
+                    }
+                    return false;
+                };
+            }
+            default:
+                return lab -> false;
+        }
+    }
+}
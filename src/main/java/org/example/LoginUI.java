@@ -1,12 +1,16 @@
 package org.example;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import java.util.List;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * LoginUI provides authentication screen for users to log in with role-based access.
@@ -14,14 +18,14 @@ import java.util.List;
  */
 public class LoginUI {
     
-    private final UserRepository userRepository;
-    private final List<User> users;
+    private final UserDirectory userDirectory;
     private Runnable onLoginSuccess;
     private User currentUser;
     
-    public LoginUI(UserRepository userRepository) throws Exception {
-        this.userRepository = userRepository;
-        this.users = userRepository.loadUsers();
+    public LoginUI(UserDirectory userDirectory) throws Exception {
+        this.userDirectory = userDirectory;
+        // cheap when the shared roster is already loaded and users.dat is unchanged
+        userDirectory.ensureLoaded();
     }
     
     /**
@@ -63,19 +67,56 @@ public class LoginUI {
         
         Button loginBtn = StyleManager.createStyledButton("Login", StyleManager.PRIMARY_COLOR);
         loginBtn.setPrefWidth(350);
+
+        // shown only if the labs are still loading when the user signs in
+        ProgressIndicator loading = new ProgressIndicator();
+        loading.setPrefSize(32, 32);
+        Label loadingLabel = new Label("Loading labs...");
+        loadingLabel.setStyle("-fx-font-size: 11; -fx-text-fill: " + StyleManager.SECONDARY_COLOR + ";");
+        HBox loadingBox = new HBox(10, loading, loadingLabel);
+        loadingBox.setAlignment(Pos.CENTER);
+        loadingBox.setVisible(false);
+        loadingBox.setManaged(false);
         
         loginBtn.setOnAction(e -> {
             String username = usernameField.getText().trim();
             String password = passwordField.getText().trim();
             
-            User user = authenticateUser(username, password);
-            if (user != null) {
-                currentUser = user;
-                openRoleDashboard(stage, user);
+            CompletableFuture<User> ready;
+            URI server = DataService.serverAddress();
+            if (server != null) {
+                // the server checks the password and sends the user's labs
+                ready = DataService.getInstance().connect(new LabClient(server, username, password));
             } else {
-                errorLabel.setText("Invalid username or password");
-                passwordField.clear();
+                User user = authenticateUser(username, password);
+                if (user == null) {
+                    errorLabel.setText("Invalid username or password");
+                    passwordField.clear();
+                    return;
+                }
+                ready = DataService.getInstance().preload().thenApply(ds -> user);
             }
+            if (ready.isDone() && !ready.isCompletedExceptionally()) {
+                currentUser = ready.join();
+                openRoleDashboard(stage, currentUser);
+                return;
+            }
+            errorLabel.setText("");
+            loginBtn.setDisable(true);
+            loadingBox.setVisible(true);
+            loadingBox.setManaged(true);
+            ready.whenComplete((user, ex) -> Platform.runLater(() -> {
+                loadingBox.setVisible(false);
+                loadingBox.setManaged(false);
+                loginBtn.setDisable(false);
+                if (ex == null) {
+                    currentUser = user;
+                    openRoleDashboard(stage, user);
+                } else {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    errorLabel.setText("Could not load labs: " + cause.getMessage());
+                }
+            }));
         });
         
         // Demo users info
@@ -99,6 +140,7 @@ public class LoginUI {
             passwordLabel, passwordField,
             errorLabel,
             loginBtn,
+            loadingBox,
             new Separator(),
             demoLabel,
             demoInfo
@@ -116,12 +158,12 @@ public class LoginUI {
      * Authenticates user credentials against stored users.
      */
     private User authenticateUser(String username, String password) {
-        for (User user : users) {
-            if (user.getUsername().equals(username) && user.getPassword().equals(password)) {
-                return user;
-            }
+        try {
+            return userDirectory.authenticate(username, password);
+        } catch (Exception ex) {
+            AlertHelper.showError("Login", "Could not read users: " + ex.getMessage());
+            return null;
         }
-        return null;
     }
     
     /**
@@ -2,17 +2,24 @@ package org.example;
 
 import javafx.application.Application;
 import javafx.stage.Stage;
-import java.nio.file.Path;
 
 // Main class to start the app
 public class Main extends Application {
 
     @Override
     public void start(Stage stage) throws Exception {
-        // create user repo and login screen
-        UserRepository userRepository = new UserRepository(Path.of("data", "users.dat"));
-        LoginUI loginUI = new LoginUI(userRepository);
+        // shared user directory and login screen
+        LoginUI loginUI = new LoginUI(UserDirectory.getInstance());
         loginUI.show(stage);
+        // read the labs while the user types their password; a server's store needs the login first
+        if (DataService.serverAddress() == null)
+            DataService.getInstance().preload();
+    }
+
+    @Override
+    public void stop() {
+        // write any changes still waiting in the autosave queue
+        DataService.getInstance().getAutoSaver().flush();
     }
 
     public static void main(String[] args) {
@@ -11,6 +11,8 @@ public class MakeupLabRequest implements Serializable {
     private Schedule schedule;
     private boolean approved;
     private LocalDateTime requestedAt;
+    // this request's copy in the last published DataStore version
+    transient MakeupLabRequest published;
 
     public MakeupLabRequest() {}
 
@@ -23,6 +25,17 @@ public class MakeupLabRequest implements Serializable {
         this.requestedAt = LocalDateTime.now();
     }
 
+    // constructor used when restoring a stored request
+    public MakeupLabRequest(String id, String labId, String requestedByInstructorId, Schedule schedule,
+            boolean approved, LocalDateTime requestedAt) {
+        this.id = id;
+        this.labId = labId;
+        this.requestedByInstructorId = requestedByInstructorId;
+        this.schedule = schedule;
+        this.approved = approved;
+        this.requestedAt = requestedAt;
+    }
+
     public String getId() { return id; }
     public String getLabId() { return labId; }
     public String getRequestedByInstructorId() { return requestedByInstructorId; }
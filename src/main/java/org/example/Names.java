@@ -0,0 +1,86 @@
+package org.example;
+
+import java.util.Locale;
+
+/**
+ * Names compares the names people type: staff, buildings and rooms.
+ * Single Responsibility: Give every index and lookup one idea of when two names are the same.
+ *
+ * Case, surrounding spaces and repeated or odd whitespace inside a name do not make it a
+ * different name, so "Dr  Ahmed" entered in one dialog finds "dr ahmed" filed by another.
+ * The registry, the lab and conflict indexes and the slot finder all key on normalize().
+ */
+final class Names {
+
+    private Names() {
+    }
+
+    /**
+     * The lookup key for a name: trimmed, inner whitespace runs collapsed to one space, lower
+     * case. Returns null for null, and the name itself when it is already a key.
+     */
+    static String normalize(String name) {
+        if (name == null)
+            return null;
+        int first = firstChange(name);
+        if (first < 0)
+            return name;
+        // ASCII names, the usual case, are fixed in one pass into one array
+        int n = name.length();
+        char[] out = new char[n];
+        name.getChars(0, first, out, 0);
+        int len = first;
+        boolean space = false;
+        if (len > 0 && out[len - 1] == ' ') {
+            len--;
+            space = true;
+        }
+        for (int i = first; i < n; i++) {
+            char c = name.charAt(i);
+            if (c > 127)
+                return normalizeUnicode(name);
+            if (Character.isWhitespace(c)) {
+                space = len > 0;
+            } else {
+                if (space)
+                    out[len++] = ' ';
+                space = false;
+                out[len++] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+            }
+        }
+        return new String(out, 0, len);
+    }
+
+    // index of the first character a key would not keep as it is, or -1 for a key
+    private static int firstChange(String name) {
+        int n = name.length();
+        for (int i = 0; i < n; i++) {
+            char c = name.charAt(i);
+            if (c == ' ') {
+                if (i == 0 || i == n - 1 || name.charAt(i - 1) == ' ')
+                    return i;
+            } else if (c > 127 || Character.isWhitespace(c) || (c >= 'A' && c <= 'Z')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // names with non-ASCII letters, lower-cased by the full Unicode rules
+    private static String normalizeUnicode(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space)
+                    sb.append(' ');
+                space = false;
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+}
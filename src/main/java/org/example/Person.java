@@ -6,6 +6,8 @@ public abstract class Person implements Serializable {
     private static final long serialVersionUID = 1L;
     protected String id;
     protected String name;
+    // this person's copy in the last published DataStore version
+    transient Person published;
 
     public Person() {}
 
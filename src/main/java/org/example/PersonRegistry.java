@@ -0,0 +1,135 @@
+package org.example;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * PersonRegistry keeps exactly one object per instructor or TA.
+ * Single Responsibility: Map ids and names to canonical Person objects.
+ *
+ * The registry works on top of the DataStore's list of people and keeps that list free of
+ * duplicates. Staff are entered by name, so two entries whose normalized names match are
+ * the same person; the first one seen stays and the others become aliases of it. Lookups by
+ * id or name are hash lookups, and the size grows with real people, not with assignments.
+ */
+public class PersonRegistry<P extends Person> {
+
+    private final List<P> people;
+    private final String idPrefix;
+    private final BiFunction<String, String, P> factory;
+    private final Function<P, List<String>> labIds;
+    private final Map<String, P> byId = new HashMap<>();
+    private final Map<String, P> byName = new HashMap<>();
+    // every object seen, canonical ones mapped to themselves
+    private final Map<P, P> canonicalOf = new IdentityHashMap<>();
+    private int nextNumber = 1;
+
+    /**
+     * Registers everyone in the list, removing duplicates from it in place.
+     */
+    public PersonRegistry(List<P> people, String idPrefix, BiFunction<String, String, P> factory,
+                          Function<P, List<String>> labIds) {
+        this.people = people;
+        this.idPrefix = idPrefix;
+        this.factory = factory;
+        this.labIds = labIds;
+        List<P> listed = new ArrayList<>(people);
+        people.clear();
+        for (P p : listed)
+            canonical(p);
+    }
+
+    // number of distinct people; differs from the list's size once the list is edited directly
+    public int size() {
+        return byId.size();
+    }
+
+    public P findById(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    public P findByName(String name) {
+        String key = Names.normalize(name);
+        return key == null ? null : byName.get(key);
+    }
+
+    /**
+     * The person with this name, created with the next free id if there is none yet.
+     */
+    public P resolve(String name) {
+        String key = Names.normalize(name);
+        if (key == null || key.isEmpty())
+            throw new IllegalArgumentException("A name is required");
+        P p = byName.get(key);
+        if (p == null) {
+            p = factory.apply(freshId(), name.trim());
+            add(p);
+        }
+        return p;
+    }
+
+    /**
+     * The canonical object for p, registering p if neither its name nor the object is known.
+     * Lab ids listed on an alias are merged into the canonical person.
+     */
+    public P canonical(P p) {
+        if (p == null)
+            return null;
+        P c = canonicalOf.get(p);
+        if (c != null)
+            return c;
+        String key = Names.normalize(p.getName());
+        // nameless entries are never merged with each other
+        c = key == null || key.isEmpty() ? null : byName.get(key);
+        if (c == null) {
+            if (p.getId() != null && !byId.containsKey(p.getId())) {
+                c = p;
+            } else {
+                // an id reused for a different person, e.g. "I-<lab>" after the lab changed hands
+                c = factory.apply(freshId(), p.getName());
+            }
+            add(c);
+        }
+        canonicalOf.put(p, c);
+        if (c != p) {
+            for (String labId : labIds.apply(p)) {
+                if (!labIds.apply(c).contains(labId))
+                    labIds.apply(c).add(labId);
+            }
+        }
+        return c;
+    }
+
+    private void add(P p) {
+        people.add(p);
+        canonicalOf.put(p, p);
+        byId.put(p.getId(), p);
+        String key = Names.normalize(p.getName());
+        if (key != null && !key.isEmpty())
+            byName.put(key, p);
+        noteNumber(p.getId());
+    }
+
+    private String freshId() {
+        String id;
+        do {
+            id = String.format("%s%03d", idPrefix, nextNumber++);
+        } while (byId.containsKey(id));
+        return id;
+    }
+
+    // keeps generated ids above the numbered ids already in use
+    private void noteNumber(String id) {
+        if (id == null || !id.startsWith(idPrefix))
+            return;
+        String digits = id.substring(idPrefix.length());
+        if (digits.isEmpty() || digits.length() > 9)
+            return;
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i)))
+                return;
+        }
+        nextNumber = Math.max(nextNumber, Integer.parseInt(digits) + 1);
+    }
+}
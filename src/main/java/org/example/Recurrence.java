@@ -0,0 +1,195 @@
+package org.example;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * Recurrence is a weekly rule: the same weekday and time every week of a semester,
+ * except on listed holidays.
+ * Single Responsibility: Generate and test lab occurrences without storing each week.
+ *
+ * Occurrences are produced lazily by an iterator over a time range, and occursAt()
+ * answers whether some occurrence covers a given time with a fixed amount of work:
+ * only the latest weekly start at or before that time can contain it.
+ */
+public class Recurrence implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final DayOfWeek day;
+    private final LocalTime startTime;
+    private final int lengthMinutes;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final Set<LocalDate> exceptions;
+
+    /**
+     * Weekly on the given day between firstDate and lastDate (both inclusive),
+     * skipping the exception dates.
+     */
+    public Recurrence(DayOfWeek day, LocalTime startTime, Duration length,
+                      LocalDate firstDate, LocalDate lastDate, Collection<LocalDate> exceptions) {
+        if (day == null || startTime == null || length == null || firstDate == null || lastDate == null)
+            throw new IllegalArgumentException("Day, time, length and semester dates are required");
+        if (length.isNegative() || length.isZero() || length.compareTo(Duration.ofDays(7)) >= 0)
+            throw new IllegalArgumentException("Length must be positive and shorter than a week");
+        if (lastDate.isBefore(firstDate))
+            throw new IllegalArgumentException("Semester ends before it starts");
+        this.day = day;
+        this.startTime = startTime;
+        this.lengthMinutes = (int) length.toMinutes();
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.exceptions = exceptions == null ? new HashSet<>() : new HashSet<>(exceptions);
+        if (firstOccurrence() == null)
+            throw new IllegalArgumentException("No " + day + " in " + firstDate + " to " + lastDate
+                    + " outside the holidays");
+    }
+
+    public DayOfWeek getDay() {
+        return day;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public Duration getLength() {
+        return Duration.ofMinutes(lengthMinutes);
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    // sorted copy
+    public List<LocalDate> getExceptions() {
+        List<LocalDate> sorted = new ArrayList<>(exceptions);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * True if an occurrence starts on this date.
+     */
+    public boolean occursOn(LocalDate date) {
+        return date.getDayOfWeek() == day
+                && !date.isBefore(firstDate) && !date.isAfter(lastDate)
+                && !exceptions.contains(date);
+    }
+
+    /**
+     * True if an occurrence covers t, ends inclusive.
+     */
+    public boolean occursAt(LocalDateTime t) {
+        LocalDate date = t.toLocalDate().with(TemporalAdjusters.previousOrSame(day));
+        if (date.atTime(startTime).isAfter(t))
+            date = date.minusWeeks(1);
+        LocalDateTime start = date.atTime(startTime);
+        return occursOn(date) && !start.plusMinutes(lengthMinutes).isBefore(t);
+    }
+
+    public Schedule firstOccurrence() {
+        Iterator<Schedule> it = occurrences(firstDate.atStartOfDay(), lastDate.plusDays(1).atTime(startTime)).iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    public Schedule lastOccurrence() {
+        for (LocalDate d = lastDate.with(TemporalAdjusters.previousOrSame(day)); !d.isBefore(firstDate); d = d.minusWeeks(1)) {
+            if (!exceptions.contains(d))
+                return occurrenceOn(d);
+        }
+        return null;
+    }
+
+    /**
+     * Occurrences overlapping [from, to), generated one week at a time as the iterator advances.
+     */
+    public Iterable<Schedule> occurrences(LocalDateTime from, LocalDateTime to) {
+        return () -> new Iterator<Schedule>() {
+            // the earliest start whose occurrence can still reach past from
+            private LocalDate date = max(firstDate, from.minusMinutes(lengthMinutes).toLocalDate())
+                    .with(TemporalAdjusters.nextOrSame(day));
+            private Schedule next = advance();
+
+            private Schedule advance() {
+                while (!date.isAfter(lastDate)) {
+                    LocalDate d = date;
+                    date = date.plusWeeks(1);
+                    Schedule s = occurrenceOn(d);
+                    if (!s.getExpectedStart().isBefore(to))
+                        break;
+                    if (!exceptions.contains(d) && s.getExpectedEnd().isAfter(from))
+                        return s;
+                }
+                date = lastDate.plusDays(1);
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Schedule next() {
+                if (next == null)
+                    throw new NoSuchElementException();
+                Schedule s = next;
+                next = advance();
+                return s;
+            }
+        };
+    }
+
+    /**
+     * Whether the weekly windows of the two rules can meet at all, ignoring dates.
+     * Compares minutes of the week, so a late Sunday lab that runs past midnight still meets Monday.
+     */
+    boolean weeklyWindowOverlaps(Recurrence other) {
+        int week = 7 * 24 * 60;
+        int a = minuteOfWeek();
+        int b = other.minuteOfWeek();
+        for (int shift = -week; shift <= week; shift += week) {
+            int bs = b + shift;
+            if (a < bs + other.lengthMinutes && bs < a + lengthMinutes)
+                return true;
+        }
+        return false;
+    }
+
+    // minutes since Monday 00:00
+    int minuteOfWeek() {
+        return (day.getValue() - 1) * 24 * 60 + startTime.getHour() * 60 + startTime.getMinute();
+    }
+
+    int lengthMinutes() {
+        return lengthMinutes;
+    }
+
+    private Schedule occurrenceOn(LocalDate d) {
+        LocalDateTime start = d.atTime(startTime);
+        return new Schedule(start, start.plusMinutes(lengthMinutes));
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    @Override
+    public String toString() {
+        LocalTime end = startTime.plusMinutes(lengthMinutes);
+        String dayName = day.toString().charAt(0) + day.toString().substring(1).toLowerCase(Locale.ROOT);
+        return "Every " + dayName + " " + startTime + "-" + end + ", " + firstDate + " to " + lastDate
+                + (exceptions.isEmpty() ? "" : " (" + exceptions.size() + " holiday" + (exceptions.size() == 1 ? "" : "s") + " skipped)");
+    }
+}
@@ -0,0 +1,243 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.List;
+
+/**
+ * ReportEngine produces the lab reports as a stream of rows.
+ * Single Responsibility: Decide what goes into each report; ReportWriter decides how it looks.
+ *
+ * Reports walk the labs once and hand each row straight to the writer, so memory use
+ * does not grow with the number of sessions. Safe to run off the FX thread on a copy
+ * of the lab list.
+ *
+ * An engine made for a week limits the two weekly reports to that ISO week (Monday to
+ * Sunday): the schedule lists each occurrence in it, the timesheet each session that
+ * started in it. Leaves carry no time and are left out of a week. The default engine
+ * reports every lab's schedule and every session.
+ */
+public class ReportEngine {
+
+    public enum Report {
+        WEEKLY_SCHEDULE("Weekly Schedule Report", "weekly-schedule"),
+        WEEKLY_TIMESHEET("Weekly Timesheet Report", "weekly-timesheet"),
+        LAB_SEMESTER("Lab Semester Report", "lab-semester");
+
+        private final String title;
+        private final String fileName;
+
+        Report(String title, String fileName) {
+            this.title = title;
+            this.fileName = fileName;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+    }
+
+    // Monday of the reported week, or null for no limit
+    private final LocalDate weekStart;
+
+    public ReportEngine() {
+        this(null);
+    }
+
+    /**
+     * An engine whose weekly reports cover the ISO week containing the given date.
+     */
+    public ReportEngine(LocalDate week) {
+        this.weekStart = week == null ? null : week.with(DayOfWeek.MONDAY);
+    }
+
+    public void write(Report report, List<Lab> labs, ReportWriter w) throws IOException {
+        switch (report) {
+            case WEEKLY_SCHEDULE:
+                writeWeeklySchedule(labs, w);
+                break;
+            case WEEKLY_TIMESHEET:
+                writeWeeklyTimeSheet(labs, w);
+                break;
+            case LAB_SEMESTER:
+                writeSemesterSummary(labs, w);
+                break;
+        }
+    }
+
+    /**
+     * Writes a report to dir/<name>.<ext> and returns the file. The file is replaced atomically.
+     */
+    public Path export(Report report, List<Lab> labs, ReportFormat format, Path dir) throws IOException {
+        Path target = dir.resolve(report.getFileName() + "." + format.getExtension());
+        exportTo(target, format, w -> write(report, labs, w));
+        return target;
+    }
+
+    /**
+     * Writes one lab's semester timesheet to dir/lab-<id>.<ext> and returns the file.
+     * Characters that may not appear in a file name are replaced with '_'.
+     */
+    public Path exportLab(Lab lab, ReportFormat format, Path dir) throws IOException {
+        String name = "lab-" + lab.getId().replaceAll("[^A-Za-z0-9._-]", "_");
+        Path target = dir.resolve(name + "." + format.getExtension());
+        exportTo(target, format, w -> writeLabTimeSheet(lab, w));
+        return target;
+    }
+
+    private interface Body {
+        void writeTo(ReportWriter w) throws IOException;
+    }
+
+    private static void exportTo(Path target, ReportFormat format, Body body) throws IOException {
+        AtomicFile.write(target, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            try (ReportWriter w = ReportWriter.create(format, writer)) {
+                body.writeTo(w);
+            }
+        });
+    }
+
+    public void writeWeeklySchedule(List<Lab> labs, ReportWriter w) throws IOException {
+        w.begin("WEEKLY SCHEDULE REPORT", "Lab ID", "Name", "Location", "Instructor", "Schedule", "TAs");
+        if (weekStart == null) {
+            w.summary("Labs", labs.size());
+            for (Lab l : labs)
+                writeScheduleRow(w, l, l.getSchedule() == null ? "(Not Set)" : l.getSchedule());
+            w.end();
+            return;
+        }
+        LocalDateTime from = weekStart.atStartOfDay();
+        LocalDateTime to = from.plusWeeks(1);
+        int scheduled = 0;
+        for (Lab l : labs) {
+            if (l.getSchedule() != null && l.getSchedule().occurrences(from, to).iterator().hasNext())
+                scheduled++;
+        }
+        w.summary("Week", weekLabel());
+        w.summary("Labs", scheduled);
+        for (Lab l : labs) {
+            if (l.getSchedule() == null)
+                continue;
+            for (Schedule occurrence : l.getSchedule().occurrences(from, to))
+                writeScheduleRow(w, l, occurrence);
+        }
+        w.end();
+    }
+
+    private static void writeScheduleRow(ReportWriter w, Lab l, Object schedule) throws IOException {
+        w.row(l.getId(), l.getName(),
+              l.getVenue() == null ? "(Not Set)" : l.getVenue(),
+              l.getInstructor() == null ? "(Unassigned)" : l.getInstructor().getName(),
+              schedule,
+              taNames(l));
+    }
+
+    public void writeWeeklyTimeSheet(List<Lab> labs, ReportWriter w) throws IOException {
+        w.begin("WEEKLY TIMESHEET REPORT", "Lab ID", "Name", "Session", "Start", "End", "Status");
+        if (weekStart != null)
+            w.summary("Week", weekLabel());
+        // compared as minutes so sessions outside the week are skipped without a TimeSheet
+        int from = weekStart == null ? 0 : SessionLog.toMinute(weekStart.atStartOfDay());
+        int to = weekStart == null ? 0 : SessionLog.toMinute(weekStart.plusWeeks(1).atStartOfDay());
+        for (Lab l : labs) {
+            SessionLog sessions = l.getSessionLog();
+            // sessions may be appended while we run; stop at the count seen on entry
+            int n = sessions.size();
+            boolean any = false;
+            for (int i = 0; i < n; i++) {
+                if (weekStart != null && (sessions.isLeave(i)
+                        || sessions.startMinute(i) < from || sessions.startMinute(i) >= to))
+                    continue;
+                writeSession(w, l, i + 1, sessions.get(i));
+                any = true;
+            }
+            if (!any)
+                w.row(l.getId(), l.getName(), null, null, null, "NO ENTRIES");
+        }
+        w.end();
+    }
+
+    public void writeSemesterSummary(List<Lab> labs, ReportWriter w) throws IOException {
+        w.begin("LAB SEMESTER REPORT", "Lab ID", "Name", "Instructor", "Location",
+                "Contact Hours", "Leaves", "Sessions");
+        // each lab's total is a scan of its sessions; taken once and kept for the rows
+        long[] minutes = new long[labs.size()];
+        long totalMinutes = 0;
+        for (int i = 0; i < minutes.length; i++) {
+            minutes[i] = labs.get(i).totalContactMinutes();
+            totalMinutes += minutes[i];
+        }
+        w.summary("Labs", labs.size());
+        w.summary("Total Contact Hours", hours(totalMinutes));
+        for (int i = 0; i < minutes.length; i++) {
+            Lab l = labs.get(i);
+            w.row(l.getId(), l.getName(),
+                  l.getInstructor() == null ? "Unassigned" : l.getInstructor().getName(),
+                  l.getVenue() == null ? "Not Set" : l.getVenue(),
+                  hours(minutes[i]), l.leavesCount(), l.sessionCount());
+        }
+        w.end();
+    }
+
+    /**
+     * Semester view of one lab: its totals followed by every session.
+     */
+    public void writeLabTimeSheet(Lab lab, ReportWriter w) throws IOException {
+        w.begin("LAB TIMESHEET REPORT - SEMESTER VIEW", "Lab ID", "Name", "Session", "Start", "End", "Status");
+        w.summary("Lab", lab.getName() + " (" + lab.getId() + ")");
+        w.summary("Instructor", lab.getInstructor() == null ? "Unassigned" : lab.getInstructor().getName());
+        w.summary("Location", lab.getVenue() == null ? "Not Set" : lab.getVenue());
+        w.summary("Contact Hours", hours(lab.totalContactMinutes()));
+        w.summary("Leaves/Absences", lab.leavesCount());
+        w.summary("Total Sessions", lab.sessionCount());
+        List<TimeSheet> sessions = lab.getSessions();
+        int n = sessions.size();
+        for (int i = 0; i < n; i++) {
+            writeSession(w, lab, i + 1, sessions.get(i));
+        }
+        w.end();
+    }
+
+    private static void writeSession(ReportWriter w, Lab l, int number, TimeSheet ts) throws IOException {
+        if (ts.getActualStart() == null || ts.getActualEnd() == null) {
+            w.row(l.getId(), l.getName(), number, null, null, "ABSENT/LEAVE");
+        } else {
+            w.row(l.getId(), l.getName(), number, ts.getActualStart(), ts.getActualEnd(), "PRESENT");
+        }
+    }
+
+    // e.g. "2025-W36 (2025-09-01 to 2025-09-07)"
+    private String weekLabel() {
+        return String.format("%d-W%02d (%s to %s)", weekStart.get(IsoFields.WEEK_BASED_YEAR),
+                weekStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), weekStart, weekStart.plusDays(6));
+    }
+
+    // rounded to two decimals for display
+    private static double hours(long minutes) {
+        return Math.round(minutes / 60.0 * 100) / 100.0;
+    }
+
+    private static String taNames(Lab l) {
+        if (l.getTas().isEmpty())
+            return "(None assigned)";
+        StringBuilder sb = new StringBuilder();
+        for (TA ta : l.getTas()) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(ta.getName());
+        }
+        return sb.toString();
+    }
+}
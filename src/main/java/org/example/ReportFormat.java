@@ -0,0 +1,27 @@
+package org.example;
+
+/**
+ * ReportFormat lists the output formats the report engine can stream.
+ */
+public enum ReportFormat {
+    TEXT("Text", "txt"),
+    CSV("CSV", "csv"),
+    JSON("JSON", "json");
+
+    private final String label;
+    private final String extension;
+
+    ReportFormat(String label, String extension) {
+        this.label = label;
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -1,141 +1,233 @@
 package org.example;
 
-import javafx.collections.ObservableList;
-import javafx.scene.control.Alert;
+import javafx.concurrent.Task;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.Pagination;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextArea;
+import javafx.scene.layout.StackPane;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * ReportGenerator handles all report generation logic.
  * Single Responsibility: Generate various reports from lab data.
+ *
+ * Reports are rendered by ReportEngine on a background thread into a temporary file;
+ * the dialog shows it a page at a time, so a semester of sessions never sits in a TextArea.
+ * The background thread reads a published version of the store, not the labs being edited.
  */
 public class ReportGenerator {
-    
-    private final ObservableList<Lab> labs;
-    
-    public ReportGenerator(ObservableList<Lab> labs) {
-        this.labs = labs;
+
+    static final int LINES_PER_PAGE = 200;
+
+    private final DataService dataService;
+    private final ReportEngine engine = new ReportEngine();
+
+    public ReportGenerator(DataService dataService) {
+        this.dataService = dataService;
+    }
+
+    /**
+     * Writes a report body onto a ReportWriter.
+     */
+    private interface Body {
+        void writeTo(ReportWriter w) throws IOException;
     }
-    
+
     /**
      * Generates and displays the weekly schedule report.
      */
     public void generateWeeklyScheduleReport() {
-        Dialog<Void> dlg = new Dialog<>();
-        dlg.setTitle("Weekly Schedule Report");
-        dlg.getDialogPane().setPrefSize(600, 400);
-        dlg.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
-        
-        StringBuilder sb = new StringBuilder();
-        sb.append("═══════════════════════════════════════════════════════════\n");
-        sb.append("WEEKLY SCHEDULE REPORT\n");
-        sb.append("═══════════════════════════════════════════════════════════\n\n");
-        
-        for (Lab l : labs) {
-            sb.append("📚 ").append(l.getId()).append(" - ").append(l.getName()).append("\n");
-            sb.append("   Location: ").append(l.getVenue() == null ? "(Not Set)" : l.getVenue()).append("\n");
-            sb.append("   Instructor: ").append(l.getInstructor() == null ? "(Unassigned)" : l.getInstructor().getName()).append("\n");
-            sb.append("   Schedule: ").append(l.getSchedule() == null ? "(Not Set)" : l.getSchedule()).append("\n");
-            sb.append("   TAs: ");
-            if (l.getTas().isEmpty()) {
-                sb.append("(None assigned)");
-            } else {
-                for (int i = 0; i < l.getTas().size(); i++) {
-                    if (i > 0) sb.append(", ");
-                    sb.append(l.getTas().get(i).getName());
-                }
-            }
-            sb.append("\n\n");
-        }
-        
-        TextArea area = new TextArea(sb.toString());
-        area.setStyle(StyleManager.REPORT_TEXT_STYLE);
-        area.setEditable(false);
-        area.setWrapText(true);
-        dlg.getDialogPane().setContent(area);
-        dlg.showAndWait();
+        List<Lab> snapshot = dataService.publish().getLabs();
+        showPreview("Weekly Schedule Report", w -> engine.writeWeeklySchedule(snapshot, w));
     }
-    
+
     /**
      * Generates and displays the weekly timesheet report.
      */
     public void generateWeeklyTimeSheetReport() {
-        Dialog<Void> dlg = new Dialog<>();
-        dlg.setTitle("Weekly TimeSheet Report");
-        dlg.getDialogPane().setPrefSize(600, 400);
-        dlg.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
-        
-        StringBuilder sb = new StringBuilder();
-        sb.append("═══════════════════════════════════════════════════════════\n");
-        sb.append("WEEKLY TIMESHEET REPORT\n");
-        sb.append("═══════════════════════════════════════════════════════════\n\n");
-        
-        for (Lab l : labs) {
-            sb.append("📚 ").append(l.getId()).append(" - ").append(l.getName()).append("\n");
-            if (l.getSessions().isEmpty()) {
-                sb.append("   No timesheet entries recorded\n\n");
-                continue;
-            }
-            for (int i = 0; i < l.getSessions().size(); i++) {
-                TimeSheet ts = l.getSessions().get(i);
-                sb.append("   Session ").append(i + 1).append(": ");
-                if (ts.getActualStart() == null || ts.getActualEnd() == null) {
-                    sb.append("ABSENT/LEAVE");
-                } else {
-                    sb.append(ts.getActualStart()).append(" to ").append(ts.getActualEnd());
-                }
-                sb.append("\n");
-            }
-            sb.append("\n");
-        }
-        
-        TextArea area = new TextArea(sb.toString());
-        area.setStyle(StyleManager.REPORT_TEXT_STYLE);
-        area.setEditable(false);
-        area.setWrapText(true);
-        dlg.getDialogPane().setContent(area);
-        dlg.showAndWait();
+        List<Lab> snapshot = dataService.publish().getLabs();
+        showPreview("Weekly TimeSheet Report", w -> engine.writeWeeklyTimeSheet(snapshot, w));
     }
-    
+
     /**
      * Generates and displays the lab timesheet report for a specific lab.
      */
     public void generateLabTimeSheetReport(Lab lab) {
+        Lab copy = dataService.getDataStore().publishedLab(lab);
+        showPreview("Lab TimeSheet Report - " + lab.getName(), w -> engine.writeLabTimeSheet(copy, w));
+    }
+
+    /**
+     * Exports the given reports over all labs into dir, in the background.
+     */
+    public void exportReports(List<ReportEngine.Report> reports, ReportFormat format, Path dir) {
+        List<Lab> snapshot = dataService.publish().getLabs();
+        Task<List<Path>> task = new Task<>() {
+            @Override
+            protected List<Path> call() throws Exception {
+                List<Path> written = new ArrayList<>();
+                for (ReportEngine.Report report : reports) {
+                    written.add(engine.export(report, snapshot, format, dir));
+                }
+                return written;
+            }
+        };
+        task.setOnSucceeded(e -> AlertHelper.showSuccess("Export",
+                task.getValue().size() + " report(s) exported as " + format + " to " + dir));
+        task.setOnFailed(e -> AlertHelper.showError("Export Failed",
+                "Could not export reports: " + task.getException().getMessage()));
+        startBackground(task, "report-export");
+    }
+
+    private void showPreview(String title, Body body) {
         Dialog<Void> dlg = new Dialog<>();
-        dlg.setTitle("Lab TimeSheet Report - " + lab.getName());
+        dlg.setTitle(title);
         dlg.getDialogPane().setPrefSize(600, 400);
         dlg.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
-        
-        StringBuilder sb = new StringBuilder();
-        sb.append("═══════════════════════════════════════════════════════════\n");
-        sb.append("LAB TIMESHEET REPORT - SEMESTER VIEW\n");
-        sb.append("═══════════════════════════════════════════════════════════\n\n");
-        sb.append("Lab: ").append(lab.getName()).append(" (").append(lab.getId()).append(")\n");
-        sb.append("Instructor: ").append(lab.getInstructor() == null ? "Unassigned" : lab.getInstructor().getName()).append("\n");
-        sb.append("Location: ").append(lab.getVenue() == null ? "Not Set" : lab.getVenue()).append("\n\n");
-        
-        sb.append("CONTACT HOURS: ").append(lab.totalContactHours()).append(" hours\n");
-        sb.append("LEAVES/ABSENCES: ").append(lab.leavesCount()).append("\n");
-        sb.append("TOTAL SESSIONS: ").append(lab.getSessions().size()).append("\n\n");
-        
-        sb.append("SESSION DETAILS:\n");
-        for (int i = 0; i < lab.getSessions().size(); i++) {
-            TimeSheet ts = lab.getSessions().get(i);
-            sb.append(String.format("  %2d. ", i + 1));
-            if (ts.getActualStart() == null || ts.getActualEnd() == null) {
-                sb.append("[ABSENT]");
-            } else {
-                sb.append(ts.getActualStart()).append(" → ").append(ts.getActualEnd());
+        dlg.getDialogPane().setContent(new StackPane(new ProgressIndicator()));
+
+        Task<PagedReport> task = new Task<>() {
+            @Override
+            protected PagedReport call() throws Exception {
+                PagedReport report = PagedReport.render(body);
+                if (isCancelled())
+                    report.delete(); // the dialog was closed while we were rendering
+                return report;
             }
-            sb.append("\n");
+        };
+        task.setOnSucceeded(e -> {
+            PagedReport report = task.getValue();
+            Pagination pages = new Pagination(report.pageCount(), 0);
+            pages.setPageFactory(i -> pageView(report, i));
+            dlg.getDialogPane().setContent(pages);
+        });
+        task.setOnFailed(e -> dlg.getDialogPane().setContent(
+                new Label("Could not generate report: " + task.getException().getMessage())));
+        startBackground(task, "report");
+
+        dlg.showAndWait();
+        task.cancel();
+        if (task.getValue() != null)
+            task.getValue().delete();
+    }
+
+    private static TextArea pageView(PagedReport report, int page) {
+        String text;
+        try {
+            text = report.readPage(page);
+        } catch (IOException ex) {
+            text = "Could not read report page: " + ex.getMessage();
         }
-        
-        TextArea area = new TextArea(sb.toString());
+        TextArea area = new TextArea(text);
         area.setStyle(StyleManager.REPORT_TEXT_STYLE);
         area.setEditable(false);
         area.setWrapText(true);
-        dlg.getDialogPane().setContent(area);
-        dlg.showAndWait();
+        return area;
+    }
+
+    private static void startBackground(Task<?> task, String name) {
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * A rendered text report in a temporary file, with the byte offset of every page.
+     */
+    private static final class PagedReport extends Writer {
+        private final Path file;
+        private final OutputStream out;
+        private final List<Long> pageStarts = new ArrayList<>();
+        private final StringBuilder line = new StringBuilder();
+        private long position;
+        private int linesInPage;
+
+        private PagedReport(Path file) throws IOException {
+            this.file = file;
+            this.out = new BufferedOutputStream(Files.newOutputStream(file));
+        }
+
+        static PagedReport render(Body body) throws IOException {
+            Path file = Files.createTempFile("lab-report", ".txt");
+            file.toFile().deleteOnExit();
+            PagedReport report = new PagedReport(file);
+            try (report; ReportWriter w = ReportWriter.create(ReportFormat.TEXT, report)) {
+                body.writeTo(w);
+            } catch (IOException | RuntimeException ex) {
+                report.delete();
+                throw ex;
+            }
+            return report;
+        }
+
+        int pageCount() {
+            return Math.max(1, pageStarts.size());
+        }
+
+        String readPage(int page) throws IOException {
+            if (page >= pageStarts.size())
+                return "";
+            long start = pageStarts.get(page);
+            long end = page + 1 < pageStarts.size() ? pageStarts.get(page + 1) : position;
+            ByteBuffer buf = ByteBuffer.allocate((int) (end - start));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (buf.hasRemaining() && channel.read(buf, start + buf.position()) >= 0) {
+                }
+            }
+            return new String(buf.array(), 0, buf.position(), StandardCharsets.UTF_8);
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                line.append(cbuf[i]);
+                if (cbuf[i] == '\n')
+                    endLine();
+            }
+        }
+
+        private void endLine() throws IOException {
+            if (linesInPage == 0)
+                pageStarts.add(position);
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            out.write(bytes);
+            position += bytes.length;
+            line.setLength(0);
+            linesInPage = (linesInPage + 1) % LINES_PER_PAGE;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (line.length() > 0)
+                endLine();
+            out.close();
+        }
     }
 }
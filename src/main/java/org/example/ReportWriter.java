@@ -0,0 +1,234 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * ReportWriter renders a report one row at a time onto a character stream.
+ * Single Responsibility: Format report rows as text, CSV or JSON without buffering the report.
+ *
+ * Callers use begin(), any number of summary() lines, then row() per record and end().
+ * Nothing but the current row is held in memory.
+ */
+public abstract class ReportWriter implements Closeable {
+
+    protected final Writer out;
+    protected String[] columns = new String[0];
+
+    protected ReportWriter(Writer out) {
+        this.out = out;
+    }
+
+    public static ReportWriter create(ReportFormat format, Writer out) {
+        switch (format) {
+            case CSV:
+                return new CsvWriter(out);
+            case JSON:
+                return new JsonWriter(out);
+            default:
+                return new TextWriter(out);
+        }
+    }
+
+    public void begin(String title, String... columns) throws IOException {
+        this.columns = columns;
+    }
+
+    /**
+     * A labelled figure that describes the whole report. Must come before the first row.
+     */
+    public abstract void summary(String label, Object value) throws IOException;
+
+    public abstract void row(Object... values) throws IOException;
+
+    public abstract void end() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    protected static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Plain text in the look of the on-screen reports.
+     */
+    private static class TextWriter extends ReportWriter {
+        private static final String RULE = "═══════════════════════════════════════════════════════════\n";
+        private boolean headerWritten;
+
+        TextWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void begin(String title, String... columns) throws IOException {
+            super.begin(title, columns);
+            out.write(RULE);
+            out.write(title);
+            out.write('\n');
+            out.write(RULE);
+            out.write('\n');
+        }
+
+        @Override
+        public void summary(String label, Object value) throws IOException {
+            out.write(label + ": " + text(value) + "\n");
+        }
+
+        @Override
+        public void row(Object... values) throws IOException {
+            if (!headerWritten) {
+                headerWritten = true;
+                out.write('\n');
+                out.write(String.join(" | ", columns));
+                out.write('\n');
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(" | ");
+                out.write(text(values[i]));
+            }
+            out.write('\n');
+        }
+
+        @Override
+        public void end() throws IOException {
+            if (!headerWritten)
+                out.write("\n(No entries)\n");
+        }
+    }
+
+    /**
+     * RFC 4180 CSV. Summary lines have no place in a CSV table and are left out.
+     */
+    private static class CsvWriter extends ReportWriter {
+        CsvWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void begin(String title, String... columns) throws IOException {
+            super.begin(title, columns);
+            writeLine(columns);
+        }
+
+        @Override
+        public void summary(String label, Object value) {
+        }
+
+        @Override
+        public void row(Object... values) throws IOException {
+            writeLine(values);
+        }
+
+        @Override
+        public void end() {
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                out.write(quote(text(values[i])));
+            }
+            out.write("\r\n");
+        }
+
+        private static String quote(String s) {
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0)
+                return s;
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    /**
+     * One JSON object: {"title", "summary": {...}, "rows": [{column: value}, ...]}.
+     */
+    private static class JsonWriter extends ReportWriter {
+        private boolean inSummary;
+        private boolean inRows;
+        private boolean first;
+
+        JsonWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void begin(String title, String... columns) throws IOException {
+            super.begin(title, columns);
+            out.write("{\"title\":" + quote(title));
+        }
+
+        @Override
+        public void summary(String label, Object value) throws IOException {
+            if (!inSummary) {
+                inSummary = true;
+                first = true;
+                out.write(",\"summary\":{");
+            }
+            if (!first) out.write(',');
+            first = false;
+            out.write(quote(label) + ":" + value(value));
+        }
+
+        @Override
+        public void row(Object... values) throws IOException {
+            if (!inRows) {
+                openRows();
+            }
+            if (!first) out.write(',');
+            first = false;
+            out.write("\n{");
+            for (int i = 0; i < values.length && i < columns.length; i++) {
+                if (i > 0) out.write(',');
+                out.write(quote(columns[i]) + ":" + value(values[i]));
+            }
+            out.write('}');
+        }
+
+        @Override
+        public void end() throws IOException {
+            if (!inRows)
+                openRows();
+            out.write("]}\n");
+        }
+
+        private void openRows() throws IOException {
+            if (inSummary) {
+                out.write('}');
+                inSummary = false;
+            }
+            inRows = true;
+            first = true;
+            out.write(",\"rows\":[");
+        }
+
+        private static String value(Object v) {
+            if (v == null)
+                return "null";
+            if (v instanceof Number || v instanceof Boolean)
+                return v.toString();
+            return quote(v.toString());
+        }
+
+        private static String quote(String s) {
+            StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                        else sb.append(c);
+                }
+            }
+            return sb.append('"').toString();
+        }
+    }
+}
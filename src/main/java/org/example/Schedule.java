@@ -1,13 +1,16 @@
 package org.example;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 
-// Schedule class
+// Schedule class: a single session, or a weekly rule whose first occurrence is kept in start/end
 public class Schedule implements Serializable {
     private static final long serialVersionUID = 1L;
     private LocalDateTime expectedStart;
     private LocalDateTime expectedEnd;
+    private Recurrence recurrence;
 
     // constructor
     public Schedule() {
@@ -18,6 +21,10 @@ public class Schedule implements Serializable {
         this.expectedEnd = expectedEnd;
     }
 
+    public Schedule(Recurrence recurrence) {
+        setRecurrence(recurrence);
+    }
+
     // getters and setters
     public LocalDateTime getExpectedStart() {
         return expectedStart;
@@ -35,8 +42,62 @@ public class Schedule implements Serializable {
         this.expectedEnd = expectedEnd;
     }
 
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public void setRecurrence(Recurrence recurrence) {
+        this.recurrence = recurrence;
+        if (recurrence != null) {
+            Schedule first = recurrence.firstOccurrence();
+            this.expectedStart = first.getExpectedStart();
+            this.expectedEnd = first.getExpectedEnd();
+        }
+    }
+
+    public boolean isRecurring() {
+        return recurrence != null;
+    }
+
+    // end of the last occurrence, or null if open-ended
+    public LocalDateTime getLastEnd() {
+        return recurrence != null ? recurrence.lastOccurrence().getExpectedEnd() : expectedEnd;
+    }
+
+    /**
+     * True if the lab runs at t, ends inclusive.
+     */
+    public boolean occursAt(LocalDateTime t) {
+        if (recurrence != null)
+            return recurrence.occursAt(t);
+        return expectedStart != null && expectedEnd != null
+                && !t.isBefore(expectedStart) && !t.isAfter(expectedEnd);
+    }
+
+    /**
+     * True if a session starts on this date.
+     */
+    public boolean occursOn(LocalDate date) {
+        if (recurrence != null)
+            return recurrence.occursOn(date);
+        return expectedStart != null && expectedStart.toLocalDate().equals(date);
+    }
+
+    /**
+     * Sessions overlapping [from, to); weekly rules are expanded lazily.
+     */
+    public Iterable<Schedule> occurrences(LocalDateTime from, LocalDateTime to) {
+        if (recurrence != null)
+            return recurrence.occurrences(from, to);
+        if (expectedStart != null && expectedEnd != null && expectedStart.isBefore(to) && expectedEnd.isAfter(from))
+            return Collections.singletonList(this);
+        return Collections.emptyList();
+    }
+
     @Override
     public String toString() {
+        if (recurrence != null)
+            return recurrence.toString();
         return expectedStart + " to " + expectedEnd;
     }
 }
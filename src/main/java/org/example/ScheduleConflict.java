@@ -0,0 +1,75 @@
+package org.example;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * ScheduleConflict describes two labs booked into the same room or with the same person
+ * at overlapping times.
+ */
+public class ScheduleConflict {
+
+    public enum Kind {
+        VENUE, STAFF
+    }
+
+    private final Kind kind;
+    private final String resource;
+    private final Lab lab;
+    private final Lab other;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public ScheduleConflict(Kind kind, String resource, Lab lab, Lab other, LocalDateTime start, LocalDateTime end) {
+        this.kind = kind;
+        this.resource = resource;
+        this.lab = lab;
+        this.other = other;
+        this.start = start;
+        this.end = end;
+    }
+
+    // overlap of two intervals given in epoch seconds
+    static ScheduleConflict of(Kind kind, String resource, Lab lab, Lab other,
+                               long start1, long end1, long start2, long end2) {
+        return new ScheduleConflict(kind, resource, lab, other,
+                LocalDateTime.ofEpochSecond(Math.max(start1, start2), 0, ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(Math.min(end1, end2), 0, ZoneOffset.UTC));
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    // the room or person both labs want
+    public String getResource() {
+        return resource;
+    }
+
+    public Lab getLab() {
+        return lab;
+    }
+
+    public Lab getOther() {
+        return other;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        String what = kind == Kind.VENUE ? "Room " + resource : resource;
+        return what + " is booked for both " + describe(lab) + " and " + describe(other)
+                + " (" + start + " to " + end + ")";
+    }
+
+    private static String describe(Lab l) {
+        return l.getId() == null || l.getId().isEmpty() ? l.getName() : l.getId();
+    }
+}
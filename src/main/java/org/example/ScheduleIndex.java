@@ -0,0 +1,222 @@
+package org.example;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * ScheduleIndex is an interval tree over lab schedules and recorded sessions.
+ * Single Responsibility: Answer "which labs run at time t" and "which labs start on date d".
+ *
+ * Each lab remembers the tree nodes of its intervals so they can be removed again
+ * when its schedule changes.
+ *
+ * Weekly schedules are not expanded into the tree. They are filed once under the minute
+ * of the week they start at; a lookup reads the few rules starting within the longest
+ * rule length before t and asks each rule whether it actually runs that week.
+ *
+ * Sessions on different labs may be added from several threads at once, so the index takes
+ * its own read-write lock: lookups share it, changes hold it only for the tree update.
+ */
+public class ScheduleIndex {
+
+    private static final int WEEK_MINUTES = 7 * 24 * 60;
+
+    private final IntervalTree<Lab> tree = new IntervalTree<>();
+    private final Map<Lab, IntervalTree.Node<Lab>> scheduleNodes = new IdentityHashMap<>();
+    private final Map<Lab, List<IntervalTree.Node<Lab>>> sessionNodes = new IdentityHashMap<>();
+    private final NavigableMap<Integer, List<Lab>> weekly = new TreeMap<>();
+    private final Map<Lab, Integer> weeklyStart = new IdentityHashMap<>();
+    // only grows; a stale bound just widens the candidate range a little
+    private int maxWeeklyMinutes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ScheduleIndex(List<Lab> labs) {
+        for (Lab lab : labs)
+            add(lab);
+    }
+
+    public void add(Lab lab) {
+        lock.writeLock().lock();
+        try {
+            addSchedule(lab);
+            SessionLog log = lab.getSessionLog();
+            int n = log.size();
+            if (n == 0)
+                return;
+            List<IntervalTree.Node<Lab>> nodes = sessionNodes.computeIfAbsent(lab, k -> new ArrayList<>(n));
+            for (int i = 0; i < n; i++) {
+                int start = log.startMinute(i);
+                if (start == SessionLog.NO_TIME)
+                    continue;
+                int end = log.endMinute(i);
+                nodes.add(tree.insert(lab, start * 60L, end == SessionLog.NO_TIME ? IntervalTree.NO_END : end * 60L));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Lab lab) {
+        lock.writeLock().lock();
+        try {
+            removeSchedule(lab);
+            List<IntervalTree.Node<Lab>> sessions = sessionNodes.remove(lab);
+            if (sessions != null) {
+                for (IntervalTree.Node<Lab> s : sessions)
+                    tree.delete(s);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void sessionAdded(Lab lab, TimeSheet ts) {
+        if (ts == null || ts.getActualStart() == null)
+            return;
+        lock.writeLock().lock();
+        try {
+            IntervalTree.Node<Lab> n = insert(lab, ts.getActualStart(), ts.getActualEnd());
+            sessionNodes.computeIfAbsent(lab, k -> new ArrayList<>()).add(n);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void scheduleChanged(Lab lab) {
+        lock.writeLock().lock();
+        try {
+            removeSchedule(lab);
+            addSchedule(lab);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addSchedule(Lab lab) {
+        Schedule s = lab.getSchedule();
+        if (s == null)
+            return;
+        if (s.isRecurring()) {
+            Recurrence r = s.getRecurrence();
+            weekly.computeIfAbsent(r.minuteOfWeek(), k -> new ArrayList<>()).add(lab);
+            weeklyStart.put(lab, r.minuteOfWeek());
+            maxWeeklyMinutes = Math.max(maxWeeklyMinutes, r.lengthMinutes());
+        } else if (s.getExpectedStart() != null) {
+            scheduleNodes.put(lab, insert(lab, s.getExpectedStart(), s.getExpectedEnd()));
+        }
+    }
+
+    private void removeSchedule(Lab lab) {
+        IntervalTree.Node<Lab> old = scheduleNodes.remove(lab);
+        if (old != null)
+            tree.delete(old);
+        Integer minute = weeklyStart.remove(lab);
+        if (minute != null) {
+            List<Lab> labs = weekly.get(minute);
+            labs.remove(lab);
+            if (labs.isEmpty())
+                weekly.remove(minute);
+        }
+    }
+
+    /**
+     * Labs with a schedule or session interval containing t (ends inclusive).
+     */
+    public Set<Lab> labsActiveAt(LocalDateTime t) {
+        lock.readLock().lock();
+        try {
+            Set<Lab> result = new LinkedHashSet<>();
+            tree.stab(toKey(t), result::add);
+            int minute = minuteOfWeek(t.toLocalDate().getDayOfWeek()) + t.getHour() * 60 + t.getMinute();
+            int from = minute - maxWeeklyMinutes;
+            weeklyCandidates(Math.max(from, 0), minute + 1, lab -> lab.getSchedule().occursAt(t), result);
+            if (from < 0) // rules late in the previous week that run past Monday 00:00
+                weeklyCandidates(WEEK_MINUTES + from, WEEK_MINUTES, lab -> lab.getSchedule().occursAt(t), result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Labs with a schedule or session starting on the given date.
+     */
+    public Set<Lab> labsStartingOn(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            Set<Lab> result = new LinkedHashSet<>();
+            tree.startingIn(toKey(date.atStartOfDay()), toKey(date.plusDays(1).atStartOfDay()), result::add);
+            int dayStart = minuteOfWeek(date.getDayOfWeek());
+            weeklyCandidates(dayStart, dayStart + 24 * 60, lab -> lab.getSchedule().occursOn(date), result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The labsActiveAt test for one lab, for re-checking a lab that just changed.
+     */
+    public static boolean activeAt(Lab lab, LocalDateTime t) {
+        Schedule s = lab.getSchedule();
+        // open-ended intervals never match, as in the tree
+        if (s != null && (s.isRecurring() ? s.occursAt(t) : s.getExpectedStart() != null && s.getExpectedEnd() != null
+                && !t.isBefore(s.getExpectedStart()) && !t.isAfter(s.getExpectedEnd())))
+            return true;
+        long key = toKey(t);
+        SessionLog log = lab.getSessionLog();
+        for (int i = 0; i < log.size(); i++) {
+            int start = log.startMinute(i);
+            int end = log.endMinute(i);
+            if (start != SessionLog.NO_TIME && end != SessionLog.NO_TIME && start * 60L <= key && end * 60L >= key)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * The labsStartingOn test for one lab.
+     */
+    public static boolean startsOn(Lab lab, LocalDate date) {
+        Schedule s = lab.getSchedule();
+        if (s != null && s.occursOn(date))
+            return true;
+        int from = SessionLog.toMinute(date.atStartOfDay());
+        int to = SessionLog.toMinute(date.plusDays(1).atStartOfDay());
+        SessionLog log = lab.getSessionLog();
+        for (int i = 0; i < log.size(); i++) {
+            int start = log.startMinute(i);
+            if (start != SessionLog.NO_TIME && start >= from && start < to)
+                return true;
+        }
+        return false;
+    }
+
+    // rules starting in [from, to) minutes of the week that pass the check
+    private void weeklyCandidates(int from, int to, Predicate<Lab> runs, Set<Lab> out) {
+        for (List<Lab> labs : weekly.subMap(from, true, to, false).values()) {
+            for (Lab lab : labs) {
+                if (runs.test(lab))
+                    out.add(lab);
+            }
+        }
+    }
+
+    private static int minuteOfWeek(DayOfWeek day) {
+        return (day.getValue() - 1) * 24 * 60;
+    }
+
+    private static long toKey(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private IntervalTree.Node<Lab> insert(Lab lab, LocalDateTime start, LocalDateTime end) {
+        return tree.insert(lab, toKey(start), end == null ? IntervalTree.NO_END : toKey(end));
+    }
+}
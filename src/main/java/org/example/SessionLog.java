@@ -0,0 +1,280 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.RandomAccess;
+
+/**
+ * SessionLog is a lab's session history stored column by column.
+ * Single Responsibility: Keep many sessions in primitive arrays instead of one object graph each.
+ *
+ * Start and end times are int minutes since the epoch (UTC), the same precision the data file
+ * uses, and a bitset marks leaves. A session costs eight bytes plus one bit instead of a
+ * TimeSheet with two LocalDateTimes. The List view hands out a fresh TimeSheet per get();
+ * changing that copy does not change the log, use set() for that.
+ *
+ * snapshot() returns a read-only log sharing the columns. Appends write past the end a
+ * snapshot can see; any edit inside that range copies the columns first.
+ */
+public class SessionLog extends AbstractList<TimeSheet> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // stands for a missing start or end
+    public static final int NO_TIME = Integer.MIN_VALUE;
+
+    private transient int[] starts;
+    private transient int[] ends;
+    // sessions missing a start or an end, counted as leaves
+    private transient BitSet leaves;
+    private transient int size;
+    // bumped by every change, so a snapshot can tell it is out of date
+    private transient int version;
+    // the columns are shared with a snapshot up to this length
+    private transient int sharedLength;
+    private transient boolean readOnly;
+    private transient Runnable onChange;
+
+    public SessionLog() {
+        this(8);
+    }
+
+    public SessionLog(int capacity) {
+        starts = new int[Math.max(capacity, 1)];
+        ends = new int[starts.length];
+        leaves = new BitSet();
+    }
+
+    // ---- primitive access ----
+
+    /**
+     * Appends a session given in epoch minutes; NO_TIME for a missing side.
+     */
+    public void addMinutes(int start, int end) {
+        beforeWrite(size);
+        if (size == starts.length) {
+            int capacity = size + (size >> 1) + 1;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            sharedLength = 0; // fresh arrays, snapshots keep the old ones
+        }
+        starts[size] = start;
+        ends[size] = end;
+        leaves.set(size, start == NO_TIME || end == NO_TIME);
+        size++;
+        modCount++;
+        version++;
+        changed();
+    }
+
+    public int startMinute(int i) {
+        checkIndex(i);
+        return starts[i];
+    }
+
+    public int endMinute(int i) {
+        checkIndex(i);
+        return ends[i];
+    }
+
+    public boolean isLeave(int i) {
+        checkIndex(i);
+        return leaves.get(i);
+    }
+
+    // ---- aggregates, plain scans over the arrays ----
+
+    public long contactMinutes() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            if (starts[i] != NO_TIME && ends[i] != NO_TIME)
+                total += ends[i] - starts[i];
+        }
+        return total;
+    }
+
+    public int leaveCount() {
+        return leaves.cardinality();
+    }
+
+    // earliest start of a held session, or null
+    public LocalDateTime firstStart() {
+        int first = NO_TIME;
+        for (int i = 0; i < size; i++) {
+            if (!leaves.get(i) && (first == NO_TIME || starts[i] < first))
+                first = starts[i];
+        }
+        return toTime(first);
+    }
+
+    // latest end of a held session, or null
+    public LocalDateTime lastEnd() {
+        int last = NO_TIME;
+        for (int i = 0; i < size; i++) {
+            if (!leaves.get(i) && ends[i] > last)
+                last = ends[i];
+        }
+        return toTime(last);
+    }
+
+    // ---- List view ----
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TimeSheet get(int i) {
+        checkIndex(i);
+        return new TimeSheet(toTime(starts[i]), toTime(ends[i]));
+    }
+
+    @Override
+    public TimeSheet set(int i, TimeSheet ts) {
+        TimeSheet old = get(i);
+        beforeWrite(i);
+        version++;
+        starts[i] = toMinute(ts.getActualStart());
+        ends[i] = toMinute(ts.getActualEnd());
+        leaves.set(i, starts[i] == NO_TIME || ends[i] == NO_TIME);
+        changed();
+        return old;
+    }
+
+    @Override
+    public void add(int i, TimeSheet ts) {
+        if (i < 0 || i > size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        addMinutes(toMinute(ts.getActualStart()), toMinute(ts.getActualEnd()));
+        if (i < size - 1) {
+            beforeWrite(i);
+            int s = starts[size - 1];
+            int e = ends[size - 1];
+            System.arraycopy(starts, i, starts, i + 1, size - 1 - i);
+            System.arraycopy(ends, i, ends, i + 1, size - 1 - i);
+            starts[i] = s;
+            ends[i] = e;
+            rebuildLeaves();
+        }
+    }
+
+    @Override
+    public TimeSheet remove(int i) {
+        TimeSheet old = get(i);
+        beforeWrite(i);
+        System.arraycopy(starts, i + 1, starts, i, size - 1 - i);
+        System.arraycopy(ends, i + 1, ends, i, size - 1 - i);
+        size--;
+        rebuildLeaves();
+        modCount++;
+        version++;
+        changed();
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        beforeWrite(0);
+        size = 0;
+        leaves.clear();
+        modCount++;
+        version++;
+        changed();
+    }
+
+    // ---- snapshots ----
+
+    /**
+     * A read-only copy of the log as it is now, sharing the columns with it.
+     */
+    public SessionLog snapshot() {
+        SessionLog copy = new SessionLog(0);
+        copy.starts = starts;
+        copy.ends = ends;
+        copy.leaves = (BitSet) leaves.clone();
+        copy.size = size;
+        copy.version = version;
+        copy.readOnly = true;
+        sharedLength = Math.max(sharedLength, size);
+        return copy;
+    }
+
+    // called after every change, set by the owning lab while a store listens to it
+    void onChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    private void changed() {
+        if (onChange != null)
+            onChange.run();
+    }
+
+    // changes on every edit; equal versions mean equal contents
+    public int version() {
+        return version;
+    }
+
+    // copies the columns before overwriting anything a snapshot can see
+    private void beforeWrite(int from) {
+        if (readOnly)
+            throw new UnsupportedOperationException("Session log snapshot is read-only");
+        if (from < sharedLength) {
+            starts = starts.clone();
+            ends = ends.clone();
+            sharedLength = 0;
+        }
+    }
+
+    private void rebuildLeaves() {
+        leaves.clear();
+        for (int i = 0; i < size; i++) {
+            if (starts[i] == NO_TIME || ends[i] == NO_TIME)
+                leaves.set(i);
+        }
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+    }
+
+    // ---- conversions ----
+
+    public static int toMinute(LocalDateTime t) {
+        if (t == null)
+            return NO_TIME;
+        return Math.toIntExact(Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60L));
+    }
+
+    public static LocalDateTime toTime(int minute) {
+        return minute == NO_TIME ? null : LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    // ---- java.io serialization: the two columns, not a TimeSheet per session ----
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(starts[i]);
+            out.writeInt(ends[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int n = in.readInt();
+        starts = new int[Math.max(n, 1)];
+        ends = new int[starts.length];
+        leaves = new BitSet();
+        for (int i = 0; i < n; i++)
+            addMinutes(in.readInt(), in.readInt());
+    }
+}
@@ -0,0 +1,211 @@
+package org.example;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * SlotFinder searches for times when a lab's room and staff are all free.
+ * Single Responsibility: Suggest makeup session slots.
+ *
+ * The search range is cut into fixed 15-minute steps. Each resource gets a BitSet
+ * with a bit set for every busy step, so combining the instructor, the TAs and a room
+ * is a few word-wide ORs and free runs are found with nextSetBit/nextClearBit.
+ *
+ * Busy time comes from regular lab schedules (via the DataStore's booking index; weekly
+ * schedules are expanded only inside the search range) and from makeup requests, pending or approved, so two makeups are not offered the same slot.
+ */
+public class SlotFinder {
+
+    public static final int STEP_MINUTES = 15;
+    private static final long STEP_SECONDS = STEP_MINUTES * 60L;
+
+    private final DataStore dataStore;
+    private LocalTime dayStart = LocalTime.of(8, 0);
+    private LocalTime dayEnd = LocalTime.of(18, 0);
+
+    /**
+     * A free time in a particular room.
+     */
+    public static class FreeSlot {
+        private final Venue venue;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        public FreeSlot(Venue venue, LocalDateTime start, LocalDateTime end) {
+            this.venue = venue;
+            this.start = start;
+            this.end = end;
+        }
+
+        public Venue getVenue() {
+            return venue;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return start.toLocalDate() + " " + start.toLocalTime() + "-" + end.toLocalTime()
+                    + (venue == null ? "" : "  " + venue);
+        }
+    }
+
+    public SlotFinder(DataStore dataStore) {
+        this.dataStore = dataStore;
+    }
+
+    // only slots inside these hours are offered
+    public void setWorkingHours(LocalTime dayStart, LocalTime dayEnd) {
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+    }
+
+    /**
+     * The earliest non-overlapping slots of the given length between from and to (inclusive)
+     * where the instructor, every TA and either the lab's room or another room in the same
+     * building are free. The lab's own room is preferred when several rooms are free.
+     */
+    public List<FreeSlot> findFreeSlots(Lab lab, Duration length, LocalDate from, LocalDate to, int limit) {
+        List<FreeSlot> result = new ArrayList<>();
+        int need = (int) ((length.toMinutes() + STEP_MINUTES - 1) / STEP_MINUTES);
+        if (need <= 0 || to.isBefore(from) || limit <= 0)
+            return result;
+
+        long origin = toKey(from.atStartOfDay());
+        long limitKey = toKey(to.plusDays(1).atStartOfDay());
+        int steps = (int) ((limitKey - origin) / STEP_SECONDS);
+        ConflictIndex bookings = dataStore.bookings();
+
+        // everyone on the lab's staff has to be free
+        BitSet staffBusy = new BitSet(steps);
+        Set<String> staff = new LinkedHashSet<>();
+        for (String name : ConflictIndex.staffNames(lab)) {
+            String key = Names.normalize(name);
+            if (key != null && !key.isEmpty() && staff.add(key))
+                bookings.staffSlots(name, origin, limitKey, (l, s, e) -> mark(staffBusy, origin, steps, s, e));
+        }
+
+        List<Venue> rooms = candidateRooms(lab);
+        List<BitSet> busy = new ArrayList<>();
+        for (Venue room : rooms) {
+            BitSet roomBusy = (BitSet) staffBusy.clone();
+            bookings.venueSlots(room, origin, limitKey, (l, s, e) -> mark(roomBusy, origin, steps, s, e));
+            busy.add(roomBusy);
+        }
+        if (rooms.isEmpty()) {
+            rooms.add(lab.getVenue());
+            busy.add(staffBusy);
+        }
+        markRequests(rooms, staff, busy, origin, limitKey, steps);
+
+        int perDay = (int) (Duration.ofDays(1).getSeconds() / STEP_SECONDS);
+        int open = dayStart.toSecondOfDay() / (int) STEP_SECONDS;
+        int close = dayEnd.toSecondOfDay() / (int) STEP_SECONDS;
+        for (int day = 0; day * perDay < steps && result.size() < limit; day++) {
+            int pos = day * perDay + open;
+            int windowEnd = day * perDay + close;
+            while (pos + need <= windowEnd && result.size() < limit) {
+                // earliest start at or after pos in any room; rooms earlier in the list win ties
+                int best = -1;
+                int bestRoom = -1;
+                for (int r = 0; r < busy.size(); r++) {
+                    int start = firstFreeRun(busy.get(r), pos, windowEnd, need);
+                    if (start >= 0 && (best < 0 || start < best)) {
+                        best = start;
+                        bestRoom = r;
+                    }
+                }
+                if (best < 0)
+                    break;
+                LocalDateTime s = toTime(origin + best * STEP_SECONDS);
+                result.add(new FreeSlot(rooms.get(bestRoom), s, s.plus(length)));
+                pos = best + need;
+            }
+        }
+        return result;
+    }
+
+    // first start in [pos, windowEnd) with need clear steps, or -1
+    private static int firstFreeRun(BitSet busy, int pos, int windowEnd, int need) {
+        while (pos + need <= windowEnd) {
+            int start = busy.nextClearBit(pos);
+            if (start + need > windowEnd)
+                return -1;
+            int nextBusy = busy.nextSetBit(start);
+            if (nextBusy < 0 || nextBusy >= start + need)
+                return start;
+            pos = nextBusy;
+        }
+        return -1;
+    }
+
+    // the lab's own room first, then the other rooms used by labs in the same building
+    private List<Venue> candidateRooms(Lab lab) {
+        Map<String, Venue> rooms = new LinkedHashMap<>();
+        Venue own = lab.getVenue();
+        String ownKey = ConflictIndex.venueKey(own);
+        if (ownKey == null)
+            return new ArrayList<>();
+        rooms.put(ownKey, own);
+        for (Lab other : dataStore.getLabsInBuilding(own.getBuilding())) {
+            String key = ConflictIndex.venueKey(other.getVenue());
+            if (key != null)
+                rooms.putIfAbsent(key, other.getVenue());
+        }
+        return new ArrayList<>(rooms.values());
+    }
+
+    // makeup requests hold their lab's room and staff like a regular session
+    private void markRequests(List<Venue> rooms, Set<String> staff, List<BitSet> busy,
+                              long origin, long limitKey, int steps) {
+        for (MakeupLabRequest req : dataStore.getRequests()) {
+            long[] span = ConflictIndex.spanOf(req.getSchedule());
+            if (span == null || span[1] <= origin || span[0] >= limitKey)
+                continue;
+            Lab reqLab = dataStore.findLab(req.getLabId());
+            if (reqLab == null)
+                continue;
+            boolean staffClash = false;
+            for (String name : ConflictIndex.staffNames(reqLab)) {
+                if (staff.contains(Names.normalize(name)))
+                    staffClash = true;
+            }
+            String reqRoom = ConflictIndex.venueKey(reqLab.getVenue());
+            for (int r = 0; r < rooms.size(); r++) {
+                String key = ConflictIndex.venueKey(rooms.get(r));
+                BitSet bits = busy.get(r);
+                if (staffClash || (reqRoom != null && reqRoom.equals(key)))
+                    ConflictIndex.occurrences(req.getSchedule(), origin, limitKey, reqLab,
+                            (l, s, e) -> mark(bits, origin, steps, s, e));
+            }
+        }
+    }
+
+    // sets every step touched by [start, end)
+    private static void mark(BitSet bits, long origin, int steps, long start, long end) {
+        if (end == IntervalTree.NO_END)
+            return;
+        long from = Math.max(0, Math.floorDiv(start - origin, STEP_SECONDS));
+        long to = Math.min(steps, Math.floorDiv(end - origin + STEP_SECONDS - 1, STEP_SECONDS));
+        if (from < to)
+            bits.set((int) from, (int) to);
+    }
+
+    private static long toKey(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toTime(long key) {
+        return LocalDateTime.ofEpochSecond(key, 0, ZoneOffset.UTC);
+    }
+}
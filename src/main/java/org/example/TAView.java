@@ -7,7 +7,6 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import java.nio.file.Path;
 
 /**
  * TAView - Dashboard for Teaching Assistant role.
@@ -17,14 +16,13 @@ public class TAView {
     
     private final Stage stage;
     private final User user;
-    private final LabRepository labRepository;
     private final UIController uiController;
+    private LiveLabView labsView;
     
     public TAView(Stage stage, User user) {
         this.stage = stage;
         this.user = user;
-        this.labRepository = new LabRepository(Path.of("data", "datastore.dat"));
-        this.uiController = new UIController(labRepository);
+        this.uiController = new UIController(DataService.getInstance());
     }
     
     public void show() {
@@ -37,7 +35,7 @@ public class TAView {
         
         // Main content - labs table
         TableView<Lab> table = uiController.createLabsTable(user);
-        table.setItems(uiController.getLabsForUser(user, UIController.LabViewMode.ACTIVE_NOW));
+        labsView = uiController.createLabsView(user, table, LabViewMode.ACTIVE_NOW);
         root.setCenter(uiController.createTableContainer(table));
         
         // Controls - only TA features
@@ -87,10 +85,10 @@ public class TAView {
         viewTimesheetBtn.setOnAction(e -> openTimesheetDialog());
         contactHoursBtn.setOnAction(e -> openContactHoursDialog());
 
-        ChoiceBox<UIController.LabViewMode> viewChoice = new ChoiceBox<>();
-        viewChoice.getItems().addAll(UIController.LabViewMode.ACTIVE_NOW, UIController.LabViewMode.ALL, UIController.LabViewMode.TODAY);
-        viewChoice.setValue(UIController.LabViewMode.ACTIVE_NOW);
-        viewChoice.setOnAction(e -> table.setItems(uiController.getLabsForUser(user, viewChoice.getValue())));
+        ChoiceBox<LabViewMode> viewChoice = new ChoiceBox<>();
+        viewChoice.getItems().addAll(LabViewMode.ACTIVE_NOW, LabViewMode.ALL, LabViewMode.TODAY);
+        viewChoice.setValue(LabViewMode.ACTIVE_NOW);
+        viewChoice.setOnAction(e -> labsView.setMode(viewChoice.getValue()));
 
         HBox primaryActions = new HBox(10, viewAssignedBtn, viewTimesheetBtn, contactHoursBtn, new Label(" "), viewChoice);
         primaryActions.setPadding(new Insets(10));
@@ -114,18 +112,13 @@ public class TAView {
         
         ListView<String> labsList = new ListView<>();
         
-        // Get all labs and filter by this TA
-        uiController.getLabs().forEach(lab -> {
-            for (TA ta : lab.getTas()) {
-                if (ta.getName().equalsIgnoreCase(user.getName())) {
-                    String timeStr = lab.getSchedule() != null ? 
-                        lab.getSchedule().getExpectedStart().getHour() + ":00 - " + 
-                        lab.getSchedule().getExpectedEnd().getHour() + ":00" : "TBD";
-                    String instructorStr = lab.getInstructor() != null ? lab.getInstructor().getName() : "TBD";
-                    labsList.getItems().add(lab.getName() + " - " + timeStr + " (Instructor: " + instructorStr + ")");
-                    break;
-                }
-            }
+        // Get the labs this TA is assigned to
+        uiController.getLabsForUser(user, LabViewMode.ALL).forEach(lab -> {
+            String timeStr = lab.getSchedule() != null ? 
+                lab.getSchedule().getExpectedStart().getHour() + ":00 - " + 
+                lab.getSchedule().getExpectedEnd().getHour() + ":00" : "TBD";
+            String instructorStr = lab.getInstructor() != null ? lab.getInstructor().getName() : "TBD";
+            labsList.getItems().add(lab.getName() + " - " + timeStr + " (Instructor: " + instructorStr + ")");
         });
         
         if (labsList.getItems().isEmpty()) {
@@ -176,13 +169,23 @@ public class TAView {
         VBox content = new VBox(10);
         content.setPadding(new Insets(15));
         
+        // each lab's total is a scan of its sessions, so it is read once per lab
+        StringBuilder sb = new StringBuilder();
+        long totalMinutes = 0;
+        for (Lab lab : uiController.getLabsForUser(user, LabViewMode.ALL)) {
+            long minutes = lab.totalContactMinutes();
+            totalMinutes += minutes;
+            sb.append(lab.getId()).append(": ")
+              .append(String.format("%.1f", minutes / 60.0)).append(" hours (")
+              .append(lab.sessionCount()).append(" sessions, ")
+              .append(lab.leavesCount()).append(" leaves)\n");
+        }
+        if (sb.length() == 0) {
+            sb.append("No labs assigned\n");
+        }
+        
         TextArea hoursText = new TextArea();
-        hoursText.setText("Total Contact Hours: 33 hours\n" +
-                         "CS101: 11 hours\n" +
-                         "CS102: 12 hours\n" +
-                         "CS103: 10 hours\n" +
-                         "Required: 40 hours\n" +
-                         "Progress: 82.5%");
+        hoursText.setText("Total Contact Hours: " + String.format("%.1f", totalMinutes / 60.0) + " hours\n" + sb);
         hoursText.setEditable(false);
         hoursText.setWrapText(true);
         hoursText.setPrefHeight(220);
@@ -198,8 +201,9 @@ public class TAView {
     }
     
     private void logout() {
+        uiController.flushPendingSaves();
         try {
-            LoginUI loginUI = new LoginUI(new UserRepository(Path.of("data", "users.dat")));
+            LoginUI loginUI = new LoginUI(UserDirectory.getInstance());
             loginUI.show(stage);
         } catch (Exception ex) {
             AlertHelper.showError("Error", "Failed to load login screen");
@@ -1,21 +1,40 @@
 package org.example;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.concurrent.Task;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.Priority;
-import java.io.IOException;
-import java.time.LocalDateTime;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 // UIController manages all UI control logic and event handling.
 public class UIController {
 
-    // list of labs
+    private static final int MAX_LISTED_CONFLICTS = 500;
+    private static final int MAX_LISTED_IMPORT_ERRORS = 500;
+
+    // list of labs, the master list every dashboard view filters
     private ObservableList<Lab> labs = FXCollections.observableArrayList();
-    private LabRepository repository;
+    // open dashboard views, dropped once their window is gone
+    private final Set<LiveLabView> liveViews = Collections.newSetFromMap(new WeakHashMap<>());
+    // formatted table rows, made on first paint and dropped when the lab leaves labs
+    private final Map<Lab, LabRow> rows = new IdentityHashMap<>();
+    // where each lab sits in labs; checked on use and rebuilt if the list was edited elsewhere
+    private final Map<Lab, Integer> positions = new IdentityHashMap<>();
+    private DataService dataService;
     private DialogFactory dialogFactory;
     private ReportGenerator reportGenerator;
 
@@ -23,163 +42,47 @@ public class UIController {
     private AcademicOfficer academicOfficer;
 
     // constructor
-    public UIController(LabRepository repository) {
-        this.repository = repository;
+    public UIController(DataService dataService) {
+        this.dataService = dataService;
         this.dialogFactory = new DialogFactory(labs);
-        this.reportGenerator = new ReportGenerator(labs);
-        try {
-            this.dataStore = repository.load();
-            if (this.dataStore.getLabs().isEmpty()) {
-                this.dataStore = generateDefaultData();
-                repository.save(this.dataStore);
-            }
-        } catch (Exception e) {
-            this.dataStore = generateDefaultData();
-            try {
-                repository.save(this.dataStore);
-            } catch (IOException ignored) {
-            }
-        }
-        this.academicOfficer = new AcademicOfficer(dataStore);
-        this.labs.setAll(dataStore.getLabs());
-    }
-
-    private DataStore generateDefaultData() {
-        DataStore ds = new DataStore();
-
-        // Create instructors with Pakistani names
-        Instructor dr_ahmed = new Instructor("I-001", "Dr. Taimoor Pasha");
-        Instructor dr_fatima = new Instructor("I-002", "Dr. Ayesha Siddiqui");
-        Instructor dr_hassan = new Instructor("I-003", "Dr. Bilal Ahmed");
-
-        ds.getInstructors().add(dr_ahmed);
-        ds.getInstructors().add(dr_fatima);
-        ds.getInstructors().add(dr_hassan);
-
-        // Create TAs with Pakistani names
-        TA ali_khan = new TA("TA-001", "Hamza Khan");
-        TA sara_hussain = new TA("TA-002", "Fatima Batool");
-        TA usman_baig = new TA("TA-003", "Usman Ghani");
-        TA ayesha_malik = new TA("TA-004", "Zainab Bibi");
-
-        ds.getTas().add(ali_khan);
-        ds.getTas().add(sara_hussain);
-        ds.getTas().add(usman_baig);
-        ds.getTas().add(ayesha_malik);
-
-        // Lab 1: Database Systems
-        Lab lab1 = new Lab("LAB001", "Database Systems");
-        lab1.setVenue(new Venue("CS Building", "Room 101"));
-        lab1.setSchedule(new Schedule(
-                LocalDateTime.of(2024, 11, 18, 10, 0),
-                LocalDateTime.of(2024, 11, 18, 12, 0)));
-        lab1.setInstructor(dr_ahmed);
-        lab1.addTA(ali_khan);
-        lab1.addTA(sara_hussain);
-
-        ds.getLabs().add(lab1);
-
-        // Lab 2: Web Development
-        Lab lab2 = new Lab("LAB002", "Web Development");
-        lab2.setVenue(new Venue("CS Building", "Room 102"));
-        lab2.setSchedule(new Schedule(
-                LocalDateTime.of(2024, 11, 18, 14, 0),
-                LocalDateTime.of(2024, 11, 18, 16, 0)));
-        lab2.setInstructor(dr_fatima);
-        lab2.addTA(usman_baig);
-
-        ds.getLabs().add(lab2);
+        this.reportGenerator = new ReportGenerator(dataService);
+        labs.addListener(this::dropRows);
+        currentStore();
+        // failed saves, and loads that fell back to the backup or to sample data
+        dataService.getAutoSaver().setErrorHandler(ex -> Platform.runLater(
+                () -> AlertHelper.showError("Data Storage", ex.getMessage())));
+    }
 
+    // the shared store; rebinds this controller if it was reloaded from disk
+    private DataStore currentStore() {
+        DataStore ds = dataService.getDataStore();
+        if (ds != dataStore) {
+            dataStore = ds;
+            academicOfficer = new AcademicOfficer(ds);
+            rows.clear(); // the old store's labs
+            setLabs(ds.getLabs());
+            refreshViews();
+        }
         return ds;
     }
 
-    public enum LabViewMode {
-        ALL, ACTIVE_NOW, TODAY
+    /**
+     * A live table model for the user's dashboard: rows follow lab changes made through this
+     * controller, and switching mode only changes the filter.
+     */
+    public LiveLabView createLabsView(User user, TableView<Lab> table, LabViewMode mode) {
+        currentStore();
+        LiveLabView view = new LiveLabView(labs, dataService, LiveLabView.scopeOf(user));
+        view.setMode(mode);
+        liveViews.add(view);
+        view.getItems().comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(view.getItems());
+        return view;
     }
 
-    // get labs for a specific user based on mode
+    // a one-off copy of the labs for a specific user based on mode
     public ObservableList<Lab> getLabsForUser(User user, LabViewMode mode) {
-        ObservableList<Lab> result = FXCollections.observableArrayList();
-        LocalDateTime now = LocalDateTime.now();
-
-        // loop through all labs
-        for (Lab lab : dataStore.getLabs()) {
-            boolean includeByActive = true;
-            if (mode == LabViewMode.ACTIVE_NOW) {
-                includeByActive = false;
-                Schedule s = lab.getSchedule();
-                if (s != null && s.getExpectedStart() != null && s.getExpectedEnd() != null) {
-                    if (!now.isBefore(s.getExpectedStart()) && !now.isAfter(s.getExpectedEnd()))
-                        includeByActive = true;
-                }
-                if (!includeByActive) {
-                    for (TimeSheet ts : lab.getSessions()) {
-                        if (ts.getActualStart() != null && ts.getActualEnd() != null) {
-                            if (!now.isBefore(ts.getActualStart()) && !now.isAfter(ts.getActualEnd())) {
-                                includeByActive = true;
-                                break;
-                            }
-                        }
-                    }
-                }
-            } else if (mode == LabViewMode.TODAY) {
-                includeByActive = false;
-                java.time.LocalDate today = now.toLocalDate();
-                Schedule s = lab.getSchedule();
-                if (s != null && s.getExpectedStart() != null) {
-                    if (s.getExpectedStart().toLocalDate().equals(today))
-                        includeByActive = true;
-                }
-                if (!includeByActive) {
-                    for (TimeSheet ts : lab.getSessions()) {
-                        if (ts.getActualStart() != null) {
-                            if (ts.getActualStart().toLocalDate().equals(today)) {
-                                includeByActive = true;
-                                break;
-                            }
-                        }
-                    }
-                }
-            } // else ALL -> includeByActive stays true
-
-            if (!includeByActive)
-                continue;
-
-            // check user role
-            switch (user.getRole()) {
-                case ACADEMIC_OFFICER:
-                    result.add(lab);
-                    break;
-                case ATTENDANT:
-                    if (lab.getVenue() != null && lab.getVenue().getBuilding() != null
-                            && user.getBuilding() != null
-                            && lab.getVenue().getBuilding().equalsIgnoreCase(user.getBuilding())) {
-                        result.add(lab);
-                    }
-                    break;
-                case HOD:
-                    result.add(lab);
-                    break;
-                case INSTRUCTOR:
-                    if (lab.getInstructor() != null && lab.getInstructor().getName() != null
-                            && lab.getInstructor().getName().equalsIgnoreCase(user.getName())) {
-                        result.add(lab);
-                    }
-                    break;
-                case TA:
-                    for (TA ta : lab.getTas()) {
-                        if (ta.getName() != null && ta.getName().equalsIgnoreCase(user.getName())) {
-                            result.add(lab);
-                            break;
-                        }
-                    }
-                    break;
-                default:
-                    break;
-            }
-        }
-
-        return result;
+        return FXCollections.observableArrayList(currentStore().getLabsForUser(user, mode));
     }
 
     public TableView<Lab> createLabsTable() {
@@ -195,62 +98,41 @@ public class UIController {
         // Lab ID column
         TableColumn<Lab, String> idCol = new TableColumn<>("Lab ID");
         idCol.setPrefWidth(80);
-        idCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
-                cell.getValue() == null || cell.getValue().getId() == null ? "" : cell.getValue().getId()));
+        idCol.setCellValueFactory(cell -> cell.getValue() == null ? null : rowOf(cell.getValue()).idProperty());
         idCol.setStyle("-fx-alignment: CENTER;");
 
         // Lab name column
         TableColumn<Lab, String> nameCol = new TableColumn<>("Lab Name");
         nameCol.setPrefWidth(140);
-        nameCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
-                cell.getValue() == null || cell.getValue().getName() == null ? "" : cell.getValue().getName()));
+        nameCol.setCellValueFactory(cell -> cell.getValue() == null ? null : rowOf(cell.getValue()).nameProperty());
 
         // Venue column
         TableColumn<Lab, String> venueCol = new TableColumn<>("Location");
         venueCol.setPrefWidth(160);
-        venueCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
-                cell.getValue() == null || cell.getValue().getVenue() == null ? "N/A"
-                        : cell.getValue().getVenue().toString()));
+        venueCol.setCellValueFactory(cell -> cell.getValue() == null ? null : rowOf(cell.getValue()).venueProperty());
 
-        table.getColumns().addAll(idCol, nameCol, venueCol);
+        // Schedule column
+        TableColumn<Lab, String> scheduleCol = new TableColumn<>("Schedule");
+        scheduleCol.setPrefWidth(200);
+        scheduleCol.setCellValueFactory(cell -> cell.getValue() == null ? null : rowOf(cell.getValue()).scheduleProperty());
+
+        table.getColumns().addAll(idCol, nameCol, venueCol, scheduleCol);
 
         // add extra columns based on role
         if (user == null || user.getRole() == User.Role.ACADEMIC_OFFICER || user.getRole() == User.Role.HOD) {
             TableColumn<Lab, String> instrCol = new TableColumn<>("Instructor");
             instrCol.setPrefWidth(140);
-            instrCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
-                    cell.getValue() == null || cell.getValue().getInstructor() == null ? "Unassigned"
-                            : cell.getValue().getInstructor().getName()));
+            instrCol.setCellValueFactory(cell -> cell.getValue() == null ? null : rowOf(cell.getValue()).instructorProperty());
 
             TableColumn<Lab, String> tasCol = new TableColumn<>("Teaching Assistants");
             tasCol.setPrefWidth(180);
-            tasCol.setCellValueFactory(cell -> {
-                if (cell.getValue() == null || cell.getValue().getTas().isEmpty())
-                    return new javafx.beans.property.SimpleStringProperty("None");
-                StringBuilder sb = new StringBuilder();
-                for (TA ta : cell.getValue().getTas()) {
-                    if (sb.length() > 0)
-                        sb.append(", ");
-                    sb.append(ta.getName());
-                }
-                return new javafx.beans.property.SimpleStringProperty(sb.toString());
-            });
+            tasCol.setCellValueFactory(cell -> cell.getValue() == null ? null : rowOf(cell.getValue()).tasProperty());
 
             table.getColumns().addAll(instrCol, tasCol);
         } else if (user.getRole() == User.Role.INSTRUCTOR) {
             TableColumn<Lab, String> tasCol = new TableColumn<>("Teaching Assistants");
             tasCol.setPrefWidth(160);
-            tasCol.setCellValueFactory(cell -> {
-                if (cell.getValue() == null || cell.getValue().getTas().isEmpty())
-                    return new javafx.beans.property.SimpleStringProperty("None");
-                StringBuilder sb = new StringBuilder();
-                for (TA ta : cell.getValue().getTas()) {
-                    if (sb.length() > 0)
-                        sb.append(", ");
-                    sb.append(ta.getName());
-                }
-                return new javafx.beans.property.SimpleStringProperty(sb.toString());
-            });
+            tasCol.setCellValueFactory(cell -> cell.getValue() == null ? null : rowOf(cell.getValue()).tasProperty());
             table.getColumns().add(tasCol);
         }
 
@@ -347,41 +229,63 @@ public class UIController {
     // handle load button
     private void handleLoad() {
         try {
-            DataStore ds = repository.load();
-            labs.setAll(ds.getLabs());
-            dataStore = ds;
-            AlertHelper.showSuccess("Load Successful", "Loaded " + ds.getLabs().size() + " labs from disk");
+            dataService.reload();
+            DataStore ds = currentStore();
+            AlertHelper.showSuccess("Load Successful", "Loaded " + ds.getLabs().size() + " labs from "
+                    + (dataService.isRemote() ? "the server" : "disk"));
         } catch (Exception ex) {
             AlertHelper.showError("Load Failed", "Could not load data: " + ex.getMessage());
         }
     }
 
-    // handle save button
+    // handle save button; every edit already reached the store, so this only writes it out
     private void handleSave() {
-        try {
-            dataStore.getLabs().clear();
-            dataStore.getLabs().addAll(labs);
-            repository.save(dataStore);
-            AlertHelper.showSuccess("Save Successful", "Saved " + labs.size() + " labs to disk");
-        } catch (IOException ex) {
-            AlertHelper.showError("Save Failed", "Could not save data: " + ex.getMessage());
-        }
+        int count = currentStore().getLabs().size();
+        // written on the autosave thread; the result is reported back on the FX thread
+        dataService.getAutoSaver().saveNow().whenComplete((ok, ex) -> Platform.runLater(() -> {
+            if (ex == null)
+                AlertHelper.showSuccess("Save Successful", dataService.isRemote()
+                        ? "All changes were sent to the server" : "Saved " + count + " labs to disk");
+            else
+                AlertHelper.showError("Save Failed", "Could not save data: " + ex.getMessage());
+        }));
+    }
+
+    // queue a single change for the background journal writer
+    private void handleRecord(LabJournal.Entry entry) {
+        dataService.getAutoSaver().record(entry);
+    }
+
+    // block until queued changes are on disk (logout / exit)
+    public void flushPendingSaves() {
+        dataService.getAutoSaver().flush();
     }
 
     public void handleAddLab() {
+        currentStore();
         dialogFactory.createAddLabDialog().showAndWait().ifPresent(lab -> {
-            labs.add(lab);
-            handleSave(); // Auto-save
+            if (!confirmConflicts(academicOfficer.checkNewLab(lab)))
+                return;
+            dataStore.addLab(lab);
+            labAdded(lab);
+            handleRecord(new LabJournal.LabCreated(lab)); // Auto-save
             AlertHelper.showSuccess("Lab Created", "Lab '" + lab.getName() + "' has been created successfully");
         });
     }
 
     public void handleAssignStaff() {
+        currentStore();
         Lab sel = dialogFactory.createSelectLabDialog();
         if (sel == null)
             return;
 
         dialogFactory.createAssignStaffDialog(sel).showAndWait().ifPresent(result -> {
+            if (result.name.isEmpty()) {
+                AlertHelper.showError("Invalid Input", "Please enter a name");
+                return;
+            }
+            if (!confirmConflicts(academicOfficer.checkStaff(sel.getId(), result.name)))
+                return;
             if (result.isInstructor) {
                 academicOfficer.assignInstructor(sel.getId(), result.name);
                 AlertHelper.showSuccess("Assigned", "Instructor assigned to " + sel.getId());
@@ -389,32 +293,190 @@ public class UIController {
                 academicOfficer.assignTA(sel.getId(), result.name);
                 AlertHelper.showSuccess("Assigned", "TA assigned to " + sel.getId());
             }
-            handleSave(); // Auto-save
-            refreshTable();
+            handleRecord(new LabJournal.StaffAssigned(sel.getId(), result.name, result.isInstructor)); // Auto-save
+            labUpdated(sel);
         });
     }
 
+    public void handleSetSchedule(String labId, Schedule schedule) {
+        currentStore();
+        if (!confirmConflicts(academicOfficer.checkSchedule(labId, schedule)))
+            return;
+        academicOfficer.setSchedule(labId, schedule);
+        handleRecord(new LabJournal.ScheduleChanged(labId, schedule)); // Auto-save
+        labUpdated(dataStore.findLab(labId));
+        AlertHelper.showSuccess("Schedule", "Schedule saved for " + labId);
+    }
+
+    // campus-wide sweep for double-booked rooms and staff
+    public void handleConflictAudit() {
+        currentStore();
+        List<ScheduleConflict> conflicts = academicOfficer.auditConflicts();
+        if (conflicts.isEmpty()) {
+            AlertHelper.showSuccess("Conflict Check", "No room or staff conflicts found");
+            return;
+        }
+        Dialog<Void> dlg = new Dialog<>();
+        dlg.setTitle("Conflict Check");
+        dlg.setHeaderText(conflicts.size() + " conflict(s) found");
+        dlg.getDialogPane().setPrefSize(600, 400);
+        dlg.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        TextArea area = new TextArea(describeConflicts(conflicts, MAX_LISTED_CONFLICTS));
+        area.setStyle(StyleManager.REPORT_TEXT_STYLE);
+        area.setEditable(false);
+        area.setWrapText(true);
+        dlg.getDialogPane().setContent(area);
+        dlg.showAndWait();
+    }
+
+    // true when there is nothing to report or the user chose to go ahead anyway
+    private boolean confirmConflicts(List<ScheduleConflict> conflicts) {
+        if (conflicts.isEmpty())
+            return true;
+        return AlertHelper.confirm("Schedule Conflict",
+                describeConflicts(conflicts, 10) + "\nSave anyway?");
+    }
+
+    private static String describeConflicts(List<ScheduleConflict> conflicts, int limit) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < conflicts.size() && i < limit; i++)
+            sb.append("• ").append(conflicts.get(i)).append("\n");
+        if (conflicts.size() > limit)
+            sb.append("... and ").append(conflicts.size() - limit).append(" more\n");
+        return sb.toString();
+    }
+
+    /**
+     * Imports CSV files in the background, shows what was accepted and rejected, and on
+     * confirmation applies the valid rows and saves one snapshot.
+     */
+    public void handleBulkImport(List<Path> files) {
+        if (dataService.isRemote()) {
+            // an import is saved as a whole snapshot, which only the server writes
+            AlertHelper.showError("Bulk Import", "Imports are not sent to the server. Run 'LabCli import' where the server's data is.");
+            return;
+        }
+        BulkImporter importer = new BulkImporter(currentStore());
+        Task<BulkImporter.Batch> task = new Task<>() {
+            @Override
+            protected BulkImporter.Batch call() throws Exception {
+                return importer.prepare(files);
+            }
+        };
+        task.setOnSucceeded(e -> confirmImport(task.getValue()));
+        task.setOnFailed(e -> AlertHelper.showError("Import Failed",
+                "Could not read import files: " + task.getException().getMessage()));
+        Thread t = new Thread(task, "csv-import");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void confirmImport(BulkImporter.Batch batch) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("Labs: ").append(batch.getLabCount()).append("\n")
+                .append("Staff assignments: ").append(batch.getAssignmentCount()).append("\n")
+                .append("Sessions: ").append(batch.getSessionCount()).append("\n")
+                .append("Makeup requests: ").append(batch.getRequestCount()).append("\n")
+                .append("Rejected rows: ").append(batch.getErrorCount());
+
+        Dialog<Boolean> dlg = new Dialog<>();
+        dlg.setTitle("Bulk Import");
+        dlg.setHeaderText(summary.toString());
+        dlg.getDialogPane().setPrefSize(600, 400);
+        if (batch.getErrorCount() > 0) {
+            StringBuilder errors = new StringBuilder();
+            List<BulkImporter.RowError> listed = batch.getErrors();
+            for (int i = 0; i < listed.size() && i < MAX_LISTED_IMPORT_ERRORS; i++)
+                errors.append("• ").append(listed.get(i)).append("\n");
+            if (batch.getErrorCount() > MAX_LISTED_IMPORT_ERRORS)
+                errors.append("... and ").append(batch.getErrorCount() - MAX_LISTED_IMPORT_ERRORS).append(" more\n");
+            TextArea area = new TextArea(errors.toString());
+            area.setStyle(StyleManager.REPORT_TEXT_STYLE);
+            area.setEditable(false);
+            dlg.getDialogPane().setContent(area);
+        }
+        if (batch.getValidCount() > 0)
+            dlg.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        else
+            dlg.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dlg.setResultConverter(bt -> bt == ButtonType.OK ? Boolean.TRUE : null);
+        if (!dlg.showAndWait().isPresent())
+            return;
+
+        DataStore ds = currentStore();
+        batch.commit(ds);
+        setLabs(ds.getLabs());
+        refreshViews();
+        int count = batch.getValidCount();
+        // one snapshot for the whole import instead of a journal record per row
+        dataService.getAutoSaver().saveNow().whenComplete((ok, ex) -> Platform.runLater(() -> {
+            if (ex == null)
+                AlertHelper.showSuccess("Bulk Import", "Imported " + count + " rows");
+            else
+                AlertHelper.showError("Save Failed", "Imported rows could not be saved: " + ex.getMessage());
+        }));
+    }
+
     public void handleEnterTimeSheet() {
+        currentStore();
         Lab sel = dialogFactory.createSelectLabDialog();
         if (sel == null)
             return;
 
         dialogFactory.createEnterTimeSheetDialog(sel).showAndWait().ifPresent(ts -> {
-            sel.addSession(ts);
-            handleSave(); // Auto-save
+            int position = dataStore.addSession(sel, ts);
+            labUpdated(sel);
+            handleRecord(new LabJournal.SessionAdded(sel.getId(), ts, position)); // Auto-save
             AlertHelper.showSuccess("TimeSheet Added", "Entry recorded for " + sel.getId());
         });
     }
 
+    /**
+     * Reads a door-reader log in the background. Sessions are paired there and added on the
+     * FX thread in batches, each journaled as one write.
+     */
+    public void handleAttendanceImport(Path file) {
+        DataStore ds = currentStore();
+        Task<AttendanceIngestor> task = new Task<>() {
+            @Override
+            protected AttendanceIngestor call() throws Exception {
+                AttendanceIngestor ingestor = new AttendanceIngestor(ds, dataService.getAutoSaver(), Platform::runLater,
+                        ex -> Platform.runLater(() -> AlertHelper.showError("Import Failed",
+                                "Some sessions could not be added: " + ex.getMessage())));
+                try (Reader in = Files.newBufferedReader(file)) {
+                    ingestor.ingest(in);
+                } finally {
+                    ingestor.close();
+                }
+                return ingestor;
+            }
+        };
+        task.setOnSucceeded(e -> {
+            AttendanceIngestor result = task.getValue();
+            refreshViews();
+            AlertHelper.showSuccess("Attendance Import", "Sessions added: " + result.getSessions()
+                    + "\nEvents read: " + result.getReceived()
+                    + "\nReplayed events skipped: " + result.getDuplicates()
+                    + "\nUnpaired events: " + result.getUnmatched()
+                    + "\nRejected lines: " + result.getRejected());
+        });
+        task.setOnFailed(e -> AlertHelper.showError("Import Failed",
+                "Could not read attendance log: " + task.getException().getMessage()));
+        Thread t = new Thread(task, "attendance-import");
+        t.setDaemon(true);
+        t.start();
+    }
+
     public void handleRequestMakeup() {
+        currentStore();
         Lab sel = dialogFactory.createSelectLabDialog();
         if (sel == null)
             return;
 
-        dialogFactory.createRequestMakeupDialog(sel).showAndWait().ifPresent(req -> {
+        dialogFactory.createRequestMakeupDialog(sel, new SlotFinder(dataStore)).showAndWait().ifPresent(req -> {
             try {
                 dataStore.getRequests().add(req);
-                handleSave(); // Auto-save
+                handleRecord(new LabJournal.MakeupRequested(req)); // Auto-save
                 AlertHelper.showSuccess("Makeup Requested", "Request submitted for approval");
             } catch (Exception ex) {
                 AlertHelper.showError("Error", "Could not save request: " + ex.getMessage());
@@ -431,75 +493,83 @@ public class UIController {
 
     // get labs for user with active only flag
     public ObservableList<Lab> getLabsForUser(User user, boolean activeOnly) {
-        ObservableList<Lab> result = FXCollections.observableArrayList();
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Lab lab : dataStore.getLabs()) {
-            // check active state
-            boolean active = true;
-            if (activeOnly) {
-                active = false;
-                Schedule s = lab.getSchedule();
-                if (s != null && s.getExpectedStart() != null && s.getExpectedEnd() != null) {
-                    if (!now.isBefore(s.getExpectedStart()) && !now.isAfter(s.getExpectedEnd()))
-                        active = true;
-                }
-                if (!active) {
-                    for (TimeSheet ts : lab.getSessions()) {
-                        if (ts.getActualStart() != null && ts.getActualEnd() != null) {
-                            if (!now.isBefore(ts.getActualStart()) && !now.isAfter(ts.getActualEnd())) {
-                                active = true;
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
+        return getLabsForUser(user, activeOnly ? LabViewMode.ACTIVE_NOW : LabViewMode.ALL);
+    }
 
-            if (!active)
-                continue;
+    // the cached row for a lab; a lookup, no allocation once the row exists
+    private LabRow rowOf(Lab lab) {
+        LabRow row = rows.get(lab);
+        if (row == null) {
+            row = new LabRow(lab);
+            rows.put(lab, row);
+        }
+        return row;
+    }
 
-            // role-based scoping
-            switch (user.getRole()) {
-                case ACADEMIC_OFFICER:
-                    result.add(lab);
-                    break;
-                case ATTENDANT:
-                    if (lab.getVenue() != null && lab.getVenue().getBuilding() != null
-                            && user.getBuilding() != null
-                            && lab.getVenue().getBuilding().equalsIgnoreCase(user.getBuilding())) {
-                        result.add(lab);
-                    }
-                    break;
-                case HOD:
-                    // HOD sees all labs for now
-                    result.add(lab);
-                    break;
-                case INSTRUCTOR:
-                    if (lab.getInstructor() != null && lab.getInstructor().getName() != null
-                            && lab.getInstructor().getName().equalsIgnoreCase(user.getName())) {
-                        result.add(lab);
-                    }
-                    break;
-                case TA:
-                    for (TA ta : lab.getTas()) {
-                        if (ta.getName() != null && ta.getName().equalsIgnoreCase(user.getName())) {
-                            result.add(lab);
-                            break;
-                        }
-                    }
-                    break;
-                default:
-                    break;
+    // forgets the rows of labs removed from labs; a replaced lab that is still listed keeps its row
+    private void dropRows(ListChangeListener.Change<? extends Lab> change) {
+        while (change.next()) {
+            if (!change.wasRemoved() || rows.isEmpty())
+                continue;
+            Set<Lab> added = Collections.newSetFromMap(new IdentityHashMap<>());
+            added.addAll(change.getAddedSubList());
+            for (Lab lab : change.getRemoved()) {
+                if (!added.contains(lab))
+                    rows.remove(lab);
             }
         }
+    }
 
-        return result;
+    private void setLabs(List<Lab> all) {
+        positions.clear(); // refilled on the next lookup
+        labs.setAll(all);
+    }
+
+    // one add event for the views instead of reloading the list
+    private void labAdded(Lab lab) {
+        for (LiveLabView view : liveViews)
+            view.labChanged(lab);
+        if (!positions.isEmpty())
+            positions.put(lab, labs.size());
+        labs.add(lab);
+    }
+
+    // the lab's index in labs, or -1
+    private int positionOf(Lab lab) {
+        Integer i = positions.get(lab);
+        if (i != null && i < labs.size() && labs.get(i) == lab)
+            return i;
+        positions.clear();
+        for (int k = 0; k < labs.size(); k++)
+            positions.put(labs.get(k), k);
+        i = positions.get(lab);
+        return i == null ? -1 : i;
+    }
+
+    // one update event: the views re-test and redraw just this lab's row
+    private void labUpdated(Lab lab) {
+        if (lab == null)
+            return;
+        LabRow row = rows.get(lab);
+        if (row != null)
+            row.invalidate();
+        for (LiveLabView view : liveViews)
+            view.labChanged(lab);
+        int i = positionOf(lab);
+        if (i >= 0) {
+            labs.set(i, lab);
+        } else {
+            positions.put(lab, labs.size());
+            labs.add(lab);
+        }
     }
 
-    private void refreshTable() {
-        labs.clear();
-        labs.addAll(dataStore.getLabs());
+    // after many labs changed at once
+    private void refreshViews() {
+        for (LabRow row : rows.values())
+            row.invalidate();
+        for (LiveLabView view : liveViews)
+            view.refresh();
     }
 
     public ReportGenerator getReportGenerator() {
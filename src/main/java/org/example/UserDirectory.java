@@ -0,0 +1,100 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserDirectory keeps the user roster in memory, indexed by username.
+ * Single Responsibility: Look up and authenticate users without rereading users.dat.
+ *
+ * The roster is loaded once per process and shared by every login screen; it is
+ * reloaded only when users.dat has changed on disk since it was last read. Lookups read
+ * the current roster without locking, so concurrent server requests do not queue here.
+ */
+public class UserDirectory {
+
+    private static UserDirectory instance;
+
+    // replaced as a whole on reload
+    private static final class Roster {
+        final List<User> users;
+        final Map<String, User> byUsername;
+        final String fingerprint;
+
+        Roster(List<User> users, Map<String, User> byUsername, String fingerprint) {
+            this.users = users;
+            this.byUsername = byUsername;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final UserRepository repository;
+    private volatile Roster roster = new Roster(Collections.emptyList(), Collections.emptyMap(), null);
+
+    public UserDirectory(UserRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Returns the process-wide directory backed by data/users.dat.
+     */
+    public static synchronized UserDirectory getInstance() {
+        if (instance == null) {
+            instance = new UserDirectory(new UserRepository(Path.of("data", "users.dat")));
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the user with these credentials, or null.
+     */
+    public User authenticate(String username, String password) throws IOException, ClassNotFoundException {
+        User user = findByUsername(username);
+        if (user != null && user.getPassword().equals(password))
+            return user;
+        return null;
+    }
+
+    public User findByUsername(String username) throws IOException, ClassNotFoundException {
+        Roster r = current();
+        return username == null ? null : r.byUsername.get(username);
+    }
+
+    public List<User> getUsers() throws IOException, ClassNotFoundException {
+        return current().users;
+    }
+
+    /**
+     * Loads the roster if it was never read or users.dat changed since.
+     */
+    public void ensureLoaded() throws IOException, ClassNotFoundException {
+        current();
+    }
+
+    private Roster current() throws IOException, ClassNotFoundException {
+        // taken before reading, so a write that races with the load triggers another reload
+        String fingerprint = repository.fingerprint();
+        Roster r = roster;
+        if (fingerprint.equals(r.fingerprint))
+            return r;
+        synchronized (this) {
+            r = roster;
+            if (fingerprint.equals(r.fingerprint))
+                return r;
+            List<User> loaded = repository.loadUsers();
+            Map<String, User> index = new HashMap<>(loaded.size() * 2);
+            for (User user : loaded) {
+                // the old linear scan stopped at the first match, so the first entry wins
+                if (user.getUsername() != null)
+                    index.putIfAbsent(user.getUsername(), user);
+            }
+            r = new Roster(Collections.unmodifiableList(loaded), index, fingerprint);
+            roster = r;
+            return r;
+        }
+    }
+}
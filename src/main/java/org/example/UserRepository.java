@@ -19,18 +19,29 @@ public class UserRepository {
     }
 
     /**
-     * Saves a list of users to disk.
+     * Modification time and size of users.dat, used to notice changes made by others.
      */
-    public void saveUsers(List<User> users) throws IOException {
-        Files.createDirectories(filePath.getParent());
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(filePath.toFile()))) {
-            oos.writeObject(users);
+    public String fingerprint() {
+        try {
+            if (!Files.exists(filePath))
+                return "-";
+            return Files.getLastModifiedTime(filePath).toMillis() + ":" + Files.size(filePath);
+        } catch (IOException e) {
+            return "?";
         }
     }
 
+    /**
+     * Saves a list of users to disk in the compact binary format.
+     * The old file is only replaced once the new one is fully written.
+     */
+    public void saveUsers(List<User> users) throws IOException {
+        AtomicFile.write(filePath, out -> DataStoreCodec.writeUsers(users, out));
+    }
+
     /**
      * Loads users from disk. Returns default users if file doesn't exist.
+     * Legacy files written with java.io serialization are still readable.
      */
     @SuppressWarnings("unchecked")
     public List<User> loadUsers() throws IOException, ClassNotFoundException {
@@ -39,9 +50,12 @@ public class UserRepository {
             saveUsers(defaults);
             return defaults;
         }
-        try (ObjectInputStream ois = new ObjectInputStream(
+        try (InputStream in = new BufferedInputStream(
                 new FileInputStream(filePath.toFile()))) {
-            return (List<User>) ois.readObject();
+            if (DataStoreCodec.isBinaryFormat(in)) {
+                return DataStoreCodec.readUsers(in);
+            }
+            return (List<User>) new ObjectInputStream(in).readObject();
         }
     }
 
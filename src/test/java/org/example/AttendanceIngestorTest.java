@@ -0,0 +1,185 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttendanceIngestorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 9, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private final List<Exception> errors = new ArrayList<>();
+
+    // a service over a fresh store with labs L1 and L2, saved so it is not replaced by sample data
+    private DataService service() throws IOException {
+        DataStore ds = new DataStore();
+        ds.addLab(new Lab("L1", "Networks"));
+        ds.addLab(new Lab("L2", "Databases"));
+        new LabRepository(dir.resolve("datastore.dat"), true).save(ds);
+        DataService service = new DataService(new LabRepository(dir.resolve("datastore.dat"), true));
+        service.getDataStore().ensureIndexed();
+        return service;
+    }
+
+    private AttendanceIngestor ingestor(DataService service) {
+        return new AttendanceIngestor(service.getDataStore(), service.getAutoSaver(), Runnable::run, errors::add);
+    }
+
+    private static AttendanceIngestor.Event in(String lab, String person, int minutes) {
+        return new AttendanceIngestor.Event(lab, person, T0.plusMinutes(minutes), true);
+    }
+
+    private static AttendanceIngestor.Event out(String lab, String person, int minutes) {
+        return new AttendanceIngestor.Event(lab, person, T0.plusMinutes(minutes), false);
+    }
+
+    private static void submit(AttendanceIngestor ingestor, AttendanceIngestor.Event... events) throws InterruptedException {
+        for (AttendanceIngestor.Event e : events)
+            ingestor.submit(e);
+        ingestor.flush();
+    }
+
+    @Test
+    void sessionLastsUntilTheLastPersonLeaves() throws Exception {
+        DataService service = service();
+        String log = "lab_id,person_id,time,in|out\n"
+                + "L1,p1,2025-09-01T09:00,in\n"
+                + "L1,p2,2025-09-01 09:10:30,in\n"
+                + "L1,p1,2025-09-01T10:00,out\n"
+                + "L1,p2,2025-09-01T10:30,out\n"
+                + "L1,p3,yesterday,in\n"
+                + "L1,p3\n";
+
+        try (AttendanceIngestor ingestor = ingestor(service)) {
+            assertEquals(4, ingestor.ingest(new StringReader(log)));
+            ingestor.flush();
+
+            assertEquals(4, ingestor.getReceived());
+            assertEquals(2, ingestor.getRejected());
+            assertEquals(1, ingestor.getSessions());
+        }
+        Lab lab = service.getDataStore().findLab("L1");
+        assertEquals(1, lab.sessionCount());
+        assertEquals(T0, lab.getSessions().get(0).getActualStart());
+        assertEquals(90, lab.totalContactMinutes());
+        assertTrue(errors.isEmpty());
+
+        // the session reaches the journal
+        service.getAutoSaver().flush();
+        assertEquals(1, new LabRepository(dir.resolve("datastore.dat"), true).load().findLab("L1").sessionCount());
+    }
+
+    @Test
+    void repeatedEventsAreDuplicates() throws Exception {
+        DataService service = service();
+        try (AttendanceIngestor ingestor = ingestor(service)) {
+            submit(ingestor,
+                    in("L1", "p1", 0),
+                    in("L1", "p1", 0),     // same event again
+                    out("L1", "p1", 60),
+                    out("L1", "p1", 60));
+
+            assertEquals(2, ingestor.getDuplicates());
+            assertEquals(0, ingestor.getUnmatched());
+            assertEquals(1, ingestor.getSessions());
+        }
+        assertEquals(1, service.getDataStore().findLab("L1").sessionCount());
+    }
+
+    @Test
+    void replayedLogDoesNotAddSessionsAgain() throws Exception {
+        DataService service = service();
+        String log = "L1,p1,2025-09-01T09:00,in\nL1,p1,2025-09-01T11:00,out\n";
+        try (AttendanceIngestor first = ingestor(service)) {
+            first.ingest(new StringReader(log));
+        }
+
+        // a fresh ingestor has no pairing state, so only the store can tell
+        try (AttendanceIngestor again = ingestor(service)) {
+            again.ingest(new StringReader(log));
+            again.flush();
+
+            assertEquals(0, again.getSessions());
+            assertEquals(1, again.getDuplicates());
+        }
+        assertEquals(1, service.getDataStore().findLab("L1").sessionCount());
+    }
+
+    @Test
+    void outOfOrderEventsForOnePersonAreDropped() throws Exception {
+        DataService service = service();
+        try (AttendanceIngestor ingestor = ingestor(service)) {
+            // the check-in arrives after the check-out it belongs to
+            submit(ingestor, out("L1", "p1", 60), in("L1", "p1", 0));
+
+            assertEquals(1, ingestor.getUnmatched());
+            assertEquals(1, ingestor.getDuplicates());
+            assertEquals(0, ingestor.getSessions());
+
+            // interleaving between people and labs is fine
+            submit(ingestor,
+                    in("L2", "p2", 120), in("L1", "p3", 100), out("L2", "p2", 180),
+                    in("L2", "p2", 200), out("L1", "p3", 150), out("L2", "p2", 210));
+
+            assertEquals(3, ingestor.getSessions());
+        }
+        DataStore ds = service.getDataStore();
+        assertEquals(50, ds.findLab("L1").totalContactMinutes());
+        assertEquals(2, ds.findLab("L2").sessionCount());
+        assertEquals(70, ds.findLab("L2").totalContactMinutes());
+    }
+
+    @Test
+    void checkOutWithoutCheckInAndDoubleCheckInAreUnmatched() throws Exception {
+        DataService service = service();
+        try (AttendanceIngestor ingestor = ingestor(service)) {
+            submit(ingestor,
+                    out("L1", "p1", 10),
+                    in("L1", "p2", 20), in("L1", "p2", 30), out("L1", "p2", 40));
+
+            assertEquals(2, ingestor.getUnmatched());
+            assertEquals(1, ingestor.getSessions());
+        }
+        // the first check-in counts
+        assertEquals(20, service.getDataStore().findLab("L1").totalContactMinutes());
+    }
+
+    @Test
+    void sessionsForUnknownLabsAreRejected() throws Exception {
+        DataService service = service();
+        try (AttendanceIngestor ingestor = ingestor(service)) {
+            submit(ingestor,
+                    in("L9", "p1", 0), out("L9", "p1", 60),
+                    in("L1", "p1", 0), out("L1", "p1", 60));
+
+            assertEquals(1, ingestor.getRejected());
+            assertEquals(1, ingestor.getSessions());
+        }
+        assertNull(service.getDataStore().findLab("L9"));
+        assertEquals(2, service.getDataStore().getLabs().size());
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    void occupiedRoomsAreNotCommittedOnClose() throws Exception {
+        DataService service = service();
+        AttendanceIngestor ingestor = ingestor(service);
+        submit(ingestor, in("L1", "p1", 0));
+        ingestor.close();
+
+        assertEquals(0, ingestor.getSessions());
+        assertEquals(0, service.getDataStore().findLab("L1").sessionCount());
+        assertThrows(IllegalStateException.class, () -> ingestor.submit(in("L1", "p1", 10)));
+    }
+}
@@ -0,0 +1,165 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkImporterTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 9, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private static BulkImporter.Batch prepare(DataStore ds, String name, String csv) throws IOException {
+        return new BulkImporter(ds).prepare(name, new StringReader(csv));
+    }
+
+    private static DataStore oneLab() {
+        DataStore ds = new DataStore();
+        ds.addLab(new Lab("L1", "Networks"));
+        return ds;
+    }
+
+    private Path file(String name, String csv) throws IOException {
+        return Files.writeString(dir.resolve(name), csv, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void malformedRowsAreReportedWithTheLineTheyStartOn() throws IOException {
+        String csv = "id,name,building,room,start,end\n"
+                + "L2,Databases,CS Building,Room 102,,\n"          // 2: fine
+                + "L3,,CS Building,Room 103,,\n"                   // 3: no name
+                + "L4,Compilers,,,2025-09-01 09:00,\n"             // 4: start without end
+                + "L5,Graphics,,,2025-09-01T11:00,2025-09-01T10:00\n" // 5: end before start
+                + "L6,\"Operating\nSystems\",,,,\n"                // 6-7: quoted newline
+                + "L7,Robotics,,,noon,2025-09-01T10:00\n"          // 8: bad time
+                + "L1,Networks again,,,,\n"                        // 9: already in the store
+                + "L2,Databases again,,,,\n";                      // 10: earlier in the file
+
+        BulkImporter.Batch batch = prepare(oneLab(), "labs.csv", csv);
+
+        assertEquals(BulkImporter.Kind.LABS, batch.getFiles().get("labs.csv"));
+        assertEquals(2, batch.getLabCount());
+        assertEquals(6, batch.getErrorCount());
+        List<BulkImporter.RowError> errors = batch.getErrors();
+        assertEquals(List.of(3, 4, 5, 8, 9, 10), errors.stream().map(BulkImporter.RowError::getLine).toList());
+        assertEquals("Missing name", errors.get(0).getMessage());
+        assertEquals("Give both start and end, or neither", errors.get(1).getMessage());
+        assertTrue(errors.get(2).getMessage().startsWith("End "));
+        assertEquals("Bad start time 'noon'", errors.get(3).getMessage());
+        assertEquals("labs.csv:9: Lab L1 already exists", errors.get(4).toString());
+        assertEquals("Lab L2 already exists", errors.get(5).getMessage());
+    }
+
+    @Test
+    void unrecognisedOrEmptyFilesAreOneError() throws IOException {
+        BulkImporter.Batch unknown = prepare(oneLab(), "x.csv", "colour,size\nred,large\n");
+        BulkImporter.Batch empty = prepare(oneLab(), "y.csv", "");
+
+        assertEquals(1, unknown.getErrorCount());
+        assertTrue(unknown.getErrors().get(0).getMessage().startsWith("Unrecognised header"));
+        assertEquals("File is empty", empty.getErrors().get(0).getMessage());
+        assertEquals(0, unknown.getValidCount() + empty.getValidCount());
+    }
+
+    @Test
+    void commitAppliesOnlyTheValidRows() throws IOException {
+        DataStore ds = oneLab();
+        // listed before the labs file it depends on
+        Path sessions = file("sessions.csv", "lab_id,start,end\n"
+                + "L1,2025-09-01T09:00,2025-09-01T11:00\n"
+                + "L2,2025-09-02T09:00,2025-09-02T10:30\n"
+                + "L9,2025-09-02T09:00,2025-09-02T10:30\n"
+                + "L2,,\n");
+        Path staff = file("staff.csv", "Name,Role,Lab ID\n"
+                + "Ali Khan,instructor,L2\n"
+                + "Sara Ahmed,ta,L2\n"
+                + "Bilal Shah,professor,L2\n");
+        Path labs = file("labs.csv", "\uFEFFid,name\nL2,Databases\n");
+
+        BulkImporter.Batch batch = new BulkImporter(ds).prepare(List.of(sessions, staff, labs));
+
+        assertEquals(1, batch.getLabCount());
+        assertEquals(2, batch.getAssignmentCount());
+        assertEquals(3, batch.getSessionCount());
+        assertEquals(2, batch.getErrorCount());
+        // labs, then staff, then sessions
+        assertEquals("staff.csv:4: Role must be instructor or ta, not 'professor'", batch.getErrors().get(0).toString());
+        assertEquals("sessions.csv:4: Unknown lab L9", batch.getErrors().get(1).toString());
+        // nothing is applied before commit
+        assertNull(ds.findLab("L2"));
+
+        batch.commit(ds);
+
+        Lab l1 = ds.findLab("L1");
+        Lab l2 = ds.findLab("L2");
+        assertEquals(120, l1.totalContactMinutes());
+        assertEquals(2, l2.sessionCount());
+        assertEquals(1, l2.leavesCount());
+        assertEquals("Ali Khan", l2.getInstructor().getName());
+        assertEquals(List.of("L2"), l2.getInstructor().getLabIds());
+        assertEquals(1, l2.getTas().size());
+        assertEquals(1, ds.getLabsForInstructorName("ali khan").size());
+        assertThrows(IllegalStateException.class, () -> batch.commit(ds));
+    }
+
+    @Test
+    void labsAddedSinceThePrepareAreNotAddedTwice() throws IOException {
+        DataStore ds = oneLab();
+        BulkImporter.Batch batch = prepare(ds, "labs.csv", "id,name\nL2,Databases\nL3,Compilers\n");
+        ds.addLab(new Lab("L2", "Databases"));
+
+        batch.commit(ds);
+
+        assertEquals(3, ds.getLabs().size());
+        assertEquals(1, batch.getErrorCount());
+    }
+
+    @Test
+    void makeupRowsNeedALabAndAFreshId() throws IOException {
+        DataStore ds = oneLab();
+        ds.getRequests().add(new MakeupLabRequest("R1", "L1", "I-1", new Schedule(T0, T0.plusHours(1))));
+        String csv = "id,lab_id,instructor_id,start,end,approved\n"
+                + "R1,L1,I-1,2025-09-03T09:00,2025-09-03T10:00,no\n"
+                + "R2,L1,I-1,2025-09-03T09:00,2025-09-03T10:00,yes\n"
+                + "R3,L1,I-1,2025-09-03T09:00,2025-09-03T10:00,maybe\n"
+                + "R4,L1,I-1,2025-09-03T09:00,,\n"
+                + "R5,L8,I-1,2025-09-03T09:00,2025-09-03T10:00,\n";
+
+        BulkImporter.Batch batch = prepare(ds, "makeups.csv", csv);
+        batch.commit(ds);
+
+        assertEquals(4, batch.getErrorCount());
+        assertEquals(2, ds.getRequests().size());
+        assertTrue(ds.getRequests().get(1).isApproved());
+    }
+
+    @Test
+    void errorsBeyondTheCapAreCountedButNotKept() throws IOException {
+        int bad = BulkImporter.MAX_KEPT_ERRORS + 5;
+        StringBuilder csv = new StringBuilder("lab_id,start,end\n");
+        for (int i = 0; i < bad; i++)
+            csv.append("L1,2025-09-01T09:00,\n");
+        csv.append("L1,2025-09-01T09:00,2025-09-01T10:00\n");
+
+        BulkImporter.Batch batch = prepare(oneLab(), "sessions.csv", csv.toString());
+
+        assertEquals(bad, batch.getErrorCount());
+        assertEquals(BulkImporter.MAX_KEPT_ERRORS, batch.getErrors().size());
+        assertEquals(2, batch.getErrors().get(0).getLine());
+        assertEquals(BulkImporter.MAX_KEPT_ERRORS + 1,
+                batch.getErrors().get(BulkImporter.MAX_KEPT_ERRORS - 1).getLine());
+        // the valid row after them, across several chunks, still gets in
+        assertEquals(1, batch.getSessionCount());
+    }
+}
@@ -0,0 +1,135 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 9, 1, 9, 0);
+
+    private static Lab lab(String id, String room, LocalDateTime start, int minutes) {
+        Lab lab = new Lab(id, id);
+        lab.setVenue(new Venue("CS Building", room));
+        lab.setSchedule(new Schedule(start, start.plusMinutes(minutes)));
+        return lab;
+    }
+
+    private static Lab weekly(String id, String room, DayOfWeek day, LocalTime time) {
+        Lab lab = new Lab(id, id);
+        lab.setVenue(new Venue("CS Building", room));
+        lab.setSchedule(new Schedule(new Recurrence(day, time, Duration.ofHours(2),
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 12, 19), Collections.emptyList())));
+        return lab;
+    }
+
+    // "KIND resource a|b" with the pair in id order, so a pair is the same whichever lab came first
+    private static Set<String> keys(List<ScheduleConflict> conflicts) {
+        Set<String> keys = new TreeSet<>();
+        for (ScheduleConflict c : conflicts)
+            assertTrue(keys.add(key(c.getKind(), c.getResource(), c.getLab(), c.getOther())), "reported twice: " + c);
+        return keys;
+    }
+
+    private static String key(ScheduleConflict.Kind kind, String resource, Lab a, Lab b) {
+        boolean ordered = a.getId().compareTo(b.getId()) < 0;
+        return kind + " " + resource + " " + (ordered ? a.getId() + "|" + b.getId() : b.getId() + "|" + a.getId());
+    }
+
+    @Test
+    void sweepReportsEachOverlapOnce() {
+        List<Lab> labs = List.of(
+                lab("A", "Room 101", T0, 120),
+                lab("B", "Room 101", T0.plusHours(1), 120),
+                lab("C", "Room 101", T0.plusHours(3), 60),  // starts as B ends
+                lab("D", "Room 102", T0, 120));
+
+        assertEquals(Set.of("VENUE CS Building - Room 101 A|B"), keys(ConflictIndex.audit(labs)));
+    }
+
+    @Test
+    void staffAreMatchedByNormalizedName() {
+        Lab a = lab("A", "Room 101", T0, 120);
+        Lab b = lab("B", "Room 102", T0.plusMinutes(30), 60);
+        a.setInstructor(new Instructor("I-1", "Dr  Ahmed"));
+        b.addTA(new TA("TA-1", "dr ahmed"));
+
+        List<ScheduleConflict> conflicts = ConflictIndex.audit(List.of(a, b));
+
+        assertEquals(1, conflicts.size());
+        assertEquals(ScheduleConflict.Kind.STAFF, conflicts.get(0).getKind());
+    }
+
+    @Test
+    void weeklySchedulesClashOnlyOnSharedOccurrences() {
+        Lab monday = weekly("MON", "Room 101", DayOfWeek.MONDAY, LocalTime.of(9, 0));
+        Lab tuesday = weekly("TUE", "Room 101", DayOfWeek.TUESDAY, LocalTime.of(9, 0));
+        Lab makeup = lab("ONE", "Room 101", LocalDateTime.of(2025, 10, 7, 10, 0), 60); // a Tuesday
+        Lab evening = lab("EVE", "Room 101", LocalDateTime.of(2025, 10, 6, 18, 0), 60); // a Monday, later
+
+        List<ScheduleConflict> conflicts = ConflictIndex.audit(List.of(monday, tuesday, makeup, evening));
+
+        assertEquals(Set.of("VENUE CS Building - Room 101 ONE|TUE"), keys(conflicts));
+        // the overlap itself: the makeup hour inside that Tuesday's session
+        assertEquals(LocalDateTime.of(2025, 10, 7, 10, 0), conflicts.get(0).getStart());
+        assertEquals(LocalDateTime.of(2025, 10, 7, 11, 0), conflicts.get(0).getEnd());
+    }
+
+    @Test
+    void sweepAndIndexAgreeWithPairwiseChecks() {
+        Random random = new Random(7);
+        List<Lab> labs = new ArrayList<>();
+        String[] rooms = { "Room 1", "Room 2", "Room 3" };
+        String[] people = { "Ali", "Sara", "Usman", "Ayesha" };
+        for (int i = 0; i < 120; i++) {
+            Lab lab;
+            if (random.nextInt(4) == 0)
+                lab = weekly("W" + i, rooms[random.nextInt(rooms.length)],
+                        DayOfWeek.of(1 + random.nextInt(5)), LocalTime.of(8 + random.nextInt(8), 0));
+            else
+                lab = lab("L" + i, rooms[random.nextInt(rooms.length)],
+                        T0.plusDays(random.nextInt(60)).plusMinutes(30L * random.nextInt(16)), 30 + 30 * random.nextInt(4));
+            if (random.nextBoolean())
+                lab.setInstructor(new Instructor(null, people[random.nextInt(people.length)]));
+            labs.add(lab);
+        }
+
+        Set<String> expected = new TreeSet<>();
+        for (int i = 0; i < labs.size(); i++) {
+            for (int j = i + 1; j < labs.size(); j++) {
+                Lab a = labs.get(i);
+                Lab b = labs.get(j);
+                if (ConflictIndex.firstClash(a.getSchedule(), b.getSchedule()) == null)
+                    continue;
+                if (ConflictIndex.venueKey(a.getVenue()).equals(ConflictIndex.venueKey(b.getVenue())))
+                    expected.add(key(ScheduleConflict.Kind.VENUE, a.getVenue().toString(), a, b));
+                if (a.getInstructor() != null && b.getInstructor() != null
+                        && a.getInstructor().getName().equals(b.getInstructor().getName()))
+                    expected.add(key(ScheduleConflict.Kind.STAFF, a.getInstructor().getName(), a, b));
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, keys(ConflictIndex.audit(labs)));
+
+        // the per-lab index finds the same pairs, each from both sides
+        ConflictIndex index = new ConflictIndex(labs);
+        Set<String> found = new TreeSet<>();
+        for (Lab lab : labs) {
+            for (ScheduleConflict c : index.conflicts(lab))
+                found.add(key(c.getKind(), c.getResource(), c.getLab(), c.getOther()));
+        }
+        assertEquals(expected, found);
+    }
+}
@@ -0,0 +1,184 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataStoreCodecTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 9, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private static DataStore roundTrip(DataStore ds, long generation) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataStoreCodec.write(ds, generation, out);
+        return DataStoreCodec.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static boolean isBinary(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return DataStoreCodec.isBinaryFormat(in);
+        }
+    }
+
+    private static DataStore campus() {
+        DataStore ds = new DataStore();
+        Lab lab = new Lab("L1", "Networks");
+        lab.setVenue(new Venue("CS Building", "Room 101"));
+        lab.setSchedule(new Schedule(T0, T0.plusHours(2)));
+        Instructor instructor = new Instructor("I-1", "Ayesha Siddiqui");
+        TA ta = new TA("TA-1", "Bilal Khan");
+        ds.getInstructors().add(instructor);
+        ds.getTas().add(ta);
+        lab.setInstructor(instructor);
+        lab.addTA(ta);
+        ds.addLab(lab);
+        return ds;
+    }
+
+    @Test
+    void roundTripKeepsLabsStaffAndRequests() throws IOException {
+        DataStore ds = campus();
+        Lab weekly = new Lab("L2", "Ünïcødé ✓ lab");
+        weekly.setSchedule(new Schedule(new Recurrence(DayOfWeek.TUESDAY, LocalTime.of(14, 30), Duration.ofMinutes(90),
+                LocalDate.of(2025, 9, 2), LocalDate.of(2025, 12, 16), Arrays.asList(LocalDate.of(2025, 10, 14)))));
+        weekly.addTA(ds.getTas().get(0));
+        ds.addLab(weekly);
+        ds.getRequests().add(new MakeupLabRequest("R-1", "L1", "I-1",
+                new Schedule(T0.plusDays(3), T0.plusDays(3).plusHours(2)), true, T0.minusDays(1)));
+
+        DataStore copy = roundTrip(ds, 7);
+
+        assertEquals(7, copy.getJournalGeneration());
+        assertEquals(2, copy.getLabs().size());
+        Lab l1 = copy.findLab("L1");
+        assertEquals("Networks", l1.getName());
+        assertEquals("Room 101", l1.getVenue().getRoom());
+        assertEquals(T0.plusHours(2), l1.getSchedule().getExpectedEnd());
+        assertEquals("Ayesha Siddiqui", l1.getInstructor().getName());
+        // one TA on two labs is still one object
+        Lab l2 = copy.findLab("L2");
+        assertEquals("Ünïcødé ✓ lab", l2.getName());
+        assertSame(l1.getTas().get(0), l2.getTas().get(0));
+        Recurrence r = l2.getSchedule().getRecurrence();
+        assertEquals(DayOfWeek.TUESDAY, r.getDay());
+        assertEquals(LocalTime.of(14, 30), r.getStartTime());
+        assertEquals(Duration.ofMinutes(90), r.getLength());
+        assertEquals(LocalDate.of(2025, 12, 16), r.getLastDate());
+        assertEquals(Arrays.asList(LocalDate.of(2025, 10, 14)), r.getExceptions());
+        MakeupLabRequest request = copy.getRequests().get(0);
+        assertTrue(request.isApproved());
+        assertEquals(T0.minusDays(1), request.getRequestedAt());
+        assertEquals(T0.plusDays(3), request.getSchedule().getExpectedStart());
+    }
+
+    @Test
+    void sessionTimesSurviveVarintAndZigzagEdges() throws IOException {
+        DataStore ds = campus();
+        SessionLog log = ds.findLab("L1").getSessionLog();
+        int t = SessionLog.toMinute(T0);
+        // deltas around the one-byte varint boundary (zigzag 127/128), both signs, and leaves
+        int[][] spans = {
+                {t, t},
+                {t + 63, t + 127},
+                {t + 127, t + 64},
+                {t + 63, t - 1},
+                {SessionLog.NO_TIME, SessionLog.NO_TIME},
+                {t, SessionLog.NO_TIME},
+                {SessionLog.toMinute(LocalDateTime.of(1, 1, 1, 0, 0)), t},
+                {SessionLog.toMinute(LocalDateTime.of(6000, 12, 31, 23, 59)), 0},
+                {-1, 1},
+        };
+        for (int[] s : spans)
+            log.addMinutes(s[0], s[1]);
+
+        SessionLog copy = roundTrip(ds, 0).findLab("L1").getSessionLog();
+
+        assertEquals(spans.length, copy.size());
+        for (int i = 0; i < spans.length; i++) {
+            assertEquals(spans[i][0], copy.startMinute(i), "start of session " + i);
+            assertEquals(spans[i][1], copy.endMinute(i), "end of session " + i);
+        }
+        assertEquals(log.leaveCount(), copy.leaveCount());
+    }
+
+    @Test
+    void extremeTimesAndGenerationsRoundTrip() throws IOException {
+        DataStore ds = campus();
+        LocalDateTime earliest = LocalDateTime.MIN;
+        LocalDateTime latest = LocalDateTime.of(LocalDate.MAX, LocalTime.of(23, 59));
+        ds.getRequests().add(new MakeupLabRequest("R-1", "L1", null, new Schedule(earliest, latest), false, latest));
+        ds.getRequests().add(new MakeupLabRequest("R-2", null, "", new Schedule(null, null), false, null));
+
+        DataStore copy = roundTrip(ds, Long.MAX_VALUE);
+
+        assertEquals(Long.MAX_VALUE, copy.getJournalGeneration());
+        MakeupLabRequest first = copy.getRequests().get(0);
+        assertEquals(earliest, first.getSchedule().getExpectedStart());
+        assertEquals(latest, first.getSchedule().getExpectedEnd());
+        assertEquals(latest, first.getRequestedAt());
+        assertNull(first.getRequestedByInstructorId());
+        MakeupLabRequest second = copy.getRequests().get(1);
+        assertNull(second.getLabId());
+        assertEquals("", second.getRequestedByInstructorId());
+        assertNull(second.getSchedule().getExpectedStart());
+        assertNull(second.getRequestedAt());
+    }
+
+    @Test
+    void truncatedFileIsAnError() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataStoreCodec.write(campus(), out);
+        byte[] bytes = out.toByteArray();
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 4);
+
+        assertThrows(IOException.class, () -> DataStoreCodec.read(new ByteArrayInputStream(truncated)));
+        assertFalse(DataStoreCodec.isBinaryFormat(new ByteArrayInputStream(new byte[]{1, 2})));
+    }
+
+    @Test
+    void legacySerializedStoreIsStillRead() throws Exception {
+        DataStore ds = campus();
+        ds.findLab("L1").addSession(new TimeSheet(T0, T0.plusHours(2)));
+        ds.findLab("L1").addSession(new TimeSheet(null, null));
+        Path file = dir.resolve("datastore.dat");
+        try (OutputStream os = Files.newOutputStream(file); ObjectOutputStream out = new ObjectOutputStream(os)) {
+            out.writeObject(ds);
+        }
+        assertFalse(isBinary(file));
+
+        DataStore loaded = new LabRepository(file).load();
+
+        Lab lab = loaded.findLab("L1");
+        assertNotNull(lab);
+        assertEquals("Ayesha Siddiqui", lab.getInstructor().getName());
+        List<TimeSheet> sessions = lab.getSessions();
+        assertEquals(2, sessions.size());
+        assertEquals(T0.plusHours(2), sessions.get(0).getActualEnd());
+        assertEquals(1, lab.leavesCount());
+
+        // the next save writes the binary format
+        new LabRepository(file).save(loaded);
+        assertTrue(isBinary(file));
+    }
+}
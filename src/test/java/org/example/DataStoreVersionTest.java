@@ -0,0 +1,101 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataStoreVersionTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 9, 1, 9, 0);
+
+    private static TimeSheet session(int day) {
+        return new TimeSheet(T0.plusDays(day), T0.plusDays(day).plusHours(2));
+    }
+
+    // L1 with one session, L2 with none
+    private static DataStore campus() {
+        DataStore ds = new DataStore();
+        Lab l1 = new Lab("L1", "Networks");
+        ds.addLab(l1);
+        ds.addLab(new Lab("L2", "Databases"));
+        ds.addSession(l1, session(0));
+        return ds;
+    }
+
+    @Test
+    void versionIgnoresLaterAddSessionAndSet() {
+        DataStore ds = campus();
+        Lab live = ds.findLab("L1");
+        DataStore v1 = ds.publish();
+
+        ds.addSession(live, session(7));
+        live.getSessionLog().set(0, new TimeSheet(null, null));
+        DataStore v2 = ds.publish();
+
+        Lab old = v1.findLab("L1");
+        assertEquals(1, old.sessionCount());
+        assertEquals(0, old.leavesCount());
+        assertEquals(T0, old.getSessions().get(0).getActualStart());
+        assertEquals(2.0, v1.totalContactHours());
+        assertTrue(v1.getLabsActiveAt(T0.plusDays(7).plusHours(1)).isEmpty());
+        assertEquals(1, v1.getLabsActiveAt(T0.plusHours(1)).size());
+
+        Lab now = v2.findLab("L1");
+        assertNotSame(old, now);
+        assertEquals(2, now.sessionCount());
+        assertEquals(1, now.leavesCount());
+        assertEquals(2.0, v2.totalContactHours());
+        assertTrue(v2.getLabsActiveAt(T0.plusHours(1)).isEmpty());
+        assertTrue(v2.getVersion() > v1.getVersion());
+        // the lab that did not change is shared
+        assertSame(v1.findLab("L2"), v2.findLab("L2"));
+    }
+
+    @Test
+    void versionIgnoresLaterStaffAndRequestEdits() {
+        DataStore ds = campus();
+        MakeupLabRequest request = new MakeupLabRequest("R1", "L1", "I-1", new Schedule(T0, T0.plusHours(1)));
+        ds.getRequests().add(request);
+        DataStore v1 = ds.publish();
+
+        AcademicOfficer officer = new AcademicOfficer(ds);
+        officer.assignInstructor("L1", "Ali Khan");
+        request.setApproved(true);
+        ds.requestChanged(request);
+        DataStore v2 = ds.publish();
+
+        assertNull(v1.findLab("L1").getInstructor());
+        assertTrue(v1.getInstructors().isEmpty());
+        assertFalse(v1.getRequests().get(0).isApproved());
+        assertEquals("Ali Khan", v2.findLab("L1").getInstructor().getName());
+        assertEquals(1, v2.getLabsForInstructorName("ali khan").size());
+        assertTrue(v1.getLabsForInstructorName("ali khan").isEmpty());
+        assertTrue(v2.getRequests().get(0).isApproved());
+    }
+
+    @Test
+    void unchangedStoreRepublishesTheSameVersion() {
+        DataStore ds = campus();
+        DataStore v1 = ds.publish();
+
+        assertSame(v1, ds.publish());
+        assertSame(v1, ds.snapshot());
+        ds.addSession(ds.findLab("L2"), session(1));
+        assertNotSame(v1, ds.publish());
+    }
+
+    @Test
+    void versionCannotBeChanged() {
+        DataStore v1 = campus().publish();
+        Lab old = v1.findLab("L1");
+
+        assertThrows(UnsupportedOperationException.class, () -> v1.addSession(old, session(1)));
+        assertThrows(UnsupportedOperationException.class, () -> v1.addLab(new Lab("L3", "Compilers")));
+        assertThrows(UnsupportedOperationException.class, () -> v1.getLabs().add(new Lab("L3", "Compilers")));
+        assertThrows(UnsupportedOperationException.class, () -> old.addSession(session(1)));
+        assertThrows(UnsupportedOperationException.class, () -> old.getSessionLog().set(0, session(2)));
+        assertSame(v1, v1.snapshot());
+    }
+}
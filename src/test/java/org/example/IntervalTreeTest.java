@@ -0,0 +1,123 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    private static List<String> stab(IntervalTree<String> tree, long t) {
+        List<String> out = new ArrayList<>();
+        tree.stab(t, out::add);
+        Collections.sort(out);
+        return out;
+    }
+
+    private static List<Integer> sorted(List<Integer> values) {
+        Collections.sort(values);
+        return values;
+    }
+
+    @Test
+    void stabIncludesBothEnds() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert("a", 10, 20);
+        tree.insert("b", 20, 30);
+        tree.insert("c", 5, 8);
+
+        assertEquals(List.of("a"), stab(tree, 10));
+        assertEquals(List.of("a", "b"), stab(tree, 20));
+        assertEquals(List.of("b"), stab(tree, 30));
+        assertEquals(List.of(), stab(tree, 9));
+        assertEquals(List.of(), stab(tree, 31));
+    }
+
+    @Test
+    void openEndedIntervalsOnlyMatchStartQueries() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert("open", 10, IntervalTree.NO_END);
+
+        assertEquals(List.of(), stab(tree, 10));
+        List<String> starting = new ArrayList<>();
+        tree.startingIn(10, 11, starting::add);
+        assertEquals(List.of("open"), starting);
+    }
+
+    @Test
+    void overlappingIgnoresTouchingEnds() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert("before", 0, 10);
+        tree.insert("inside", 12, 14);
+        tree.insert("after", 20, 30);
+
+        List<String> out = new ArrayList<>();
+        tree.overlapping(10, 20, n -> out.add(n.getValue()));
+        assertEquals(List.of("inside"), out);
+    }
+
+    @Test
+    void deleteRemovesOnlyThatInterval() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        // same start and end, told apart by the handle
+        IntervalTree.Node<String> first = tree.insert("x", 10, 20);
+        tree.insert("y", 10, 20);
+
+        tree.delete(first);
+        assertEquals(1, tree.size());
+        assertEquals(List.of("y"), stab(tree, 15));
+
+        // deleting a removed handle again changes nothing
+        tree.delete(first);
+        assertEquals(1, tree.size());
+        assertEquals(List.of("y"), stab(tree, 15));
+    }
+
+    @Test
+    void queriesMatchABruteForceScanThroughInsertsAndDeletes() {
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        List<IntervalTree.Node<Integer>> live = new ArrayList<>();
+        for (int round = 0; round < 4000; round++) {
+            if (live.isEmpty() || random.nextInt(3) > 0) {
+                long start = random.nextInt(1000);
+                long end = random.nextInt(10) == 0 ? IntervalTree.NO_END : start + random.nextInt(50);
+                live.add(tree.insert(round, start, end));
+            } else {
+                tree.delete(live.remove(random.nextInt(live.size())));
+            }
+            assertEquals(live.size(), tree.size());
+
+            if (round % 50 != 0)
+                continue;
+            long t = random.nextInt(1100);
+            long from = random.nextInt(1000);
+            long to = from + random.nextInt(100);
+
+            List<Integer> stabbed = new ArrayList<>();
+            List<Integer> starting = new ArrayList<>();
+            List<Integer> overlapping = new ArrayList<>();
+            for (IntervalTree.Node<Integer> n : live) {
+                if (n.getStart() <= t && n.getEnd() >= t)
+                    stabbed.add(n.getValue());
+                if (n.getStart() >= from && n.getStart() < to)
+                    starting.add(n.getValue());
+                if (n.getStart() < to && n.getEnd() > from)
+                    overlapping.add(n.getValue());
+            }
+            List<Integer> actual = new ArrayList<>();
+            tree.stab(t, actual::add);
+            assertEquals(sorted(stabbed), sorted(actual), "stab " + t);
+            actual = new ArrayList<>();
+            tree.startingIn(from, to, actual::add);
+            assertEquals(sorted(starting), sorted(actual), "starting in " + from + ".." + to);
+            List<Integer> found = new ArrayList<>();
+            tree.overlapping(from, to, n -> found.add(n.getValue()));
+            assertEquals(sorted(overlapping), sorted(found), "overlapping " + from + ".." + to);
+        }
+    }
+}
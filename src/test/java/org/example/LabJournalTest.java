@@ -0,0 +1,155 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabJournalTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 9, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private static TimeSheet session(int day) {
+        return new TimeSheet(T0.plusDays(day), T0.plusDays(day).plusHours(2));
+    }
+
+    private LabJournal journalWith(int sessions) throws IOException {
+        LabJournal journal = new LabJournal(dir.resolve("data.journal"));
+        journal.append(new LabJournal.LabCreated(new Lab("L1", "Networks")));
+        for (int i = 0; i < sessions; i++)
+            journal.append(new LabJournal.SessionAdded("L1", session(i)));
+        return journal;
+    }
+
+    @Test
+    void replayAppliesRecordsInOrder() throws IOException {
+        LabJournal journal = journalWith(3);
+
+        DataStore ds = new DataStore();
+        assertEquals(4, journal.replay(ds));
+        Lab lab = ds.findLab("L1");
+        assertNotNull(lab);
+        assertEquals(3, lab.sessionCount());
+        assertEquals(T0.plusDays(2), lab.getSessions().get(2).getActualStart());
+    }
+
+    @Test
+    void tornTailIsDropped() throws IOException {
+        LabJournal journal = journalWith(3);
+        Path file = journal.getPath();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        DataStore ds = new DataStore();
+        journal.replay(ds);
+        assertEquals(2, ds.findLab("L1").sessionCount());
+    }
+
+    @Test
+    void recordWithBadChecksumEndsReplay() throws IOException {
+        LabJournal journal = journalWith(3);
+        Path file = journal.getPath();
+        byte[] bytes = Files.readAllBytes(file);
+        // inside the last record's payload, before its checksum
+        bytes[bytes.length - 6] ^= 0x5A;
+        Files.write(file, bytes);
+
+        List<LabJournal.Entry> entries = journal.readAll();
+        assertEquals(3, entries.size());
+    }
+
+    @Test
+    void labCreatedKeepsStaff() throws IOException {
+        Lab lab = new Lab("L2", "Databases");
+        lab.setInstructor(new Instructor("I-1", "Ayesha Siddiqui"));
+        lab.addTA(new TA("TA-1", "Bilal Khan"));
+        lab.addTA(new TA("TA-2", "Sana Tariq"));
+        LabJournal journal = new LabJournal(dir.resolve("data.journal"));
+        journal.append(new LabJournal.LabCreated(lab));
+
+        DataStore ds = new DataStore();
+        journal.replay(ds);
+        Lab replayed = ds.findLab("L2");
+        assertEquals("Ayesha Siddiqui", replayed.getInstructor().getName());
+        assertEquals(2, replayed.getTas().size());
+        assertEquals("Sana Tariq", replayed.getTas().get(1).getName());
+        assertEquals(1, ds.getLabsForTaName("Bilal Khan").size());
+    }
+
+    @Test
+    void journalLeftBehindBySnapshotIsSkipped() throws Exception {
+        Path file = dir.resolve("datastore.dat");
+        Path journalFile = dir.resolve("datastore.dat.journal");
+        LabRepository repository = new LabRepository(file, true);
+        DataStore ds = repository.load();
+        Lab lab = new Lab("L1", "Networks");
+        ds.addLab(lab);
+        repository.record(ds, new LabJournal.LabCreated(lab));
+        ds.addSession(lab, session(0));
+        repository.record(ds, new LabJournal.SessionAdded("L1", session(0)));
+        Path stale = dir.resolve("stale.journal");
+        Files.copy(journalFile, stale);
+
+        // crash after the snapshot was renamed in, before the journal was dropped
+        repository.save(ds);
+        Files.copy(stale, journalFile, StandardCopyOption.REPLACE_EXISTING);
+
+        LabRepository reopened = new LabRepository(file, true);
+        DataStore loaded = reopened.load();
+        assertEquals(1, loaded.findLab("L1").sessionCount());
+
+        // later changes go to the snapshot's generation and are replayed
+        Lab again = loaded.findLab("L1");
+        loaded.addSession(again, session(1));
+        reopened.record(loaded, new LabJournal.SessionAdded("L1", session(1)));
+        assertEquals(2, new LabRepository(file, true).load().findLab("L1").sessionCount());
+    }
+
+    @Test
+    void journalWithoutGenerationStillReplays() throws Exception {
+        Path file = dir.resolve("datastore.dat");
+        LabJournal journal = new LabJournal(dir.resolve("datastore.dat.journal"));
+        journal.append(new LabJournal.LabCreated(new Lab("L1", "Networks")));
+        journal.append(new LabJournal.SessionAdded("L1", session(0)));
+        // drop the generation header, as written by builds before generations
+        byte[] bytes = Files.readAllBytes(journal.getPath());
+        int header = 4 + 9 + 4;
+        Files.write(journal.getPath(), Arrays.copyOfRange(bytes, header, bytes.length));
+
+        DataStore loaded = new LabRepository(file, true).load();
+        assertEquals(1, loaded.findLab("L1").sessionCount());
+    }
+
+    @Test
+    void unreadableSnapshotFallsBackToBackupAndSaysSo() throws Exception {
+        Path file = dir.resolve("datastore.dat");
+        LabRepository repository = new LabRepository(file);
+        DataStore ds = new DataStore();
+        ds.addLab(new Lab("L1", "Networks"));
+        repository.save(ds);
+        ds.addLab(new Lab("L2", "Databases"));
+        repository.save(ds);
+        Files.write(file, new byte[]{1, 2, 3});
+
+        LabRepository reopened = new LabRepository(file);
+        List<IOException> problems = new ArrayList<>();
+        reopened.setProblemHandler(problems::add);
+        DataStore loaded = reopened.load();
+
+        assertEquals(1, loaded.getLabs().size());
+        assertEquals(1, problems.size());
+        assertTrue(problems.get(0).getMessage().contains(AtomicFile.backupOf(file).toString()));
+    }
+}
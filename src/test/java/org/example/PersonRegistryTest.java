@@ -0,0 +1,128 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonRegistryTest {
+
+    private static PersonRegistry<Instructor> registry(List<Instructor> people) {
+        return new PersonRegistry<>(people, "I-", Instructor::new, Instructor::getLabIds);
+    }
+
+    private static Instructor instructor(String id, String name, String... labIds) {
+        Instructor p = new Instructor(id, name);
+        for (String labId : labIds)
+            p.assignLab(labId);
+        return p;
+    }
+
+    @Test
+    void namesDifferingInCaseOrWhitespaceAreOneKey() {
+        assertEquals("ali khan", Names.normalize("  Ali   Khan "));
+        assertEquals("ali khan", Names.normalize("ALI\tKHAN"));
+        assertEquals("ali khan", Names.normalize("ali \n khan"));
+        assertEquals("", Names.normalize("   "));
+        assertNull(Names.normalize(null));
+        assertEquals("çağla öz", Names.normalize(" ÇAĞLA  Öz"));
+        // a name that is already a key comes back as it is
+        String key = "dr ahmed";
+        assertSame(key, Names.normalize(key));
+    }
+
+    @Test
+    void lookupsIgnoreCaseAndWhitespace() {
+        PersonRegistry<Instructor> registry = registry(new ArrayList<>(List.of(instructor("I-1", "Ali Khan"))));
+
+        assertEquals("I-1", registry.findByName("ali  khan").getId());
+        assertEquals("I-1", registry.findByName(" ALI KHAN\t").getId());
+        assertNull(registry.findByName("Ali Khann"));
+        assertSame(registry.findByName("Ali Khan"), registry.resolve("ali khan"));
+    }
+
+    @Test
+    void duplicatesInALoadedListAreMerged() {
+        Instructor first = instructor("I-1", "Ali Khan", "L1");
+        Instructor alias = instructor("I-7", " ali  KHAN", "L2", "L1");
+        Instructor other = instructor("I-2", "Sara Ahmed");
+        List<Instructor> people = new ArrayList<>(List.of(first, alias, other));
+
+        PersonRegistry<Instructor> registry = registry(people);
+
+        assertEquals(List.of(first, other), people);
+        assertEquals(2, registry.size());
+        assertSame(first, registry.canonical(alias));
+        assertEquals(List.of("L1", "L2"), first.getLabIds());
+        // the alias's id is not taken over
+        assertNull(registry.findById("I-7"));
+    }
+
+    @Test
+    void reusedIdsAndNewNamesGetFreshIds() {
+        List<Instructor> people = new ArrayList<>(List.of(instructor("I-007", "Ali Khan")));
+        PersonRegistry<Instructor> registry = registry(people);
+
+        // same id, different person, e.g. a lab that changed hands
+        Instructor other = registry.canonical(instructor("I-007", "Sara Ahmed"));
+        Instructor created = registry.resolve("  Bilal   Shah ");
+
+        assertEquals("I-008", other.getId());
+        assertEquals("I-009", created.getId());
+        assertEquals("Bilal   Shah", created.getName());
+        assertEquals(3, people.size());
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve("  "));
+    }
+
+    @Test
+    void assigningByNameVariantsKeepsOnePerson() {
+        DataStore ds = new DataStore();
+        AcademicOfficer officer = new AcademicOfficer(ds);
+        officer.createLab("L1", "Networks", "CS Building", "Room 101", null, null);
+        officer.createLab("L2", "Databases", "CS Building", "Room 102", null, null);
+
+        officer.assignInstructor("L1", "Ali Khan");
+        officer.assignInstructor("L2", "  ali   KHAN ");
+        officer.assignTA("L1", "Sara Ahmed");
+        officer.assignTA("L2", "SARA AHMED");
+
+        assertEquals(1, ds.getInstructors().size());
+        assertEquals(1, ds.getTas().size());
+        Instructor instructor = ds.getInstructors().get(0);
+        assertSame(instructor, ds.findLab("L1").getInstructor());
+        assertSame(instructor, ds.findLab("L2").getInstructor());
+        assertEquals(List.of("L1", "L2"), instructor.getLabIds());
+        assertSame(ds.findLab("L1").getTas().get(0), ds.findLab("L2").getTas().get(0));
+        assertEquals(2, ds.getLabsForInstructorName("ALI KHAN").size());
+    }
+
+    @Test
+    void storeWithDuplicateStaffIsDeduplicatedWhenIndexed() {
+        DataStore ds = new DataStore();
+        Lab l1 = new Lab("L1", "Networks");
+        Lab l2 = new Lab("L2", "Databases");
+        Instructor a = instructor("I-1", "Ali Khan", "L1");
+        Instructor b = instructor("I-2", "ali khan ", "L2");
+        TA t1 = new TA("TA-1", "Sara Ahmed");
+        TA t2 = new TA("TA-1", "sara  ahmed");
+        l1.setInstructor(a);
+        l2.setInstructor(b);
+        l1.addTA(t1);
+        l2.addTA(t2);
+        ds.getInstructors().addAll(List.of(a, b));
+        ds.getTas().addAll(List.of(t1, t2));
+        ds.getLabs().addAll(List.of(l1, l2));
+
+        ds.ensureIndexed();
+
+        assertEquals(List.of(a), ds.getInstructors());
+        assertEquals(List.of(t1), ds.getTas());
+        assertSame(a, l2.getInstructor());
+        assertSame(t1, l2.getTas().get(0));
+        assertEquals(List.of("L1", "L2"), a.getLabIds());
+        assertSame(a, ds.findInstructor("I-1"));
+        assertNull(ds.findInstructor("I-2"));
+    }
+}
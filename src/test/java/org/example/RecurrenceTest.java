@@ -0,0 +1,126 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceTest {
+
+    // Monday; the semester runs four weeks
+    private static final LocalDate FIRST = LocalDate.of(2025, 9, 1);
+    private static final LocalDate LAST = LocalDate.of(2025, 9, 28);
+    private static final LocalDate HOLIDAY = LocalDate.of(2025, 9, 14);
+
+    // Sundays 23:00-01:00, the second one a holiday
+    private static Recurrence lateSunday() {
+        return new Recurrence(DayOfWeek.SUNDAY, LocalTime.of(23, 0), Duration.ofHours(2), FIRST, LAST, List.of(HOLIDAY));
+    }
+
+    private static Recurrence monday(int hour, int minutes) {
+        return new Recurrence(DayOfWeek.MONDAY, LocalTime.of(hour, 0), Duration.ofMinutes(minutes), FIRST, LAST, null);
+    }
+
+    private static Lab lab(String id, Recurrence rule) {
+        Lab lab = new Lab(id, id);
+        lab.setSchedule(new Schedule(rule));
+        return lab;
+    }
+
+    @Test
+    void sundayLabRunsIntoMonday() {
+        Recurrence r = lateSunday();
+
+        assertTrue(r.occursAt(LocalDateTime.of(2025, 9, 7, 23, 0)));
+        assertTrue(r.occursAt(LocalDateTime.of(2025, 9, 8, 0, 30)));
+        assertTrue(r.occursAt(LocalDateTime.of(2025, 9, 8, 1, 0)));
+        assertFalse(r.occursAt(LocalDateTime.of(2025, 9, 8, 1, 1)));
+        assertFalse(r.occursAt(LocalDateTime.of(2025, 9, 7, 22, 59)));
+        // it starts on Sunday only
+        assertTrue(r.occursOn(LocalDate.of(2025, 9, 7)));
+        assertFalse(r.occursOn(LocalDate.of(2025, 9, 8)));
+    }
+
+    @Test
+    void weekBoundaryRespectsSemesterDatesAndHolidays() {
+        Recurrence r = lateSunday();
+
+        // the Monday before the first Sunday
+        assertFalse(r.occursAt(LocalDateTime.of(2025, 9, 1, 0, 30)));
+        // the holiday's occurrence would run into Monday the 15th
+        assertFalse(r.occursAt(LocalDateTime.of(2025, 9, 15, 0, 30)));
+        // the last Sunday is in the semester, so its Monday morning is too
+        assertTrue(r.occursAt(LocalDateTime.of(2025, 9, 29, 0, 30)));
+        assertFalse(r.occursAt(LocalDateTime.of(2025, 10, 6, 0, 30)));
+    }
+
+    @Test
+    void occurrencesOverlappingMondayIncludeTheSundayOne() {
+        Recurrence r = lateSunday();
+        List<Schedule> found = new ArrayList<>();
+        for (Schedule s : r.occurrences(LocalDateTime.of(2025, 9, 8, 0, 0), LocalDateTime.of(2025, 9, 8, 12, 0)))
+            found.add(s);
+
+        assertEquals(1, found.size());
+        assertEquals(LocalDateTime.of(2025, 9, 7, 23, 0), found.get(0).getExpectedStart());
+        assertEquals(LocalDateTime.of(2025, 9, 8, 1, 0), found.get(0).getExpectedEnd());
+        // the range is half open: one that ends where it begins does not overlap
+        assertFalse(r.occurrences(LocalDateTime.of(2025, 9, 8, 1, 0), LocalDateTime.of(2025, 9, 8, 12, 0))
+                .iterator().hasNext());
+
+        int weeks = 0;
+        for (Schedule ignored : r.occurrences(FIRST.atStartOfDay(), LAST.plusDays(2).atStartOfDay()))
+            weeks++;
+        assertEquals(3, weeks);
+        assertEquals(LocalDate.of(2025, 9, 28), r.lastOccurrence().getExpectedStart().toLocalDate());
+    }
+
+    @Test
+    void weeklyWindowsMeetAcrossTheWeekEnd() {
+        Recurrence sunday = lateSunday();
+
+        assertTrue(sunday.weeklyWindowOverlaps(monday(0, 60)));
+        assertTrue(monday(0, 60).weeklyWindowOverlaps(sunday));
+        assertFalse(sunday.weeklyWindowOverlaps(monday(1, 60)));
+    }
+
+    @Test
+    void indexFindsTheSundayLabOnMondayMorning() {
+        Lab sunday = lab("SUN", lateSunday());
+        Lab monday = lab("MON", monday(0, 60));
+        ScheduleIndex index = new ScheduleIndex(List.of(sunday, monday));
+
+        LocalDateTime night = LocalDateTime.of(2025, 9, 8, 0, 30);
+        assertEquals(Set.of(sunday, monday), index.labsActiveAt(night));
+        assertTrue(ScheduleIndex.activeAt(sunday, night));
+        // ends are inclusive
+        assertEquals(Set.of(sunday, monday), index.labsActiveAt(LocalDateTime.of(2025, 9, 8, 1, 0)));
+        assertEquals(Set.of(monday), index.labsActiveAt(LocalDateTime.of(2025, 9, 15, 0, 30)));
+        assertEquals(Set.of(), index.labsActiveAt(LocalDateTime.of(2025, 9, 8, 1, 30)));
+
+        // filed under the day it starts
+        assertEquals(Set.of(sunday), index.labsStartingOn(LocalDate.of(2025, 9, 7)));
+        assertEquals(Set.of(monday), index.labsStartingOn(LocalDate.of(2025, 9, 8)));
+    }
+
+    @Test
+    void changedRuleIsRefiled() {
+        Lab lab = lab("SUN", lateSunday());
+        ScheduleIndex index = new ScheduleIndex(List.of(lab));
+
+        lab.setSchedule(new Schedule(new Recurrence(DayOfWeek.SUNDAY, LocalTime.of(20, 0), Duration.ofHours(1),
+                FIRST, LAST, null)));
+        index.scheduleChanged(lab);
+
+        assertTrue(index.labsActiveAt(LocalDateTime.of(2025, 9, 8, 0, 30)).isEmpty());
+        assertEquals(Set.of(lab), index.labsActiveAt(LocalDateTime.of(2025, 9, 14, 20, 30)));
+    }
+}
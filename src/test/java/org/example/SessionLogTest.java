@@ -0,0 +1,98 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionLogTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 9, 1, 9, 0);
+
+    private static SessionLog log(int sessions) {
+        SessionLog log = new SessionLog();
+        for (int i = 0; i < sessions; i++)
+            log.add(new TimeSheet(T0.plusDays(i), T0.plusDays(i).plusHours(2)));
+        return log;
+    }
+
+    @Test
+    void aggregatesCountHeldSessionsAndLeaves() {
+        SessionLog log = log(3);
+        log.add(new TimeSheet(null, null));
+        log.add(new TimeSheet(T0.plusDays(9), null));
+
+        assertEquals(5, log.size());
+        assertEquals(3 * 120, log.contactMinutes());
+        assertEquals(2, log.leaveCount());
+        assertTrue(log.isLeave(4));
+        assertEquals(T0, log.firstStart());
+        assertEquals(T0.plusDays(2).plusHours(2), log.lastEnd());
+    }
+
+    @Test
+    void snapshotIgnoresLaterAppends() {
+        SessionLog log = log(3);
+        SessionLog snapshot = log.snapshot();
+
+        log.add(new TimeSheet(T0.plusDays(5), T0.plusDays(5).plusHours(1)));
+
+        assertEquals(3, snapshot.size());
+        assertEquals(3 * 120, snapshot.contactMinutes());
+        assertEquals(4, log.size());
+        assertNotEquals(snapshot.version(), log.version());
+    }
+
+    @Test
+    void snapshotIgnoresLaterEdits() {
+        SessionLog log = log(3);
+        SessionLog snapshot = log.snapshot();
+        int version = log.version();
+
+        log.set(1, new TimeSheet(null, null));
+        assertNotEquals(version, log.version());
+        log.remove(0);
+        log.add(0, new TimeSheet(T0.minusDays(1), T0.minusDays(1).plusHours(3)));
+
+        assertEquals(SessionLog.toMinute(T0), snapshot.startMinute(0));
+        assertEquals(SessionLog.toMinute(T0.plusDays(1)), snapshot.startMinute(1));
+        assertEquals(0, snapshot.leaveCount());
+        assertEquals(version, snapshot.version());
+        // the live log has the edits
+        assertEquals(SessionLog.toMinute(T0.minusDays(1)), log.startMinute(0));
+        assertTrue(log.isLeave(1));
+        assertEquals(3 * 60 + 120, log.contactMinutes());
+
+        log.clear();
+        assertEquals(3, snapshot.size());
+    }
+
+    @Test
+    void snapshotIsReadOnly() {
+        SessionLog snapshot = log(2).snapshot();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.addMinutes(0, 1));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.set(0, new TimeSheet(T0, T0)));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+    }
+
+    @Test
+    void publishedLabKeepsItsSessions() {
+        DataStore ds = new DataStore();
+        Lab lab = new Lab("L1", "Networks");
+        ds.addLab(lab);
+        ds.addSession(lab, new TimeSheet(T0, T0.plusHours(2)));
+        Lab before = ds.publishedLab(lab);
+
+        ds.addSession(lab, new TimeSheet(T0.plusDays(7), T0.plusDays(7).plusHours(2)));
+        lab.getSessionLog().set(0, new TimeSheet(null, null));
+
+        assertEquals(1, before.getSessionLog().size());
+        assertEquals(120, before.getSessionLog().contactMinutes());
+        Lab after = ds.publishedLab(lab);
+        assertNotSame(before, after);
+        assertEquals(2, after.getSessionLog().size());
+        assertEquals(1, after.getSessionLog().leaveCount());
+    }
+}